@@ -0,0 +1,39 @@
+package com.alchemy.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks of the project with the gc profiler, so the allocation rate is reported next to the throughput.
+ * The arguments are the usual JMH command line options, e.g. a regular expression selecting the benchmarks to run.
+ *
+ * @author MiroVanHoef
+ * @author BenDeMets
+ * @author SimonVandeputte
+ * @version 1.0
+ */
+public class BenchmarkRunner {
+
+    /**
+     * This class only holds the entry point.
+     */
+    private BenchmarkRunner() {}
+
+    /**
+     * Runs the benchmarks selected by the arguments, all benchmarks if there are none.
+     *
+     * @param args JMH command line options
+     * @throws RunnerException if a benchmark fails
+     * @throws CommandLineOptionException if the arguments are not valid JMH options
+     */
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,240 @@
+package com.alchemy.benchmarks;
+
+import com.alchemy.AlchemicIngredient;
+import com.alchemy.IngredientConditions.Device;
+import com.alchemy.IngredientConditions.IngredientState;
+import com.alchemy.IngredientConditions.Kettle;
+import com.alchemy.IngredientConditions.Oven;
+import com.alchemy.IngredientConditions.Temperature;
+import com.alchemy.IngredientContainer;
+import com.alchemy.IngredientName;
+import com.alchemy.Laboratory;
+import com.alchemy.quantity.FluidUnit;
+import com.alchemy.recipes.Recipe;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Macro-benchmarks of the entry points of a laboratory, for laboratories of different sizes.
+ * Every size is a number of stored containers and a number of storerooms, e.g. "1000/1" is a laboratory of one storeroom holding 1000 vials.
+ * The sizes are given as pairs, because a vial takes 5 spoons and not every number of containers fits in every number of storerooms.
+ * The laboratory is stocked with a fixed seed, so every run measures the same work.
+ * The benchmarks that change the laboratory run a batch of BATCH operations per iteration and report the time of the whole batch,
+ * on a laboratory that is stocked again before every iteration, so it does not drift away from its size during a measurement.
+ *
+ * @author MiroVanHoef
+ * @author BenDeMets
+ * @author SimonVandeputte
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LaboratoryBenchmark {
+
+    /**********************************************************
+     * Constants
+     **********************************************************/
+
+    /**
+     * The number of operations per iteration of the benchmarks that change the laboratory.
+     */
+    private static final int BATCH = 100;
+
+    /**
+     * The number of different ingredients stored in a laboratory, at most.
+     */
+    private static final int NAMES = 100;
+
+    /**
+     * The amount in every stored vial, in drops: a full vial.
+     */
+    private static final int DROPS_PER_VIAL = 40;
+
+
+    /**********************************************************
+     * States
+     **********************************************************/
+
+    /**
+     * A stocked laboratory with everything a batch of operations needs.
+     */
+    @State(Scope.Thread)
+    public abstract static class Stock {
+
+        /**
+         * The number of stored containers and the number of storerooms of the laboratory, separated by a slash.
+         */
+        @Param({"10/1", "1000/1", "10000/10", "100000/100", "100000/1000"})
+        public String size;
+
+        /**
+         * The laboratory under test.
+         */
+        Laboratory laboratory;
+
+        /**
+         * The basic names of the stored ingredients.
+         */
+        String[] names;
+
+        /**
+         * The content of the first stored container.
+         */
+        AlchemicIngredient first;
+
+        /**
+         * Full vials that are not stored yet, one for every operation of a batch.
+         */
+        IngredientContainer[] incoming;
+
+        /**
+         * Recipes that heat one ingredient and mix it with another, one for every operation of a batch.
+         */
+        Recipe[] recipes;
+
+        /**
+         * The number of operations done in the current iteration.
+         */
+        int next;
+
+        /**
+         * Builds the laboratory with a kettle and an oven and stocks it with full vials,
+         * and prepares the containers and recipes of a batch.
+         */
+        void stock() throws Exception {
+            String[] parts = size.split("/");
+            int containers = Integer.parseInt(parts[0]);
+            laboratory = new Laboratory(Integer.parseInt(parts[1]));
+            laboratory.addDevice(new Kettle());
+            laboratory.addDevice(new Oven());
+            names = new String[Math.min(containers, NAMES)];
+            for (int i = 0; i < names.length; i++) {
+                names[i] = "Essence " + (char) ('A' + i / 26) + (char) ('a' + i % 26);
+            }
+            Random random = new Random(42);
+            List<IngredientContainer> stock = new ArrayList<>(containers);
+            for (int i = 0; i < containers; i++) {
+                // every name is stored at least once, the rest is spread at random
+                String name = i < names.length ? names[i] : names[random.nextInt(names.length)];
+                stock.add(vial(name));
+            }
+            laboratory.addContainers(stock);
+            first = laboratory.getContainers().getFirst().getContent();
+            incoming = new IngredientContainer[BATCH];
+            recipes = new Recipe[BATCH];
+            for (int i = 0; i < BATCH; i++) {
+                incoming[i] = vial(names[i % names.length]);
+                recipes[i] = new Recipe(
+                        new Recipe.ActionType[]{Recipe.ActionType.ADD, Recipe.ActionType.HEAT, Recipe.ActionType.ADD, Recipe.ActionType.MIX},
+                        new AlchemicIngredient[]{drop(names[i % names.length]), drop(names[(i + 1) % names.length])});
+            }
+            next = 0;
+        }
+    }
+
+    /**
+     * A laboratory that is stocked once, for the benchmarks that only read it.
+     */
+    @State(Scope.Thread)
+    public static class Stocked extends Stock {
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            stock();
+        }
+    }
+
+    /**
+     * A laboratory that is stocked again before every iteration, for the benchmarks that change it.
+     */
+    @State(Scope.Thread)
+    public static class Restocked extends Stock {
+
+        @Setup(Level.Iteration)
+        public void setUp() throws Exception {
+            stock();
+        }
+    }
+
+    /**
+     * Returns a full vial of the given ingredient at its standard temperature.
+     */
+    private static IngredientContainer vial(String name) throws IngredientName.IllegalNameException {
+        return new IngredientContainer(new AlchemicIngredient(name, new Temperature(0, 20), new IngredientState(false), DROPS_PER_VIAL), FluidUnit.VIAL);
+    }
+
+    /**
+     * Returns a drop of the given ingredient, as it is used in a recipe.
+     */
+    private static AlchemicIngredient drop(String name) throws IngredientName.IllegalNameException {
+        return new AlchemicIngredient(name, new Temperature(0, 20), new IngredientState(false), 1);
+    }
+
+
+    /**********************************************************
+     * Benchmarks
+     **********************************************************/
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 5, batchSize = BATCH)
+    @Measurement(iterations = 10, batchSize = BATCH)
+    public void addContainer(Restocked lab) {
+        lab.laboratory.addContainer(lab.incoming[lab.next++]);
+    }
+
+    /**
+     * Moves a quarter of a vial into the laboratory, the rest stays in the vial.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 5, batchSize = BATCH)
+    @Measurement(iterations = 10, batchSize = BATCH)
+    public void addPartOfContainer(Restocked lab) throws IngredientName.IllegalNameException {
+        lab.laboratory.addContainer(lab.incoming[lab.next++], DROPS_PER_VIAL / 4);
+    }
+
+    /**
+     * Takes a drop of every ingredient in turn, which splits the oldest vial of the ingredient.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 5, batchSize = BATCH)
+    @Measurement(iterations = 10, batchSize = BATCH)
+    public IngredientContainer removeIngredient(Restocked lab) throws IngredientName.IllegalNameException {
+        return lab.laboratory.removeIngredient(lab.names[lab.next++ % lab.names.length], FluidUnit.DROP, 1);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 5, batchSize = BATCH)
+    @Measurement(iterations = 10, batchSize = BATCH)
+    public void executeRecipe(Restocked lab) throws Laboratory.LaboratoryMissingDeviceException, Device.DeviceFullException, IngredientName.IllegalNameException {
+        lab.laboratory.executeRecipe(lab.recipes[lab.next++]);
+    }
+
+    @Benchmark
+    public String getContents(Stocked lab) {
+        return lab.laboratory.getContents();
+    }
+
+    /**
+     * Looks up the ingredient of the first stored container.
+     */
+    @Benchmark
+    public String getContentsOfIngredient(Stocked lab) {
+        return lab.laboratory.getContents(lab.first);
+    }
+
+    @Benchmark
+    public float getFreeSpace(Stocked lab) {
+        return lab.laboratory.getFreeSpace();
+    }
+}
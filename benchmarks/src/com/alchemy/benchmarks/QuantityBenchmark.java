@@ -0,0 +1,143 @@
+package com.alchemy.benchmarks;
+
+import com.alchemy.quantity.FluidUnit;
+import com.alchemy.quantity.PowderUnit;
+import com.alchemy.quantity.Quantity;
+import com.alchemy.quantity.Unit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micro-benchmarks of the units and quantities every capacity check of a laboratory goes through.
+ * Every benchmark works through a fixed set of random amounts, so the branches of the code under test are not always taken the same way.
+ * Run with the gc profiler (see BenchmarkRunner) to see the allocation rate next to the throughput.
+ *
+ * @author MiroVanHoef
+ * @author BenDeMets
+ * @author SimonVandeputte
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuantityBenchmark {
+
+    /**********************************************************
+     * Variables
+     **********************************************************/
+
+    /**
+     * The number of prepared amounts, a power of two.
+     */
+    private static final int SIZE = 1024;
+
+    /**
+     * Random amounts in drops, up to a storeroom.
+     */
+    private final Float[] drops = new Float[SIZE];
+
+    /**
+     * Random fluid quantities, up to a storeroom.
+     */
+    private final Quantity[] fluids = new Quantity[SIZE];
+
+    /**
+     * Random powder quantities, up to a storeroom.
+     */
+    private final Quantity[] powders = new Quantity[SIZE];
+
+    /**
+     * The units a conversion starts from.
+     */
+    private final Unit[] units = new Unit[SIZE];
+
+    /**
+     * The index of the next prepared amount.
+     */
+    private int next;
+
+
+    /**********************************************************
+     * Setup
+     **********************************************************/
+
+    /**
+     * Prepares the amounts with a fixed seed, so every run measures the same work.
+     */
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        FluidUnit[] fluidUnits = FluidUnit.values();
+        for (int i = 0; i < SIZE; i++) {
+            drops[i] = (float) random.nextInt(50400);
+            fluids[i] = new Quantity(random.nextInt(50400), FluidUnit.DROP);
+            powders[i] = new Quantity(random.nextInt(37800), PowderUnit.PINCH);
+            units[i] = fluidUnits[random.nextInt(fluidUnits.length)];
+        }
+    }
+
+    /**
+     * Returns the index of the next prepared amount.
+     */
+    private int next() {
+        return next = (next + 1) & (SIZE - 1);
+    }
+
+
+    /**********************************************************
+     * Benchmarks
+     **********************************************************/
+
+    @Benchmark
+    public Float convertTo() {
+        int i = next();
+        return units[i].convertTo(FluidUnit.DROP, drops[i]);
+    }
+
+    @Benchmark
+    public void calculateConversionMaps() {
+        Unit.calculateConversionMaps(FluidUnit.values());
+    }
+
+    @Benchmark
+    public void compareQuantities(Blackhole blackhole) {
+        int i = next();
+        Quantity quantity = fluids[i];
+        Quantity other = fluids[(i + 1) & (SIZE - 1)];
+        blackhole.consume(quantity.isGreaterThan(other));
+        blackhole.consume(quantity.isSmallerThanOrEqualTo(other));
+        blackhole.consume(quantity.isEqualTo(other));
+    }
+
+    @Benchmark
+    public boolean compareWithAmount() {
+        int i = next();
+        return fluids[i].isGreaterThanOrEqualTo(FluidUnit.SPOON, drops[i] / 8);
+    }
+
+    @Benchmark
+    public Unit getSmallestFluidContainer() {
+        return fluids[next()].getSmallestFluidContainer();
+    }
+
+    @Benchmark
+    public Unit getSmallestPowderContainer() {
+        return powders[next()].getSmallestPowderContainer();
+    }
+
+    /**
+     * Converts a fluid quantity to a powder unit and back, leaving it as it was.
+     */
+    @Benchmark
+    public Float convertBetweenStates() {
+        Quantity quantity = fluids[next()];
+        quantity.convertToPowderUnit(PowderUnit.PINCH);
+        return quantity.convertToFluidUnit(FluidUnit.DROP);
+    }
+}
@@ -0,0 +1,110 @@
+package com.alchemy.benchmarks;
+
+import com.alchemy.AlchemicIngredient;
+import com.alchemy.IngredientConditions.IngredientState;
+import com.alchemy.IngredientConditions.Temperature;
+import com.alchemy.IngredientContainer;
+import com.alchemy.Laboratory;
+import com.alchemy.quantity.FluidUnit;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of going over all containers of a laboratory, for a laboratory that keeps its containers on the heap,
+ * one that keeps them in memory mapped columns and one that keeps a balance per kind of ingredient.
+ * The sizes are pairs of stored containers and storerooms, as in LaboratoryBenchmark.
+ * getContents reports the totals per ingredient and does not go over the containers, it is the baseline of the sweep of getContainers.
+ *
+ * @author MiroVanHoef
+ * @author BenDeMets
+ * @author SimonVandeputte
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ScanBenchmark {
+
+    /**
+     * The number of stored containers and the number of storerooms of the laboratory, separated by a slash.
+     */
+    @Param({"10000/10", "1000000/800"})
+    public String size;
+
+    /**
+     * Where the laboratory keeps its containers: "heap", "mapped" or "aggregated".
+     */
+    @Param({"heap", "mapped", "aggregated"})
+    public String storage;
+
+    /**
+     * The laboratory that is swept.
+     */
+    private Laboratory laboratory;
+
+    /**
+     * The directory of the columns of a mapped laboratory.
+     */
+    private Path directory;
+
+    /**
+     * Stocks the laboratory with full vials of 100 ingredients with a fixed seed.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        String[] parts = size.split("/");
+        int containers = Integer.parseInt(parts[0]);
+        int storerooms = Integer.parseInt(parts[1]);
+        if (storage.equals("mapped")) {
+            directory = Files.createTempDirectory("columns");
+            laboratory = new Laboratory(storerooms, 1, directory);
+        } else if (storage.equals("aggregated")) {
+            laboratory = Laboratory.aggregated(storerooms, 1);
+        } else {
+            laboratory = new Laboratory(storerooms);
+        }
+        String[] names = new String[100];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = "Essence " + (char) ('A' + i / 26) + (char) ('a' + i % 26);
+        }
+        Random random = new Random(42);
+        List<IngredientContainer> stock = new ArrayList<>(containers);
+        for (int i = 0; i < containers; i++) {
+            AlchemicIngredient vial = new AlchemicIngredient(names[random.nextInt(names.length)], new Temperature(0, 20), new IngredientState(false), 40);
+            stock.add(new IngredientContainer(vial, FluidUnit.VIAL));
+        }
+        laboratory.addContainers(stock);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (directory != null) {
+            try (var files = Files.list(directory)) {
+                for (Path file : files.toList()) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+        }
+    }
+
+    @Benchmark
+    public String getContents() {
+        return laboratory.getContents();
+    }
+
+    @Benchmark
+    public List<IngredientContainer> getContainers() {
+        return laboratory.getContainers();
+    }
+}
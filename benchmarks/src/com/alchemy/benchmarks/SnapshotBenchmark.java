@@ -0,0 +1,95 @@
+package com.alchemy.benchmarks;
+
+import com.alchemy.AlchemicIngredient;
+import com.alchemy.IngredientConditions.IngredientState;
+import com.alchemy.IngredientConditions.Kettle;
+import com.alchemy.IngredientConditions.Oven;
+import com.alchemy.IngredientConditions.Temperature;
+import com.alchemy.IngredientContainer;
+import com.alchemy.Laboratory;
+import com.alchemy.LaboratorySnapshot;
+import com.alchemy.quantity.FluidUnit;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of saving a laboratory to a snapshot and loading it again, for laboratories of different sizes.
+ * The sizes are pairs of stored containers and storerooms, as in LaboratoryBenchmark.
+ * Every iteration saves or loads the whole laboratory once.
+ *
+ * @author MiroVanHoef
+ * @author BenDeMets
+ * @author SimonVandeputte
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SnapshotBenchmark {
+
+    /**
+     * The number of stored containers and the number of storerooms of the laboratory, separated by a slash.
+     */
+    @Param({"10000/10", "1000000/800"})
+    public String size;
+
+    /**
+     * The laboratory that is saved.
+     */
+    private Laboratory laboratory;
+
+    /**
+     * The file the laboratory is saved to and loaded from.
+     */
+    private Path file;
+
+    /**
+     * Stocks the laboratory with full vials of 100 ingredients with a fixed seed and saves it once, so there is a snapshot to load.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        String[] parts = size.split("/");
+        int containers = Integer.parseInt(parts[0]);
+        laboratory = new Laboratory(Integer.parseInt(parts[1]));
+        laboratory.addDevice(new Kettle());
+        laboratory.addDevice(new Oven());
+        String[] names = new String[100];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = "Essence " + (char) ('A' + i / 26) + (char) ('a' + i % 26);
+        }
+        Random random = new Random(42);
+        List<IngredientContainer> stock = new ArrayList<>(containers);
+        for (int i = 0; i < containers; i++) {
+            AlchemicIngredient vial = new AlchemicIngredient(names[random.nextInt(names.length)], new Temperature(0, 20), new IngredientState(false), 40);
+            stock.add(new IngredientContainer(vial, FluidUnit.VIAL));
+        }
+        laboratory.addContainers(stock);
+        file = Files.createTempFile("laboratory", ".snapshot");
+        LaboratorySnapshot.save(laboratory, file);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void save() throws IOException {
+        LaboratorySnapshot.save(laboratory, file);
+    }
+
+    @Benchmark
+    public Laboratory load() throws IOException {
+        return LaboratorySnapshot.load(file);
+    }
+}
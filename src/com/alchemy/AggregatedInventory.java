@@ -0,0 +1,361 @@
+package com.alchemy;
+
+import be.kuleuven.cs.som.annotate.Raw;
+import com.alchemy.IngredientConditions.IngredientState;
+import com.alchemy.IngredientConditions.Temperature;
+import com.alchemy.quantity.FixedQuantity;
+import com.alchemy.quantity.Quantity;
+import com.alchemy.quantity.Unit;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The stock of a laboratory, kept as a balance per kind of ingredient instead of as containers.
+ * Stored content is merged into the balance of the ingredients with the same type, special name, state and temperature,
+ * so the inventory grows with the number of different ingredients, not with the number of containers that were stored.
+ * Containers are only made when they are asked for: a balance is poured in the largest containers it fills
+ * and the smallest container that fits the rest, see Quantity.getSmallestContainer.
+ * Withdrawing takes from the oldest balances of an ingredient first and only lowers balances.
+ * Like in the other inventories, the space a balance takes is the capacity of the containers it would be poured in,
+ * so the filled space of a laboratory does not depend on how its stock is kept.
+ * This inventory is meant to be used by one thread at a time.
+ * @invar The total of a name always equals the sum of the balances stored under that name.
+ * @invar The filled space of a state always equals the sum of the capacities of the containers the balances of that state would be poured in.
+ * @invar Every balance is greater than 0.
+ * nominally programmed
+ *
+ * @author MiroVanHoef
+ * @author BenDeMets
+ * @author SimonVandeputte
+ * @version 1.0
+ */
+class AggregatedInventory implements Inventory {
+
+    /**********************************************************
+     * Variables
+     **********************************************************/
+
+    /**
+     * The stock of every ingredient, by basic name, in the order the ingredients were first stored.
+     */
+    private final LinkedHashMap<String, Stock> stocks = new LinkedHashMap<>();
+
+    /**
+     * The space taken by all fluid balances, in ticks.
+     */
+    private long filledFluidTicks;
+
+    /**
+     * The space taken by all powder balances, in ticks.
+     */
+    private long filledPowderTicks;
+
+    /**
+     * The space that is reserved without holding stock, in ticks.
+     */
+    private long reservedTicks;
+
+
+    /**********************************************************
+     * Constructors
+     **********************************************************/
+
+    /**
+     * Creates an empty inventory.
+     */
+    @Raw
+    AggregatedInventory() {}
+
+
+    /**********************************************************
+     * Methods
+     **********************************************************/
+
+    /**
+     * Merges the contents of the containers into their balances, if the space the balances then take stays within the limit.
+     * Whether the contents fit depends on the containers the merged balances would be poured in,
+     * so the contents are merged first and taken out again if they don't fit.
+     */
+    @Override
+    public boolean tryAdd(Collection<IngredientContainer> containers, long limit) {
+        return tryAddReserved(containers, 0, limit);
+    }
+
+    /**
+     * Merges the contents of the containers into their balances in space that was reserved, if the space the balances then take
+     * stays within the limit once the reserved space is given back. See tryAdd.
+     */
+    @Override
+    public boolean tryAddReserved(Collection<IngredientContainer> containers, long reserved, long limit) {
+        long contentTicks = 0;
+        for (IngredientContainer container : containers) {
+            AlchemicIngredient content = container.getContent();
+            contentTicks += content.getQuantity().getValue().getTicks();
+            Stock stock = stocks.computeIfAbsent(content.getBasicName(), name -> new Stock());
+            Balance balance = stock.find(content);
+            if (balance == null) {
+                balance = new Balance(content);
+                stock.balances.addLast(balance);
+            }
+            adjust(stock, balance, content.getQuantity().getValue().getTicks());
+        }
+        if (contentTicks <= reserved || getFilledTicks() - reserved <= limit) {
+            reservedTicks -= reserved;
+            return true;
+        }
+        for (IngredientContainer container : containers) {
+            AlchemicIngredient content = container.getContent();
+            Stock stock = stocks.get(content.getBasicName());
+            Balance balance = stock.find(content);
+            adjust(stock, balance, -content.getQuantity().getValue().getTicks());
+            if (balance.ticks == 0) {
+                stock.balances.remove(balance);
+            }
+            if (stock.balances.isEmpty()) {
+                stocks.remove(content.getBasicName());
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public AlchemicIngredient withdraw(String name, long requested) {
+        if (getTicks(name) < requested) {
+            return null;
+        }
+        Stock stock = stocks.get(name);
+        Balance oldest = stock.balances.getFirst();
+        AlchemicIngredient withdrawn = oldest.ingredient(requested);
+        long remaining = requested;
+        while (remaining > 0) {
+            Balance balance = stock.balances.getFirst();
+            long taken = Math.min(balance.ticks, remaining);
+            adjust(stock, balance, -taken);
+            remaining -= taken;
+            if (balance.ticks == 0) {
+                stock.balances.removeFirst();
+            }
+        }
+        if (stock.balances.isEmpty()) {
+            stocks.remove(name);
+        }
+        return withdrawn;
+    }
+
+    @Override
+    public boolean reserve(long ticks, long limit) {
+        if (getFilledTicks() + ticks > limit) {
+            return false;
+        }
+        reservedTicks += ticks;
+        return true;
+    }
+
+    @Override
+    public void release(long ticks) {
+        reservedTicks -= ticks;
+    }
+
+    /**
+     * Returns the first container the oldest balance of the given ingredient would be poured in.
+     *
+     * @param name the basic name of the ingredient
+     * @return a new container, or null if the inventory holds none of the ingredient
+     */
+    @Override
+    public IngredientContainer peekFirst(String name) {
+        Stock stock = stocks.get(name);
+        if (stock == null) {
+            return null;
+        }
+        Balance balance = stock.balances.getFirst();
+        Unit container = Quantity.getSmallestContainer(balance.ticks, balance.solid);
+        return new IngredientContainer(balance.ingredient(Math.min(balance.ticks, FixedQuantity.ticksPer(container))), container);
+    }
+
+    @Override
+    public long getTicks(String name) {
+        Stock stock = stocks.get(name);
+        return stock == null ? 0 : stock.ticks;
+    }
+
+    @Override
+    public List<String> getNames() {
+        return List.copyOf(stocks.keySet());
+    }
+
+    /**
+     * Returns the space taken by all balances and reservations.
+     *
+     * @return the capacity of the containers all balances would be poured in plus the reserved space, in ticks
+     */
+    @Override
+    public long getFilledTicks() {
+        return filledFluidTicks + filledPowderTicks + reservedTicks;
+    }
+
+    /**
+     * Returns the space taken by the balances of one state.
+     *
+     * @param solid whether to count the powder balances instead of the fluid balances
+     * @return the capacity of the containers the balances of the state would be poured in, in ticks
+     */
+    @Override
+    public long getFilledTicks(boolean solid) {
+        return solid ? filledPowderTicks : filledFluidTicks;
+    }
+
+    /**
+     * Returns the stock poured in containers, balance by balance, in the order the ingredients were first stored.
+     *
+     * @return a list of new containers
+     */
+    @Override
+    public List<IngredientContainer> getContainers() {
+        List<IngredientContainer> containers = new ArrayList<>();
+        for (Stock stock : stocks.values()) {
+            for (Balance balance : stock.balances) {
+                long remaining = balance.ticks;
+                while (remaining > 0) {
+                    Unit container = Quantity.getSmallestContainer(remaining, balance.solid);
+                    long ticks = Math.min(remaining, FixedQuantity.ticksPer(container));
+                    containers.add(new IngredientContainer(balance.ingredient(ticks), container));
+                    remaining -= ticks;
+                }
+            }
+        }
+        return Collections.unmodifiableList(containers);
+    }
+
+    @Override
+    public Iterable<IngredientContainer> containers() {
+        return getContainers();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return stocks.isEmpty();
+    }
+
+    /**
+     * Adds an amount to a balance of a stock and changes the filled space by the capacity the balance gains or loses.
+     */
+    private void adjust(Stock stock, Balance balance, long ticks) {
+        long before = capacity(balance.ticks, balance.solid);
+        balance.ticks += ticks;
+        stock.ticks += ticks;
+        long difference = capacity(balance.ticks, balance.solid) - before;
+        if (balance.solid) {
+            filledPowderTicks += difference;
+        } else {
+            filledFluidTicks += difference;
+        }
+    }
+
+    /**
+     * Returns the capacity of the containers an amount would be poured in: the largest containers it fills
+     * and the smallest container that fits the rest, like getContainers pours a balance.
+     */
+    private static long capacity(long ticks, boolean solid) {
+        long largest = FixedQuantity.ticksPer(Quantity.getSmallestContainer(Long.MAX_VALUE, solid));
+        long rest = ticks % largest;
+        return ticks - rest + (rest == 0 ? 0 : FixedQuantity.ticksPer(Quantity.getSmallestContainer(rest, solid)));
+    }
+
+
+    /**********************************************************
+     * Classes
+     **********************************************************/
+
+    /**
+     * The balances and total amount of one ingredient.
+     */
+    private static class Stock {
+        /**
+         * The balances of the ingredient, oldest first.
+         */
+        private final ArrayDeque<Balance> balances = new ArrayDeque<>();
+        /**
+         * The total amount of the ingredient in ticks.
+         */
+        private long ticks;
+
+        /**
+         * Returns the balance content can be merged into, or null if there is none.
+         */
+        private Balance find(AlchemicIngredient content) {
+            for (Balance balance : balances) {
+                if (balance.accepts(content)) {
+                    return balance;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * The amount of one kind of ingredient: one type, special name, state and temperature.
+     */
+    private static class Balance {
+        /**
+         * The type of the ingredient.
+         */
+        private final IngredientType type;
+        /**
+         * The special name of the ingredient, null if it has none.
+         */
+        private final String specialName;
+        /**
+         * The packed temperature of the ingredient.
+         */
+        private final float temperature;
+        /**
+         * Whether the ingredient is a powder.
+         */
+        private final boolean solid;
+        /**
+         * The base unit of the ingredient.
+         */
+        private final Unit baseUnit;
+        /**
+         * The amount of the ingredient in ticks.
+         */
+        private long ticks;
+
+        /**
+         * Creates an empty balance of the kind of the given ingredient.
+         */
+        private Balance(AlchemicIngredient content) {
+            type = content.getStandardType();
+            specialName = content.getSpecialName();
+            temperature = content.getTemperature().getValue();
+            solid = content.getState().isSolid();
+            baseUnit = content.getQuantity().getUnit().getBaseUnit();
+        }
+
+        /**
+         * Checks if an ingredient is of the kind of this balance.
+         */
+        private boolean accepts(AlchemicIngredient content) {
+            return type == content.getStandardType()
+                    && Objects.equals(specialName, content.getSpecialName())
+                    && Float.compare(temperature, content.getTemperature().getValue()) == 0
+                    && solid == content.getState().isSolid()
+                    && baseUnit == content.getQuantity().getUnit().getBaseUnit();
+        }
+
+        /**
+         * Returns a new ingredient of the kind of this balance with the given amount, in its base unit.
+         */
+        private AlchemicIngredient ingredient(long ticks) {
+            return new AlchemicIngredient(type, specialName, new Quantity(new FixedQuantity(ticks, baseUnit)),
+                    LaboratorySnapshot.temperature(temperature), new IngredientState(solid));
+        }
+    }
+}
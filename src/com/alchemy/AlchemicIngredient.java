@@ -5,7 +5,7 @@ import com.alchemy.quantity.*;
 import com.alchemy.IngredientConditions.IngredientState;
 
 import java.util.ArrayList;
-import java.util.List;
+import java.util.Objects;
 /**
  * A class representing a certain amount of a substance used to create potions and such.
  * @invar the name, temperature, type, state and quantity aren't null
@@ -22,10 +22,20 @@ public class AlchemicIngredient {
      **********************************************************/
 
     /**
-     * Variable referencing the name of the ingredient
+     * Variable referencing the name of the ingredient, shared with the type and never changed
      */
     private final IngredientName ingredientName;
 
+    /**
+     * Variable referencing the special name of the ingredient, null if it has none
+     */
+    private volatile String specialName;
+
+    /**
+     * Variable referencing the last rendered full name, null if the full name was not asked yet or the special name changed since
+     */
+    private volatile RenderedName renderedName;
+
     /**
      * Variable referencing the Temperature of the ingredient
      */
@@ -65,7 +75,7 @@ public class AlchemicIngredient {
      */
     @Raw
     public AlchemicIngredient(String name, Temperature temperature, IngredientState.State state, int quantity) throws IngredientName.IllegalNameException {
-        this(new IngredientType(name,temperature,new IngredientState(state)),(float) quantity);
+        this(IngredientType.of(name,temperature,state),(float) quantity);
     }
 
     /**
@@ -82,7 +92,7 @@ public class AlchemicIngredient {
      */
     @Raw
     public AlchemicIngredient(String name, Temperature temperature, IngredientState.State state, float quantity) throws IngredientName.IllegalNameException {
-        this(new IngredientType(name,temperature,new IngredientState(state)), quantity);
+        this(IngredientType.of(name,temperature,state), quantity);
     }
 
     /**
@@ -99,7 +109,7 @@ public class AlchemicIngredient {
      */
     @Raw
     public AlchemicIngredient(String name, Temperature temperature, IngredientState state, int quantity) throws IngredientName.IllegalNameException {
-        this(new IngredientType(name,temperature,state),(float) quantity);
+        this(IngredientType.of(name,temperature,state),(float) quantity);
     }
 
     /**
@@ -116,7 +126,7 @@ public class AlchemicIngredient {
      */
     @Raw
     public AlchemicIngredient(String name, Temperature temperature, IngredientState state, float quantity) throws IngredientName.IllegalNameException {
-        this(new IngredientType(name,temperature,state), quantity);
+        this(IngredientType.of(name,temperature,state), quantity);
     }
 
     /**
@@ -133,40 +143,45 @@ public class AlchemicIngredient {
      */
     @Raw
     public AlchemicIngredient(String name, Temperature temperature, IngredientState state, Quantity quantity) throws IngredientName.IllegalNameException {
-        this(new IngredientType(name,temperature,state), quantity);
+        this(IngredientType.of(name,temperature,state), quantity);
     }
 
     /**
-     * Create a given amount of given type ingredient
+     * Create a given amount of given type ingredient, at the standard temperature and in the standard state of the type
      * @param standardType the type of the ingredient
      * @param quantity The quantity of the ingredient
      */
     @Raw
     public AlchemicIngredient(IngredientType standardType, Quantity quantity) {
-        this.standardType = standardType;
-        this.ingredientName = standardType.getName();
-        this.temperature = standardType.getStandardTemperature();
-        this.state = standardType.getStandardState();
-        this.quantity = quantity;
+        this(standardType, standardType.getName().getSpecialName(), quantity, standardType.getStandardTemperature(), standardType.getStandardState());
     }
 
     /**
-     * Create a given amount of given type ingredient
+     * Create a given amount of given type ingredient, at the standard temperature and in the standard state of the type
      * @param standardType the type of the ingredient
      * @param quantity The amount of the ingredient in the smallest unit of the state it is in.
      */
     @Raw
     public AlchemicIngredient(IngredientType standardType, float quantity) {
+        this(standardType, standardType.getStandardState().isSolid() ? new Quantity(quantity, PowderUnit.PINCH) : new Quantity(quantity, FluidUnit.DROP));
+    }
+
+    /**
+     * Create a given amount of an ingredient of the given type, with the given special name, temperature and state
+     * @param standardType the type of the ingredient
+     * @param specialName the special name of the ingredient, null if it has none
+     * @param quantity The quantity of the ingredient
+     * @param temperature the temperature of the ingredient, which is copied
+     * @param state the state of the ingredient, which is copied
+     */
+    @Raw
+    AlchemicIngredient(IngredientType standardType, String specialName, Quantity quantity, Temperature temperature, IngredientState state) {
         this.standardType = standardType;
         this.ingredientName = standardType.getName();
-        this.temperature = standardType.getStandardTemperature();
-        this.state = standardType.getStandardState();
-        if(standardType.getStandardState().getState().isSolid()){
-            this.quantity = new Quantity(quantity, PowderUnit.PINCH);
-        }
-        else{
-            this.quantity = new Quantity(quantity, FluidUnit.DROP);
-        }
+        this.specialName = specialName;
+        this.temperature = new Temperature(temperature.getColdness(), temperature.getHotness());
+        this.state = new IngredientState(state.getState());
+        this.quantity = quantity;
     }
 
     /**
@@ -175,7 +190,7 @@ public class AlchemicIngredient {
      */
     @Raw
     public AlchemicIngredient(Quantity quantity) {
-        this(new IngredientType(), quantity);
+        this(IngredientType.standard(), quantity);
     }
 
     /**
@@ -184,7 +199,7 @@ public class AlchemicIngredient {
      */
     @Raw
     public AlchemicIngredient(Float quantity) {
-        this(new IngredientType(), quantity);
+        this(IngredientType.standard(), quantity);
     }
 
 
@@ -199,7 +214,11 @@ public class AlchemicIngredient {
      * @throws IngredientName.IllegalSpecialNameException if the special name is not a valid special name
      */
     public void setSpecialName(String specialName) throws IngredientName.IllegalSpecialNameException {
-        this.ingredientName.setSpecialName(specialName);
+        if (!ingredientName.canHaveAsSpecialName(specialName)) {
+            throw new IngredientName.IllegalSpecialNameException(specialName);
+        }
+        this.specialName = specialName;
+        this.renderedName = null;
     }
 
     /**
@@ -219,18 +238,24 @@ public class AlchemicIngredient {
      */
     @Basic
     public String getSpecialName() {
-        return ingredientName.getSpecialName();
+        return specialName;
     }
 
     /**
      * Get the full name of the ingredient
+     * The name is only rendered again when the temperature went to the other side of the standard temperature or the special name changed.
      *
-     * @return the full name of the ingredient
+     * @return the full name of the ingredient, with "Cooled" or "Heated" in front if it is colder or hotter than its standard temperature
      */
     @Basic
     public String getFullName() {
-        updateFullName();
-        return ingredientName.getFullName();
+        String prefix = getTemperaturePrefix();
+        RenderedName rendered = renderedName;
+        if (rendered == null || rendered.prefix() != prefix) {
+            rendered = new RenderedName(prefix, ingredientName.getFullName(prefix, specialName));
+            renderedName = rendered;
+        }
+        return rendered.name();
     }
 
     /**
@@ -273,26 +298,6 @@ public class AlchemicIngredient {
         return standardType;
     }
 
-    /**
-     * Get the prefixes of the ingredient name
-     *
-     * @return the prefixes of the ingredient name
-     */
-    @Basic
-    private List<String> getPrefixes() {
-        return ingredientName.getPrefixes();
-    }
-
-    /**
-     * Get the suffixes of the ingredient name
-     *
-     * @return the suffixes of the ingredient name
-     */
-    @Basic
-    private List<String> getSuffixes() {
-        return ingredientName.getSuffixes();
-    }
-
     /**
      * Get the part names of the ingredient name
      *
@@ -309,40 +314,45 @@ public class AlchemicIngredient {
      **********************************************************/
 
     /**
-     * Add a prefix to the name of the ingredient
-     *
-     * @param prefix the prefix to be added
-     */
-    private void addPrefix(String prefix) {
-        ingredientName.addPrefix(prefix);
-    }
-
-    /**
-     * Add a suffix to the name of the ingredient
-     *
-     * @param suffix the suffix to be added
+     * Create an ingredient of the same type, temperature and state as this ingredient, with another quantity
+     * @param quantity the quantity of the new ingredient
+     * @return a new ingredient that only differs from this ingredient in quantity
      */
-    private void addSuffix(String suffix) {
-        ingredientName.addSuffix(suffix);
+    AlchemicIngredient withQuantity(Quantity quantity) {
+        return new AlchemicIngredient(standardType, specialName, quantity, temperature, state);
     }
 
     /**
-     * Clear the prefixes and suffixes of the ingredient name
+     * Check if an ingredient is of the same kind as this ingredient, whatever their quantities
+     * @param other the ingredient to compare with
+     * @return true if both ingredients have the same basic name, special name, state and temperature,
+     *         and their types have the same standard temperature and state
      */
-    private void clearPreAndSuffixes() {
-        ingredientName.clearPreAndSuffixes();
+    boolean isOfSameKind(AlchemicIngredient other) {
+        return getBasicName().equals(other.getBasicName())
+                && Objects.equals(specialName, other.specialName)
+                && state.isSolid() == other.state.isSolid()
+                && Float.compare(temperature.getValue(), other.temperature.getValue()) == 0
+                && (standardType == other.standardType
+                    || (Float.compare(standardType.getStandardTemperature().getValue(), other.standardType.getStandardTemperature().getValue()) == 0
+                        && standardType.getStandardState().isSolid() == other.standardType.getStandardState().isSolid()));
     }
 
     /**
-     * Update the prefixes and suffixes of the ingredient name based on the temperature
+     * Get the prefix of the full name, based on the temperature
+     * @return "Cooled" if the ingredient is colder than its standard temperature, "Heated" if it is hotter, null otherwise
      */
-    @Raw
-    private void updateFullName(){
-        clearPreAndSuffixes();
+    private String getTemperaturePrefix() {
         if (temperature.isColderThan(standardType.getStandardTemperature())) {
-            addPrefix("Cooled ");
+            return "Cooled";
         } else if (temperature.isHotterThan(standardType.getStandardTemperature())) {
-            addPrefix("Heated ");
+            return "Heated";
         }
+        return null;
     }
+
+    /**
+     * A rendered full name, with the prefix it was rendered with
+     */
+    private record RenderedName(String prefix, String name) {}
 }
@@ -0,0 +1,292 @@
+package com.alchemy;
+
+import be.kuleuven.cs.som.annotate.Raw;
+import com.alchemy.quantity.FixedQuantity;
+import com.alchemy.quantity.PowderUnit;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The containers stored in a laboratory that is used by several threads at once.
+ * The ingredients are spread over a fixed number of stripes by their basic name. Every stripe is an IndexedInventory with its own lock,
+ * so threads working with ingredients of different stripes never wait for each other.
+ * The filled space is kept in atomic counters, so space is claimed without taking a lock.
+ * Every stored container gets its place in the order of storing from one counter, so the containers are listed in the order they were stored over the whole inventory.
+ * @invar All containers of one ingredient are stored in the same stripe.
+ * @invar The filled space always equals the sum of the filled space of all stripes and the reserved space.
+ * nominally programmed
+ *
+ * @author MiroVanHoef
+ * @author BenDeMets
+ * @author SimonVandeputte
+ * @version 1.0
+ */
+class ConcurrentInventory implements Inventory {
+
+    /**********************************************************
+     * Variables
+     **********************************************************/
+
+    /**
+     * The number of stripes, a power of two.
+     */
+    private static final int STRIPES = 16;
+
+    /**
+     * The containers of every stripe.
+     */
+    private final IndexedInventory[] stripes = new IndexedInventory[STRIPES];
+
+    /**
+     * The lock guarding every stripe.
+     */
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+    /**
+     * The space taken by all stored containers and reservations, in ticks.
+     */
+    private final AtomicLong filledTicks = new AtomicLong();
+
+    /**
+     * The space taken by all stored powder containers, in ticks.
+     */
+    private final AtomicLong filledPowderTicks = new AtomicLong();
+
+    /**
+     * The space taken by all stored fluid containers, in ticks.
+     */
+    private final AtomicLong filledFluidTicks = new AtomicLong();
+
+    /**
+     * The place in the order of storing given to the next stored container.
+     */
+    private final AtomicLong nextOrder = new AtomicLong();
+
+
+    /**********************************************************
+     * Constructors
+     **********************************************************/
+
+    /**
+     * Creates an empty inventory.
+     */
+    @Raw
+    ConcurrentInventory() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new IndexedInventory();
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+
+    /**********************************************************
+     * Methods
+     **********************************************************/
+
+    @Override
+    public boolean tryAdd(Collection<IngredientContainer> containers, long limit) {
+        return tryAddReserved(containers, 0, limit);
+    }
+
+    /**
+     * Stores a batch of containers in space that was claimed with reserve.
+     * The claimed space is turned into the space of the containers with one update of the filled space, so it is never free in between.
+     */
+    @Override
+    public boolean tryAddReserved(Collection<IngredientContainer> containers, long reserved, long limit) {
+        long contentTicks = 0;
+        long powderTicks = 0;
+        long fluidTicks = 0;
+        for (IngredientContainer container : containers) {
+            contentTicks += container.getContent().getQuantity().getValue().getTicks();
+            if (container.getContainerUnit() instanceof PowderUnit) {
+                powderTicks += FixedQuantity.ticksPer(container.getContainerUnit());
+            } else {
+                fluidTicks += FixedQuantity.ticksPer(container.getContainerUnit());
+            }
+        }
+        if (contentTicks <= reserved) {
+            filledTicks.addAndGet(powderTicks + fluidTicks - reserved);
+        } else if (!claim(contentTicks - reserved, powderTicks + fluidTicks - reserved, limit)) {
+            return false;
+        }
+        filledPowderTicks.addAndGet(powderTicks);
+        filledFluidTicks.addAndGet(fluidTicks);
+        for (IngredientContainer container : containers) {
+            int stripe = stripeOf(container.getContent().getBasicName());
+            locks[stripe].lock();
+            try {
+                stripes[stripe].add(container, nextOrder.getAndIncrement());
+            } finally {
+                locks[stripe].unlock();
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public AlchemicIngredient withdraw(String name, long requested) {
+        int stripe = stripeOf(name);
+        AlchemicIngredient withdrawn;
+        long powderChange;
+        long fluidChange;
+        locks[stripe].lock();
+        try {
+            long powderBefore = stripes[stripe].getFilledTicks(true);
+            long fluidBefore = stripes[stripe].getFilledTicks(false);
+            withdrawn = stripes[stripe].withdraw(name, requested);
+            powderChange = stripes[stripe].getFilledTicks(true) - powderBefore;
+            fluidChange = stripes[stripe].getFilledTicks(false) - fluidBefore;
+        } finally {
+            locks[stripe].unlock();
+        }
+        filledPowderTicks.addAndGet(powderChange);
+        filledFluidTicks.addAndGet(fluidChange);
+        filledTicks.addAndGet(powderChange + fluidChange);
+        return withdrawn;
+    }
+
+    @Override
+    public boolean reserve(long ticks, long limit) {
+        return claim(ticks, ticks, limit);
+    }
+
+    @Override
+    public void release(long ticks) {
+        filledTicks.addAndGet(-ticks);
+    }
+
+    @Override
+    public IngredientContainer peekFirst(String name) {
+        int stripe = stripeOf(name);
+        locks[stripe].lock();
+        try {
+            return stripes[stripe].peekFirst(name);
+        } finally {
+            locks[stripe].unlock();
+        }
+    }
+
+    @Override
+    public long getTicks(String name) {
+        int stripe = stripeOf(name);
+        locks[stripe].lock();
+        try {
+            return stripes[stripe].getTicks(name);
+        } finally {
+            locks[stripe].unlock();
+        }
+    }
+
+    @Override
+    public List<String> getNames() {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i].lock();
+            try {
+                names.addAll(stripes[i].getNames());
+            } finally {
+                locks[i].unlock();
+            }
+        }
+        return names;
+    }
+
+    @Override
+    public long getFilledTicks() {
+        return filledTicks.get();
+    }
+
+    @Override
+    public long getFilledTicks(boolean solid) {
+        return solid ? filledPowderTicks.get() : filledFluidTicks.get();
+    }
+
+    /**
+     * Returns all stored containers, in the order they were stored.
+     * Every stripe is read under its own lock, and the stripes are merged by the place of their containers in the order of storing.
+     *
+     * @return a snapshot of the stored containers
+     */
+    @Override
+    public List<IngredientContainer> getContainers() {
+        List<List<IngredientContainer>> stripeContainers = new ArrayList<>(STRIPES);
+        long[][] stripeOrders = new long[STRIPES][];
+        int size = 0;
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i].lock();
+            try {
+                stripeContainers.add(stripes[i].getContainers());
+                stripeOrders[i] = stripes[i].getOrders();
+            } finally {
+                locks[i].unlock();
+            }
+            size += stripeOrders[i].length;
+        }
+        List<IngredientContainer> containers = new ArrayList<>(size);
+        int[] next = new int[STRIPES];
+        while (containers.size() < size) {
+            int first = -1;
+            for (int i = 0; i < STRIPES; i++) {
+                if (next[i] < stripeOrders[i].length
+                        && (first < 0 || stripeOrders[i][next[i]] < stripeOrders[first][next[first]])) {
+                    first = i;
+                }
+            }
+            containers.add(stripeContainers.get(first).get(next[first]++));
+        }
+        return Collections.unmodifiableList(containers);
+    }
+
+    @Override
+    public Iterable<IngredientContainer> containers() {
+        return getContainers();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i].lock();
+            try {
+                if (!stripes[i].isEmpty()) {
+                    return false;
+                }
+            } finally {
+                locks[i].unlock();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Claims space if the needed space is left.
+     *
+     * @param needed the space that has to be left
+     * @param claimed the space to claim
+     * @param limit the total space of the inventory
+     * @return true if the space was claimed
+     */
+    private boolean claim(long needed, long claimed, long limit) {
+        long filled;
+        do {
+            filled = filledTicks.get();
+            if (filled + needed > limit) {
+                return false;
+            }
+        } while (!filledTicks.compareAndSet(filled, filled + claimed));
+        return true;
+    }
+
+    /**
+     * Returns the stripe of an ingredient.
+     */
+    private static int stripeOf(String name) {
+        int hash = name.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+}
@@ -0,0 +1,207 @@
+package com.alchemy;
+
+import be.kuleuven.cs.som.annotate.Basic;
+import be.kuleuven.cs.som.annotate.Raw;
+import com.alchemy.IngredientConditions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The devices of a laboratory, kept in one slot per kind of device.
+ * The kind of a device class is looked up once and remembered, so finding the devices of a kind never scans the other devices.
+ * A slot can hold several devices of its kind, up to the limit of the registry.
+ * The slots can be read by several threads at once, changes to the registry have to be made by one thread at a time.
+ * @invar Every slot holds at most getDevicesPerKind() devices.
+ * @invar A device is stored at most once.
+ * nominally programmed
+ *
+ * @author MiroVanHoef
+ * @author BenDeMets
+ * @author SimonVandeputte
+ * @version 1.0
+ */
+class DeviceRegistry {
+
+    /**********************************************************
+     * Kinds
+     **********************************************************/
+
+    /**
+     * The kinds of devices a laboratory can hold.
+     */
+    enum Kind {
+        KETTLE(Kettle.class),
+        OVEN(Oven.class),
+        COOLING_BOX(CoolingBox.class),
+        TRANSMOGRIFIER(Transmogrifier.class);
+
+        /**
+         * The class every device of this kind is an instance of.
+         */
+        private final Class<? extends Device> type;
+
+        Kind(Class<? extends Device> type) {
+            this.type = type;
+        }
+
+        /**
+         * The kind of every device class, computed the first time the class is looked up.
+         */
+        private static final ClassValue<Kind> KINDS = new ClassValue<>() {
+            @Override
+            protected Kind computeValue(Class<?> deviceClass) {
+                for (Kind kind : values()) {
+                    if (kind.type.isAssignableFrom(deviceClass)) {
+                        return kind;
+                    }
+                }
+                throw new IllegalArgumentException("Unknown kind of device: " + deviceClass.getSimpleName());
+            }
+        };
+
+        /**
+         * Returns the kind of the given device.
+         *
+         * @param device the device to look up
+         * @return the kind the class of the device belongs to
+         * @throws IllegalArgumentException if the device is not of a known kind
+         */
+        static Kind of(Device device) {
+            return KINDS.get(device.getClass());
+        }
+
+        /**
+         * Returns the kind of the given device class.
+         *
+         * @param deviceClass the class to look up
+         * @return the kind the class belongs to
+         * @throws IllegalArgumentException if the class is not of a known kind
+         */
+        static Kind of(Class<? extends Device> deviceClass) {
+            return KINDS.get(deviceClass);
+        }
+    }
+
+
+    /**********************************************************
+     * Variables
+     **********************************************************/
+
+    /**
+     * The devices of every kind, in the order they were added.
+     */
+    private final EnumMap<Kind, CopyOnWriteArrayList<Device>> slots = new EnumMap<>(Kind.class);
+
+    /**
+     * The maximum amount of devices of one kind.
+     */
+    private final int devicesPerKind;
+
+
+    /**********************************************************
+     * Constructors
+     **********************************************************/
+
+    /**
+     * Creates an empty registry.
+     *
+     * @param devicesPerKind the maximum amount of devices of one kind
+     *                       | devicesPerKind >= 1
+     */
+    @Raw
+    DeviceRegistry(int devicesPerKind) {
+        this.devicesPerKind = devicesPerKind;
+        for (Kind kind : Kind.values()) {
+            slots.put(kind, new CopyOnWriteArrayList<>());
+        }
+    }
+
+
+    /**********************************************************
+     * Getters
+     **********************************************************/
+
+    /**
+     * Returns the maximum amount of devices of one kind.
+     */
+    @Basic
+    int getDevicesPerKind() {
+        return devicesPerKind;
+    }
+
+    /**
+     * Returns the first device of a kind.
+     *
+     * @param kind the kind of device
+     * @return the device of the kind that was added first, or null if there is none
+     */
+    Device first(Kind kind) {
+        for (Device device : slots.get(kind)) {
+            return device;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the devices of a kind.
+     *
+     * @param kind the kind of device
+     * @return a read-only view of the devices of the kind, in the order they were added
+     */
+    List<Device> get(Kind kind) {
+        return Collections.unmodifiableList(slots.get(kind));
+    }
+
+    /**
+     * Returns all devices.
+     *
+     * @return a snapshot of all devices, grouped by kind
+     */
+    List<Device> getAll() {
+        ArrayList<Device> all = new ArrayList<>();
+        for (CopyOnWriteArrayList<Device> slot : slots.values()) {
+            all.addAll(slot);
+        }
+        return all;
+    }
+
+
+    /**********************************************************
+     * Methods
+     **********************************************************/
+
+    /**
+     * Checks if a device can be added.
+     *
+     * @param device the device to check
+     * @return true if the device is not stored yet and its slot is not full
+     */
+    boolean canAdd(Device device) {
+        CopyOnWriteArrayList<Device> slot = slots.get(Kind.of(device));
+        return slot.size() < devicesPerKind && !slot.contains(device);
+    }
+
+    /**
+     * Stores a device in the slot of its kind.
+     *
+     * @param device the device to store
+     *               | canAdd(device)
+     */
+    void add(Device device) {
+        slots.get(Kind.of(device)).add(device);
+    }
+
+    /**
+     * Removes a device from the slot of its kind.
+     *
+     * @param device the device to remove
+     * @return true if the device was stored
+     */
+    boolean remove(Device device) {
+        return slots.get(Kind.of(device)).remove(device);
+    }
+}
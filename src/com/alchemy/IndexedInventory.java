@@ -0,0 +1,466 @@
+package com.alchemy;
+
+import be.kuleuven.cs.som.annotate.Basic;
+import be.kuleuven.cs.som.annotate.Raw;
+import com.alchemy.quantity.FixedQuantity;
+import com.alchemy.quantity.PowderUnit;
+import com.alchemy.quantity.Quantity;
+import com.alchemy.quantity.Unit;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * The containers stored in a laboratory, indexed by the basic name of their content.
+ * This inventory is meant to be used by one thread at a time.
+ * For every name the inventory keeps the containers in the order they were stored and the total amount in ticks,
+ * so the amount of an ingredient is known without looking at the containers.
+ * It also keeps the space taken by the containers themselves, per state, so the free space of a laboratory is known in constant time.
+ * The rest of a container that is only partly withdrawn takes the place of that container, so it is still the oldest one of its ingredient.
+ * @invar The total of a name always equals the sum of the amounts of the containers stored under that name.
+ * @invar The filled space of a state always equals the sum of the capacities of the stored containers of that state.
+ * @invar Every stored container has content.
+ * nominally programmed
+ *
+ * @author MiroVanHoef
+ * @author BenDeMets
+ * @author SimonVandeputte
+ * @version 1.0
+ */
+class IndexedInventory implements Inventory {
+
+    /**********************************************************
+     * Variables
+     **********************************************************/
+
+    /**
+     * The node of every stored container.
+     */
+    private final IdentityHashMap<IngredientContainer, Node> nodes = new IdentityHashMap<>();
+
+    /**
+     * The nodes of the oldest and the newest stored container, null if the inventory is empty.
+     */
+    private Node head, tail;
+
+    /**
+     * The stock of every ingredient, by basic name.
+     */
+    private final HashMap<String, Stock> stocks = new HashMap<>();
+
+    /**
+     * The sum of the capacities of all stored fluid containers, in ticks.
+     */
+    private long filledFluidTicks;
+
+    /**
+     * The sum of the capacities of all stored powder containers, in ticks.
+     */
+    private long filledPowderTicks;
+
+    /**
+     * The space that is reserved without holding a container, in ticks.
+     */
+    private long reservedTicks;
+
+    /**
+     * The place in the order of storing given to the next stored container.
+     */
+    private long nextOrder;
+
+
+    /**********************************************************
+     * Constructors
+     **********************************************************/
+
+    /**
+     * Creates an empty inventory.
+     */
+    @Raw
+    IndexedInventory() {}
+
+
+    /**********************************************************
+     * Methods
+     **********************************************************/
+
+    @Override
+    public boolean tryAdd(Collection<IngredientContainer> containers, long limit) {
+        return tryAddReserved(containers, 0, limit);
+    }
+
+    @Override
+    public boolean tryAddReserved(Collection<IngredientContainer> containers, long reserved, long limit) {
+        long contentTicks = 0;
+        for (IngredientContainer container : containers) {
+            contentTicks += ticks(container);
+        }
+        if (contentTicks > reserved && getFilledTicks() - reserved + contentTicks > limit) {
+            return false;
+        }
+        reservedTicks -= reserved;
+        for (IngredientContainer container : containers) {
+            add(container);
+        }
+        return true;
+    }
+
+    /**
+     * Stores a container in the inventory.
+     *
+     * @param container the container to store
+     *                  | container != null && container.getContent() != null
+     * @post The container is stored under the basic name of its content.
+     */
+    void add(IngredientContainer container) {
+        add(container, nextOrder);
+    }
+
+    /**
+     * Stores a container in the inventory at a given place in the order of storing.
+     * An inventory that is part of a larger inventory gets the place from that inventory, so the order holds over all its parts.
+     *
+     * @param container the container to store
+     *                  | container != null && container.getContent() != null
+     * @param order the place of the container in the order of storing, higher than that of every stored container
+     * @post The container is stored under the basic name of its content.
+     */
+    void add(IngredientContainer container, long order) {
+        if (!nodes.containsKey(container)) {
+            Node node = new Node(container, order);
+            nextOrder = order + 1;
+            nodes.put(container, node);
+            if (tail == null) {
+                head = node;
+            } else {
+                tail.next = node;
+                node.previous = tail;
+            }
+            tail = node;
+            Stock stock = stocks.computeIfAbsent(container.getContent().getBasicName(), name -> new Stock());
+            stock.containers.addLast(node);
+            stock.ticks += ticks(container);
+            if (isPowderContainer(container)) {
+                filledPowderTicks += capacity(container);
+            } else {
+                filledFluidTicks += capacity(container);
+            }
+        }
+    }
+
+    /**
+     * Removes a container from the inventory.
+     *
+     * @param container the container to remove
+     * @return true if the container was stored in the inventory
+     */
+    boolean remove(IngredientContainer container) {
+        Node node = nodes.remove(container);
+        if (node == null) {
+            return false;
+        }
+        unlink(node);
+        String name = container.getContent().getBasicName();
+        Stock stock = stocks.get(name);
+        stock.containers.remove(node);
+        release(name, stock, container);
+        return true;
+    }
+
+    /**
+     * Removes and returns the oldest container of the given ingredient.
+     *
+     * @param name the basic name of the ingredient
+     * @return the oldest container stored under the name, or null if there is none
+     */
+    IngredientContainer takeFirst(String name) {
+        Stock stock = stocks.get(name);
+        if (stock == null) {
+            return null;
+        }
+        Node node = stock.containers.pollFirst();
+        nodes.remove(node.container);
+        unlink(node);
+        release(name, stock, node.container);
+        return node.container;
+    }
+
+    @Override
+    public AlchemicIngredient withdraw(String name, long requested) {
+        if (getTicks(name) < requested) {
+            return null;
+        }
+        AlchemicIngredient reference = peekFirst(name).getContent();
+        Unit baseUnit = reference.getQuantity().getUnit().getBaseUnit();
+        long remaining = requested;
+        while (remaining > 0) {
+            Node first = stocks.get(name).containers.getFirst();
+            AlchemicIngredient content = first.container.getContent();
+            long ticks = content.getQuantity().getValue().getTicks();
+            if (ticks > remaining) {
+                // only part of this container is needed, the rest takes its place
+                AlchemicIngredient rest = content.withQuantity(new Quantity(new FixedQuantity(ticks - remaining, baseUnit)));
+                replace(first, new IngredientContainer(rest, rest.getQuantity().getSmallestContainer()));
+                remaining = 0;
+            } else {
+                takeFirst(name);
+                remaining -= ticks;
+            }
+        }
+        return reference.withQuantity(new Quantity(new FixedQuantity(requested, baseUnit)));
+    }
+
+    @Override
+    public boolean reserve(long ticks, long limit) {
+        if (getFilledTicks() + ticks > limit) {
+            return false;
+        }
+        reservedTicks += ticks;
+        return true;
+    }
+
+    @Override
+    public void release(long ticks) {
+        reservedTicks -= ticks;
+    }
+
+    /**
+     * Returns the oldest container of the given ingredient without removing it.
+     *
+     * @param name the basic name of the ingredient
+     * @return the oldest container stored under the name, or null if there is none
+     */
+    @Override
+    public IngredientContainer peekFirst(String name) {
+        Stock stock = stocks.get(name);
+        return stock == null ? null : stock.containers.getFirst().container;
+    }
+
+    /**
+     * Returns the total amount of the given ingredient.
+     *
+     * @param name the basic name of the ingredient
+     * @return the sum of the amounts of all containers stored under the name, in ticks
+     */
+    @Override
+    public long getTicks(String name) {
+        Stock stock = stocks.get(name);
+        return stock == null ? 0 : stock.ticks;
+    }
+
+    /**
+     * Returns the basic names of all stored ingredients.
+     *
+     * @return a snapshot of the names, one for every ingredient of which containers are stored
+     */
+    @Override
+    public List<String> getNames() {
+        return List.copyOf(stocks.keySet());
+    }
+
+    /**
+     * Returns the space taken by all stored containers.
+     *
+     * @return the sum of the capacities of all stored containers, in ticks
+     */
+    @Override
+    public long getFilledTicks() {
+        return filledFluidTicks + filledPowderTicks + reservedTicks;
+    }
+
+    /**
+     * Returns the space taken by the stored containers of one state.
+     *
+     * @param solid whether to count the powder containers instead of the fluid containers
+     * @return the sum of the capacities of the stored containers of the state, in ticks
+     */
+    @Override
+    public long getFilledTicks(boolean solid) {
+        return solid ? filledPowderTicks : filledFluidTicks;
+    }
+
+    /**
+     * Returns all stored containers, in the order they were stored.
+     *
+     * @return a snapshot of the stored containers
+     */
+    @Override
+    public List<IngredientContainer> getContainers() {
+        List<IngredientContainer> containers = new ArrayList<>(nodes.size());
+        for (Node node = head; node != null; node = node.next) {
+            containers.add(node.container);
+        }
+        return Collections.unmodifiableList(containers);
+    }
+
+    /**
+     * Returns the place in the order of storing of all stored containers, in the order of getContainers.
+     *
+     * @return the places of the stored containers, increasing
+     */
+    long[] getOrders() {
+        long[] orders = new long[nodes.size()];
+        int i = 0;
+        for (Node node = head; node != null; node = node.next) {
+            orders[i++] = node.order;
+        }
+        return orders;
+    }
+
+    /**
+     * Returns all stored containers, in the order they were stored, without copying them.
+     *
+     * @return a read-only view of the stored containers
+     */
+    @Override
+    public Iterable<IngredientContainer> containers() {
+        return () -> new Iterator<>() {
+            private Node node = head;
+
+            @Override
+            public boolean hasNext() {
+                return node != null;
+            }
+
+            @Override
+            public IngredientContainer next() {
+                if (node == null) {
+                    throw new NoSuchElementException();
+                }
+                IngredientContainer container = node.container;
+                node = node.next;
+                return container;
+            }
+        };
+    }
+
+    /**
+     * Checks if the inventory holds no containers.
+     *
+     * @return true if no container is stored
+     */
+    @Override
+    public boolean isEmpty() {
+        return nodes.isEmpty();
+    }
+
+    /**
+     * Puts a container in the place of the container of a node, in the order of the inventory and of its ingredient.
+     * The new container holds less of the same ingredient.
+     */
+    private void replace(Node node, IngredientContainer container) {
+        IngredientContainer old = node.container;
+        nodes.remove(old);
+        nodes.put(container, node);
+        node.container = container;
+        stocks.get(old.getContent().getBasicName()).ticks -= ticks(old) - ticks(container);
+        if (isPowderContainer(old)) {
+            filledPowderTicks += capacity(container) - capacity(old);
+        } else {
+            filledFluidTicks += capacity(container) - capacity(old);
+        }
+    }
+
+    /**
+     * Takes a node out of the order of the inventory.
+     */
+    private void unlink(Node node) {
+        if (node.previous == null) {
+            head = node.next;
+        } else {
+            node.previous.next = node.next;
+        }
+        if (node.next == null) {
+            tail = node.previous;
+        } else {
+            node.next.previous = node.previous;
+        }
+        node.previous = null;
+        node.next = null;
+    }
+
+    /**
+     * Updates the stock of a name after one of its containers was removed.
+     */
+    private void release(String name, Stock stock, IngredientContainer container) {
+        stock.ticks -= ticks(container);
+        if (stock.containers.isEmpty()) {
+            stocks.remove(name);
+        }
+        if (isPowderContainer(container)) {
+            filledPowderTicks -= capacity(container);
+        } else {
+            filledFluidTicks -= capacity(container);
+        }
+    }
+
+    /**
+     * Returns the amount of the content of a container in ticks.
+     */
+    private static long ticks(IngredientContainer container) {
+        return container.getContent().getQuantity().getValue().getTicks();
+    }
+
+    /**
+     * Returns the capacity of a container in ticks.
+     */
+    private static long capacity(IngredientContainer container) {
+        return FixedQuantity.ticksPer(container.getContainerUnit());
+    }
+
+    /**
+     * Checks if a container is a powder container.
+     */
+    private static boolean isPowderContainer(IngredientContainer container) {
+        return container.getContainerUnit() instanceof PowderUnit;
+    }
+
+
+    /**********************************************************
+     * Classes
+     **********************************************************/
+
+    /**
+     * The containers and total amount of one ingredient.
+     */
+    private static class Stock {
+        /**
+         * The nodes of the containers of the ingredient, oldest first.
+         */
+        private final ArrayDeque<Node> containers = new ArrayDeque<>();
+        /**
+         * The total amount of the ingredient in ticks.
+         */
+        private long ticks;
+    }
+
+    /**
+     * A stored container and its neighbours in the order the containers were stored.
+     */
+    private static class Node {
+        /**
+         * The stored container.
+         */
+        private IngredientContainer container;
+        /**
+         * The nodes of the container stored before and after this one, null at the ends.
+         */
+        private Node previous, next;
+        /**
+         * The place of the container in the order of storing, kept when the container is replaced by its rest.
+         */
+        private final long order;
+
+        private Node(IngredientContainer container, long order) {
+            this.container = container;
+            this.order = order;
+        }
+    }
+}
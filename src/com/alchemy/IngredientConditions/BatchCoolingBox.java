@@ -0,0 +1,156 @@
+package com.alchemy.IngredientConditions;
+
+import be.kuleuven.cs.som.annotate.Basic;
+import be.kuleuven.cs.som.annotate.Raw;
+import com.alchemy.AlchemicIngredient;
+import com.alchemy.IngredientContainer;
+
+import java.util.Collection;
+import java.util.List;
+
+/**********************************************************
+ * A class representing a CoolingBox that cools a whole batch of ingredients at once
+ * The coolingbox holds ingredients up to its capacity in storerooms. One reaction cools every ingredient to the temperature of the coolingbox.
+ * A batch coolingbox is a coolingbox to a laboratory, it takes the place of a coolingbox. The batch is kept and cooled by an IngredientBatch, see BatchOven.
+ * defensively programmed
+ *
+ * @author MiroVanHoef
+ * @author BenDeMets
+ * @author SimonVandeputte
+ * @version 1.0
+ **********************************************************/
+public class BatchCoolingBox extends CoolingBox implements BatchDevice {
+
+    /**********************************************************
+     * Variables
+     **********************************************************/
+
+    /**
+     * Variable referencing the ingredients in the coolingbox
+     */
+    private final IngredientBatch batch;
+
+
+    /**********************************************************
+     * Constructors
+     **********************************************************/
+
+    /**
+     * Creates a new batch coolingbox with a temperature with coldness and hotness as given
+     * @param capacity the capacity of the coolingbox in storerooms
+     * @param coldness the coldness of the temperature of the coolingbox
+     * @param hotness the hotness of the temperature of the coolingbox
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    @Raw
+    public BatchCoolingBox(int capacity, Float coldness, Float hotness) {
+        super(coldness, hotness);
+        this.batch = new IngredientBatch(capacity, IngredientBatch.Direction.COOL);
+    }
+
+    /**
+     * creates a batch coolingbox with temperature [0,20]
+     * @param capacity the capacity of the coolingbox in storerooms
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    @Raw
+    public BatchCoolingBox(int capacity) {
+        super();
+        this.batch = new IngredientBatch(capacity, IngredientBatch.Direction.COOL);
+    }
+
+
+    /**********************************************************
+     * Getters
+     **********************************************************/
+
+    @Basic
+    @Override
+    public int getCapacity() {
+        return batch.getCapacity();
+    }
+
+    @Override
+    public float getFreeSpace() {
+        return batch.getFreeSpace();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return batch.isEmpty();
+    }
+
+    /**
+     * remove the oldest ingredient from the coolingbox and return it in the smallest possible container
+     * @return smallest possible container containing the oldest ingredient, null if the coolingbox is empty
+     */
+    @Override
+    public IngredientContainer getContents() {
+        AlchemicIngredient taken = batch.takeFirst();
+        if (taken == null) {
+            return null;
+        }
+        return new IngredientContainer(taken, taken.getQuantity().getSmallestContainer());
+    }
+
+    @Override
+    public List<IngredientContainer> getBatchContents() {
+        return batch.takeAllInContainers();
+    }
+
+
+    /**********************************************************
+     * Methods
+     **********************************************************/
+
+    /**
+     * method for adding an ingredient to the coolingbox
+     * @param ingredient the ingredient that has to be added to the device
+     * @throws DeviceFullException if the ingredient doesn't fit in the space left in the coolingbox
+     */
+    @Override
+    public void addIngredient(AlchemicIngredient ingredient) throws DeviceFullException {
+        batch.add(ingredient);
+    }
+
+    @Override
+    public void addIngredients(Collection<IngredientContainer> containers) throws DeviceFullException {
+        batch.addAll(containers);
+    }
+
+    /**
+     * @param ingredient Check if ingredient can be added to the coolingbox
+     * @return true if the ingredient fits in the space left in the coolingbox
+     */
+    @Override
+    public boolean canAddIngredient(AlchemicIngredient ingredient) {
+        return batch.fits(ingredient);
+    }
+
+    /**
+     * remove the oldest ingredient from the coolingbox without putting it in a container
+     * @return the oldest ingredient in the coolingbox, null if the coolingbox is empty
+     */
+    @Override
+    public AlchemicIngredient takeIngredient() {
+        return batch.takeFirst();
+    }
+
+    @Override
+    public List<AlchemicIngredient> takeIngredients() {
+        return batch.takeAll();
+    }
+
+    /**
+     * method to start the reaction
+     * @effect every ingredient in the coolingbox is cooled to the temperature of the coolingbox
+     * ingredients that are colder than the temperature of the coolingbox don't change.
+     */
+    @Override
+    public void react() throws NotInLaboratoryException {
+        if (!isInLaboratory()) {
+            throw new NotInLaboratoryException("CoolingBox not in Laboratory");
+        }
+        batch.react(getTemperature().getValue(), null);
+    }
+}
@@ -0,0 +1,55 @@
+package com.alchemy.IngredientConditions;
+
+import com.alchemy.AlchemicIngredient;
+import com.alchemy.IngredientContainer;
+
+import java.util.Collection;
+import java.util.List;
+
+/**********************************************************
+ * A device that holds a batch of ingredients up to its capacity in storerooms and reacts on all of them at once
+ * A batch device takes the place of the single device of its kind in a laboratory: BatchOven of an oven, BatchCoolingBox of a coolingbox.
+ * Taking one ingredient out of a batch device takes the oldest one, the whole batch is taken with getBatchContents or takeIngredients.
+ *
+ * @author MiroVanHoef
+ * @author BenDeMets
+ * @author SimonVandeputte
+ * @version 1.0
+ **********************************************************/
+public interface BatchDevice {
+
+    /**
+     * @return the capacity of the device in storerooms
+     */
+    int getCapacity();
+
+    /**
+     * @return the space left in the device in storerooms
+     */
+    float getFreeSpace();
+
+    /**
+     * @return true if there are no ingredients in the device
+     */
+    boolean isEmpty();
+
+    /**
+     * method for adding the contents of a batch of containers to the device, the containers are destroyed
+     * @param containers the containers to empty in the device
+     * @throws Device.DeviceFullException if the contents don't fit in the space left in the device together, nothing is added in that case
+     * @throws IllegalArgumentException if a container is empty
+     */
+    void addIngredients(Collection<IngredientContainer> containers) throws Device.DeviceFullException;
+
+    /**
+     * remove all ingredients from the device and put every one in the smallest possible container
+     * @return the containers, in the order the ingredients were added
+     */
+    List<IngredientContainer> getBatchContents();
+
+    /**
+     * remove all ingredients from the device without putting them in containers
+     * @return the ingredients, in the order they were added
+     */
+    List<AlchemicIngredient> takeIngredients();
+}
@@ -0,0 +1,157 @@
+package com.alchemy.IngredientConditions;
+
+import be.kuleuven.cs.som.annotate.Basic;
+import be.kuleuven.cs.som.annotate.Raw;
+import com.alchemy.AlchemicIngredient;
+import com.alchemy.IngredientContainer;
+
+import java.util.Collection;
+import java.util.List;
+
+/**********************************************************
+ * A class representing an Oven that heats a whole batch of ingredients at once
+ * The oven holds ingredients up to its capacity in storerooms. One reaction heats every ingredient to the temperature of the oven,
+ * every ingredient with its own deviation of up to 5 degrees. The deviations of a reaction are drawn all at once, before any ingredient is heated.
+ * A batch oven is an oven to a laboratory, it takes the place of an oven. The batch is kept and heated by an IngredientBatch, see BatchCoolingBox.
+ * defensively programmed
+ *
+ * @author MiroVanHoef
+ * @author BenDeMets
+ * @author SimonVandeputte
+ * @version 1.0
+ **********************************************************/
+public class BatchOven extends Oven implements BatchDevice {
+
+    /**********************************************************
+     * Variables
+     **********************************************************/
+
+    /**
+     * Variable referencing the ingredients in the oven
+     */
+    private final IngredientBatch batch;
+
+
+    /**********************************************************
+     * Constructors
+     **********************************************************/
+
+    /**
+     * Creates a new batch oven with a temperature with coldness and hotness as given
+     * @param capacity the capacity of the oven in storerooms
+     * @param coldness the coldness of the temperature of the oven
+     * @param hotness the hotness of the temperature of the oven
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    @Raw
+    public BatchOven(int capacity, Float coldness, Float hotness) {
+        super(coldness, hotness);
+        this.batch = new IngredientBatch(capacity, IngredientBatch.Direction.HEAT);
+    }
+
+    /**
+     * creates a batch oven with temperature [0,20]
+     * @param capacity the capacity of the oven in storerooms
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    @Raw
+    public BatchOven(int capacity) {
+        super();
+        this.batch = new IngredientBatch(capacity, IngredientBatch.Direction.HEAT);
+    }
+
+
+    /**********************************************************
+     * Getters
+     **********************************************************/
+
+    @Basic
+    @Override
+    public int getCapacity() {
+        return batch.getCapacity();
+    }
+
+    @Override
+    public float getFreeSpace() {
+        return batch.getFreeSpace();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return batch.isEmpty();
+    }
+
+    /**
+     * remove the oldest ingredient from the oven and return it in the smallest possible container
+     * @return smallest possible container containing the oldest ingredient, null if the oven is empty
+     */
+    @Override
+    public IngredientContainer getContents() {
+        AlchemicIngredient taken = batch.takeFirst();
+        if (taken == null) {
+            return null;
+        }
+        return new IngredientContainer(taken, taken.getQuantity().getSmallestContainer());
+    }
+
+    @Override
+    public List<IngredientContainer> getBatchContents() {
+        return batch.takeAllInContainers();
+    }
+
+
+    /**********************************************************
+     * Methods
+     **********************************************************/
+
+    /**
+     * method for adding an ingredient to the oven
+     * @param ingredient the ingredient that has to be added to the device
+     * @throws DeviceFullException if the ingredient doesn't fit in the space left in the oven
+     */
+    @Override
+    public void addIngredient(AlchemicIngredient ingredient) throws DeviceFullException {
+        batch.add(ingredient);
+    }
+
+    @Override
+    public void addIngredients(Collection<IngredientContainer> containers) throws DeviceFullException {
+        batch.addAll(containers);
+    }
+
+    /**
+     * @param ingredient Check if ingredient can be added to the oven
+     * @return true if the ingredient fits in the space left in the oven
+     */
+    @Override
+    public boolean canAddIngredient(AlchemicIngredient ingredient) {
+        return batch.fits(ingredient);
+    }
+
+    /**
+     * remove the oldest ingredient from the oven without putting it in a container
+     * @return the oldest ingredient in the oven, null if the oven is empty
+     */
+    @Override
+    public AlchemicIngredient takeIngredient() {
+        return batch.takeFirst();
+    }
+
+    @Override
+    public List<AlchemicIngredient> takeIngredients() {
+        return batch.takeAll();
+    }
+
+    /**
+     * method to start the reaction
+     * @effect every ingredient in the oven is heated to the temperature of the oven with a deviation of up to 5 degrees
+     * ingredients that are hotter than the temperature of the oven don't change.
+     */
+    @Override
+    public void react() throws NotInLaboratoryException {
+        if (!isInLaboratory()) {
+            throw new NotInLaboratoryException("Oven not in Laboratory");
+        }
+        batch.react(getTemperature().getValue(), getDeviationSource());
+    }
+}
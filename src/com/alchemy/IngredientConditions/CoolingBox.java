@@ -2,7 +2,7 @@ package com.alchemy.IngredientConditions;
 
 import be.kuleuven.cs.som.annotate.Basic;
 import be.kuleuven.cs.som.annotate.Raw;
-import com.alchemy.IngredientContainer;
+import com.alchemy.AlchemicIngredient;
 
 /**********************************************************
  * A class representing a coolingbox, used to cool an ingredient
@@ -59,10 +59,16 @@ public class CoolingBox extends Device {
      * @param hotness the hotness the coolingBox will be set to
      */
     public void setTemperature(Float coldness,Float hotness) {
-        temperature.heat(temperature.getColdness());
-        temperature.cool(temperature.getHotness());
-        temperature.cool(coldness);
-        temperature.heat(hotness);
+        temperature.setValue(hotness - coldness);
+    }
+
+    /**
+     * method to get the temperature of the coolingBox
+     * @return the temperature of the coolingBox
+     */
+    @Basic
+    public Temperature getTemperature() {
+        return temperature;
     }
 
     /**
@@ -70,12 +76,7 @@ public class CoolingBox extends Device {
      * @param temperature the temperature the coolingBox will be set to
      */
     public void setTemperature(Temperature temperature) {
-        Float coldness = temperature.getColdness();
-        Float hotness = temperature.getHotness();
-        this.temperature.heat(temperature.getColdness());
-        this.temperature.cool(temperature.getHotness());
-        this.temperature.cool(coldness);
-        this.temperature.heat(hotness);
+        setTemperature(temperature.getColdness(), temperature.getHotness());
     }
 
 
@@ -85,18 +86,17 @@ public class CoolingBox extends Device {
 
     /**
      * method used to add an ingredient to the device
-     * @param container the container containing the ingredient that has to be added to the device
+     * @param ingredient the ingredient that has to be added to the device
      * @throws DeviceFullException if the device is full, deviceFullException is thrown.
      */
     @Override
-    public void addIngredient(IngredientContainer container) throws DeviceFullException {
-        if (ingredient != null){
+    public void addIngredient(AlchemicIngredient ingredient) throws DeviceFullException {
+        if (this.ingredient != null){
             throw new DeviceFullException("CoolingBox Full");
         }
         else{
-            super.addIngredient(container);
+            super.addIngredient(ingredient);
         }
-
     }
 
     /**
@@ -113,14 +113,30 @@ public class CoolingBox extends Device {
             throw new NotInLaboratoryException("CoolingBox not in Laboratory");
         }
         if(ingredient != null){
-            Temperature ingredientTemperature = ingredient.getTemperature();
-            Float ingredientHotness = ingredientTemperature.getHotness();
-            Float ingredientColdness = ingredientTemperature.getColdness();
-            Float hotness = temperature.getHotness();
-            Float coldness = temperature.getColdness();
-            if(!ingredientTemperature.isColderThan(temperature)){
-                ingredientTemperature.cool(ingredientHotness-hotness+coldness-ingredientColdness);
-            }
+            coolIngredient(ingredient);
+        }
+    }
+
+    /**
+     * cools an ingredient to the temperature of the coolingBox
+     * if the ingredient is colder than the temperature of the coolingBox, nothing happens.
+     * @param ingredient the ingredient to cool
+     */
+    void coolIngredient(AlchemicIngredient ingredient) {
+        coolIngredient(ingredient, temperature.getValue());
+    }
+
+    /**
+     * cools an ingredient to a packed coolingbox temperature
+     * if the ingredient is colder than the temperature, nothing happens.
+     * @param ingredient the ingredient to cool
+     * @param temperature the packed temperature of the coolingbox
+     */
+    static void coolIngredient(AlchemicIngredient ingredient, float temperature) {
+        Temperature ingredientTemperature = ingredient.getTemperature();
+        float ingredientValue = ingredientTemperature.getValue();
+        if(!PackedTemperature.isColderThan(ingredientValue, temperature)){
+            ingredientTemperature.setValue(PackedTemperature.cool(ingredientValue, ingredientValue - temperature));
         }
     }
 
@@ -0,0 +1,79 @@
+package com.alchemy.IngredientConditions;
+
+/**********************************************************
+ * A source of the deviations an oven adds to the temperature it heats an ingredient to
+ * Every deviation lies between -MAX_DEVIATION and MAX_DEVIATION.
+ * The factory methods give a source per oven or per thread, seeded or not, or a source that replays a recorded sequence,
+ * so runs can be made reproducible.
+ * @invar every deviation lies between -MAX_DEVIATION and MAX_DEVIATION
+ *
+ * @author MiroVanHoef
+ * @author BenDeMets
+ * @author SimonVandeputte
+ * @version 1.0
+ **********************************************************/
+public interface DeviationSource {
+
+    /**
+     * The largest deviation, in degrees
+     */
+    int MAX_DEVIATION = 5;
+
+    /**
+     * Draws the next deviation
+     * @return a deviation between -MAX_DEVIATION and MAX_DEVIATION
+     */
+    int nextDeviation();
+
+    /**
+     * Draws the next deviations of a batch at once
+     * @param deviations the array to fill
+     * @param count the number of deviations to draw, from the start of the array
+     *              | count <= deviations.length
+     */
+    default void nextDeviations(int[] deviations, int count) {
+        for (int i = 0; i < count; i++) {
+            deviations[i] = nextDeviation();
+        }
+    }
+
+    /**
+     * Returns a source that draws from the random generator of the thread that uses it, never shared between threads and never seeded.
+     * This is the source of an oven unless another one is set.
+     * @return the unseeded per thread source
+     */
+    static DeviationSource perThread() {
+        return ThreadDeviationSource.UNSEEDED;
+    }
+
+    /**
+     * Returns a source with its own random generator per thread, every generator split off a generator with the given seed.
+     * The deviations of a thread only depend on the seed and the order in which the threads first used the source.
+     * @param seed the seed of the source
+     * @return a new seeded per thread source
+     */
+    static DeviationSource perThread(long seed) {
+        return new ThreadDeviationSource(seed);
+    }
+
+    /**
+     * Returns a source with one random generator with the given seed, meant for one oven that is used by one thread at a time.
+     * Two sources with the same seed draw the same deviations.
+     * @param seed the seed of the source
+     * @return a new seeded source
+     */
+    static DeviationSource seeded(long seed) {
+        return new SeededDeviationSource(seed);
+    }
+
+    /**
+     * Returns a source that replays the given deviations, starting over after the last one.
+     * Meant for one oven that is used by one thread at a time.
+     * @param deviations the deviations to replay
+     * @return a new replaying source
+     * @throws IllegalArgumentException if there are no deviations or a deviation is larger than MAX_DEVIATION
+     */
+    static DeviationSource replay(int... deviations) {
+        return new ReplayDeviationSource(deviations);
+    }
+}
@@ -59,6 +59,16 @@ public abstract class Device {
         return container;
     }
 
+    /**
+     * Returns the laboratory the device is in.
+     *
+     * @return the laboratory of the device, null if the device is not in a laboratory
+     */
+    @Basic
+    public Laboratory getLaboratory() {
+        return laboratory;
+    }
+
     /**
      * Sets the laboratory. which the device is in.
      *
@@ -77,12 +87,33 @@ public abstract class Device {
      * method used to add an ingredient to the device
      * @param container the container containing the ingredient that has to be added to the device
      * @throws DeviceFullException if the device is full, deviceFullException is thrown.
+     * @effect the content of the container is added to the device and the container is destroyed
+     *  |addIngredient(container.getContent())
      */
-    protected void addIngredient(IngredientContainer container) throws DeviceFullException {
-        ingredient = container.getContent();
+    public void addIngredient(IngredientContainer container) throws DeviceFullException {
+        addIngredient(container.getContent());
         container.destroy();
     }
 
+    /**
+     * method used to add an ingredient to the device without a container
+     * @param ingredient the ingredient that has to be added to the device
+     * @throws DeviceFullException if the device is full, deviceFullException is thrown.
+     */
+    public void addIngredient(AlchemicIngredient ingredient) throws DeviceFullException {
+        this.ingredient = ingredient;
+    }
+
+    /**
+     * remove the contents of the device without putting them in a container
+     * @return the ingredient in the device, null if the device is empty
+     */
+    public AlchemicIngredient takeIngredient() {
+        AlchemicIngredient taken = ingredient;
+        ingredient = null;
+        return taken;
+    }
+
     public void react() throws NotInLaboratoryException {}
 
 
@@ -0,0 +1,271 @@
+package com.alchemy.IngredientConditions;
+
+import be.kuleuven.cs.som.annotate.Basic;
+import be.kuleuven.cs.som.annotate.Raw;
+import com.alchemy.AlchemicIngredient;
+import com.alchemy.IngredientContainer;
+import com.alchemy.quantity.FixedQuantity;
+import com.alchemy.quantity.FluidUnit;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**********************************************************
+ * The ingredients in a batch device, with the space they take, and the reaction of the device on them
+ * A batch holds any number of ingredients, as long as their quantities together fit in its capacity.
+ * One reaction heats or cools every ingredient of the batch to the temperature of the device, depending on the direction of the batch.
+ * This is the implementation shared by BatchOven and BatchCoolingBox.
+ * @invar the quantities of the ingredients together never exceed the capacity
+ * defensively programmed
+ *
+ * @author MiroVanHoef
+ * @author BenDeMets
+ * @author SimonVandeputte
+ * @version 1.0
+ **********************************************************/
+class IngredientBatch {
+
+    /**********************************************************
+     * Directions
+     **********************************************************/
+
+    /**
+     * The directions a batch device changes the temperature of its ingredients in
+     */
+    enum Direction {
+        HEAT("Oven"),
+        COOL("CoolingBox");
+
+        /**
+         * The name of the device of the direction, used in exceptions
+         */
+        private final String device;
+
+        Direction(String device) {
+            this.device = device;
+        }
+    }
+
+
+    /**********************************************************
+     * Variables
+     **********************************************************/
+
+    /**
+     * Variable referencing the direction the batch is heated or cooled in
+     */
+    private final Direction direction;
+
+    /**
+     * Variable referencing the deviations drawn for the last heating reaction, reused between reactions
+     */
+    private int[] deviations = new int[0];
+
+    /**
+     * Variable referencing the ingredients in the batch, in the order they were added
+     */
+    private final ArrayList<AlchemicIngredient> ingredients = new ArrayList<>();
+
+    /**
+     * Variable referencing the capacity of the batch in storerooms
+     */
+    private final int capacity;
+
+    /**
+     * Variable referencing the space taken by the ingredients in the batch, in ticks
+     */
+    private long filledTicks;
+
+
+    /**********************************************************
+     * Constructors
+     **********************************************************/
+
+    /**
+     * creates an empty batch with the given capacity, that is heated or cooled in the given direction
+     * @param capacity the capacity of the batch in storerooms
+     * @param direction the direction the batch is heated or cooled in
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    @Raw
+    IngredientBatch(int capacity, Direction direction) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least one storeroom");
+        }
+        this.capacity = capacity;
+        this.direction = direction;
+    }
+
+
+    /**********************************************************
+     * Getters
+     **********************************************************/
+
+    /**
+     * @return the capacity of the batch in storerooms
+     */
+    @Basic
+    int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the free space of the batch in storerooms
+     */
+    float getFreeSpace() {
+        return (float) FixedQuantity.toAmount(getCapacityTicks() - filledTicks, FluidUnit.STOREROOM);
+    }
+
+    /**
+     * @return the ingredients in the batch, in the order they were added. The list must not be changed
+     */
+    @Basic
+    List<AlchemicIngredient> getIngredients() {
+        return ingredients;
+    }
+
+    /**
+     * @return true if there are no ingredients in the batch
+     */
+    boolean isEmpty() {
+        return ingredients.isEmpty();
+    }
+
+
+    /**********************************************************
+     * Mutators
+     **********************************************************/
+
+    /**
+     * Checks if an ingredient fits in the space that is left
+     * @param ingredient the ingredient to check
+     * @return true if the quantity of the ingredient fits in the free space of the batch
+     */
+    boolean fits(AlchemicIngredient ingredient) {
+        return ingredient != null && filledTicks + ticksOf(ingredient) <= getCapacityTicks();
+    }
+
+    /**
+     * adds an ingredient to the batch
+     * @param ingredient the ingredient to add
+     * @throws Device.DeviceFullException if the ingredient doesn't fit in the space that is left
+     */
+    void add(AlchemicIngredient ingredient) throws Device.DeviceFullException {
+        if (!fits(ingredient)) {
+            throw new Device.DeviceFullException(direction.device + " Full");
+        }
+        ingredients.add(ingredient);
+        filledTicks += ticksOf(ingredient);
+    }
+
+    /**
+     * adds the contents of a batch of containers and destroys the containers, if all of them fit
+     * @param containers the containers to empty in the batch
+     * @throws Device.DeviceFullException if the contents don't fit in the space that is left together, nothing is added in that case
+     */
+    void addAll(Collection<IngredientContainer> containers) throws Device.DeviceFullException {
+        long ticks = 0;
+        for (IngredientContainer container : containers) {
+            if (container.getContent() == null) {
+                throw new IllegalArgumentException("can't add an empty container");
+            }
+            ticks += ticksOf(container.getContent());
+        }
+        if (filledTicks + ticks > getCapacityTicks()) {
+            throw new Device.DeviceFullException(direction.device + " Full");
+        }
+        ingredients.ensureCapacity(ingredients.size() + containers.size());
+        for (IngredientContainer container : containers) {
+            ingredients.add(container.getContent());
+            container.destroy();
+        }
+        filledTicks += ticks;
+    }
+
+    /**
+     * removes the oldest ingredient from the batch
+     * @return the oldest ingredient, null if the batch is empty
+     */
+    AlchemicIngredient takeFirst() {
+        if (ingredients.isEmpty()) {
+            return null;
+        }
+        AlchemicIngredient taken = ingredients.removeFirst();
+        filledTicks -= ticksOf(taken);
+        return taken;
+    }
+
+    /**
+     * removes all ingredients from the batch
+     * @return the ingredients that were in the batch, in the order they were added
+     */
+    List<AlchemicIngredient> takeAll() {
+        List<AlchemicIngredient> taken = new ArrayList<>(ingredients);
+        ingredients.clear();
+        filledTicks = 0;
+        return taken;
+    }
+
+    /**
+     * removes all ingredients from the batch and pours every one in containers
+     * An ingredient that is larger than the largest container is spread over several containers, see IngredientContainer.pour.
+     * @return the containers, in the order the ingredients were added
+     */
+    List<IngredientContainer> takeAllInContainers() {
+        List<IngredientContainer> containers = new ArrayList<>(ingredients.size());
+        for (AlchemicIngredient ingredient : ingredients) {
+            containers.addAll(IngredientContainer.pour(ingredient));
+        }
+        ingredients.clear();
+        filledTicks = 0;
+        return containers;
+    }
+
+    /**
+     * heats or cools every ingredient of the batch to the temperature of the device
+     * A heating reaction heats every ingredient that is colder than the device, every ingredient with its own deviation of up to 5 degrees.
+     * The deviations of a reaction are drawn all at once, before any ingredient is heated.
+     * A cooling reaction cools every ingredient that is hotter than the device.
+     * @param temperature the packed temperature of the device
+     * @param deviationSource the source of the deviations of a heating reaction, not used by a cooling reaction
+     */
+    void react(float temperature, DeviationSource deviationSource) {
+        if (direction == Direction.COOL) {
+            for (AlchemicIngredient ingredient : ingredients) {
+                CoolingBox.coolIngredient(ingredient, temperature);
+            }
+            return;
+        }
+        int count = 0;
+        for (AlchemicIngredient ingredient : ingredients) {
+            if (Oven.isColder(ingredient, temperature)) {
+                count++;
+            }
+        }
+        if (deviations.length < count) {
+            deviations = new int[Math.max(count, deviations.length * 2)];
+        }
+        deviationSource.nextDeviations(deviations, count);
+        int next = 0;
+        for (AlchemicIngredient ingredient : ingredients) {
+            if (Oven.isColder(ingredient, temperature)) {
+                Oven.heatIngredient(ingredient, temperature, deviations[next++]);
+            }
+        }
+    }
+
+    /**
+     * @return the capacity of the batch in ticks
+     */
+    private long getCapacityTicks() {
+        return capacity * FixedQuantity.ticksPer(FluidUnit.STOREROOM);
+    }
+
+    /**
+     * @return the space an ingredient takes, in ticks
+     */
+    private static long ticksOf(AlchemicIngredient ingredient) {
+        return ingredient.getQuantity().getValue().getTicks();
+    }
+}
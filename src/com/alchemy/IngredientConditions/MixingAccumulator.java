@@ -0,0 +1,249 @@
+package com.alchemy.IngredientConditions;
+
+import be.kuleuven.cs.som.annotate.Raw;
+import com.alchemy.AlchemicIngredient;
+import com.alchemy.quantity.FixedQuantity;
+import com.alchemy.quantity.FluidUnit;
+import com.alchemy.quantity.PowderUnit;
+import com.alchemy.quantity.Quantity;
+
+import java.util.Comparator;
+import java.util.TreeSet;
+
+/**********************************************************
+ * The mixture of the ingredients in a kettle, folded in one ingredient at a time
+ * Every ingredient is folded in when it is added: its part names go in a sorted set, its quantity, temperature and state
+ * in running sums and minima. Mixing k ingredients costs O(k log k), the mixture is read without going over the ingredients again.
+ * The rules are the ones of a kettle:
+ * the state is the state of the ingredient closest to the target temperature, fluid wins in case of equal closeness;
+ * the quantity is expressed in the smallest unit of that state, the ingredients of the other state that are smaller than a spoon
+ * only count for the whole spoons they make together;
+ * the temperature is the average of the temperatures weighed by quantity;
+ * the standard temperature is the one closest to the target temperature, the hottest wins in case of equal closeness.
+ * nominally programmed
+ *
+ * @author MiroVanHoef
+ * @author BenDeMets
+ * @author SimonVandeputte
+ * @version 1.0
+ **********************************************************/
+final class MixingAccumulator {
+
+    /**********************************************************
+     * Constants
+     **********************************************************/
+
+    /**
+     * The order of the part names in a mixture name, which is case insensitive
+     */
+    private static final Comparator<String> partOrder = String.CASE_INSENSITIVE_ORDER.thenComparing(Comparator.naturalOrder());
+
+    /**
+     * The ticks in a drop, a pinch and a spoon
+     */
+    private static final long dropTicks = FixedQuantity.ticksPer(FluidUnit.DROP);
+    private static final long pinchTicks = FixedQuantity.ticksPer(PowderUnit.PINCH);
+    private static final long spoonTicks = FixedQuantity.ticksPer(FluidUnit.SPOON);
+
+
+    /**********************************************************
+     * Variables
+     **********************************************************/
+
+    /**
+     * Variable referencing the target temperature the state and standard temperature are chosen by, packed
+     */
+    private final float target;
+
+    /**
+     * Variable referencing the distinct part names of the ingredients, in the order of a mixture name
+     */
+    private final TreeSet<String> parts = new TreeSet<>(partOrder);
+
+    /**
+     * Variable referencing the number of ingredients that were folded in
+     */
+    private int count;
+
+    /**
+     * Variables referencing the ticks of the fluid and powder ingredients
+     */
+    private long fluidTicks;
+    private long powderTicks;
+
+    /**
+     * Variables referencing the ticks of the fluid and powder ingredients that are smaller than a spoon
+     */
+    private long smallFluidTicks;
+    private long smallPowderTicks;
+
+    /**
+     * Variables referencing the whole drops and pinches of the fluid and powder ingredients that are smaller than a spoon
+     */
+    private long smallFluidDrops;
+    private long smallPowderPinches;
+
+    /**
+     * Variable referencing the sum of the packed temperatures of the ingredients, every one multiplied by the ticks of the ingredient
+     */
+    private double weighedTemperature;
+
+    /**
+     * Variables referencing the smallest difference of a temperature from the target and if the mixture is solid
+     */
+    private float stateDifference;
+    private boolean solid;
+
+    /**
+     * Variables referencing the standard temperature closest to the target and its difference from the target
+     */
+    private Temperature standardTemperature;
+    private float standardDifference;
+
+
+    /**********************************************************
+     * Constructors
+     **********************************************************/
+
+    /**
+     * creates an empty mixture
+     * @param target the target temperature the state and standard temperature are chosen by
+     */
+    @Raw
+    MixingAccumulator(Temperature target) {
+        this.target = target.getValue();
+    }
+
+
+    /**********************************************************
+     * Mutators
+     **********************************************************/
+
+    /**
+     * folds an ingredient in the mixture
+     * @param ingredient the ingredient to fold in
+     */
+    void add(AlchemicIngredient ingredient) {
+        parts.addAll(ingredient.getParts());
+
+        Quantity quantity = ingredient.getQuantity();
+        long ticks = quantity.getValue().getTicks();
+        if (quantity.isPowderUnit()) {
+            powderTicks += ticks;
+            if (ticks < spoonTicks) {
+                smallPowderTicks += ticks;
+                smallPowderPinches += ticks / pinchTicks;
+            }
+        } else {
+            fluidTicks += ticks;
+            if (ticks < spoonTicks) {
+                smallFluidTicks += ticks;
+                smallFluidDrops += ticks / dropTicks;
+            }
+        }
+        float temperature = ingredient.getTemperature().getValue();
+        weighedTemperature += (double) temperature * ticks;
+
+        float difference = PackedTemperature.difference(temperature, target);
+        boolean ingredientSolid = ingredient.getState().getState().isSolid();
+        if (count == 0 || difference < stateDifference) {
+            stateDifference = difference;
+            solid = ingredientSolid;
+        } else if (difference == stateDifference && !ingredientSolid) {
+            solid = false;
+        }
+
+        Temperature standard = ingredient.getStandardType().getStandardTemperature();
+        float standardValue = standard.getValue();
+        float standardDiff = PackedTemperature.difference(standardValue, target);
+        if (count == 0 || standardDiff < standardDifference
+                || (standardDiff == standardDifference && PackedTemperature.isHotterThan(standardValue, standardTemperature.getValue()))) {
+            standardDifference = standardDiff;
+            standardTemperature = standard;
+        }
+        count++;
+    }
+
+    /**
+     * empties the mixture
+     */
+    void clear() {
+        parts.clear();
+        count = 0;
+        fluidTicks = 0;
+        powderTicks = 0;
+        smallFluidTicks = 0;
+        smallPowderTicks = 0;
+        smallFluidDrops = 0;
+        smallPowderPinches = 0;
+        weighedTemperature = 0;
+        standardTemperature = null;
+    }
+
+
+    /**********************************************************
+     * Getters
+     **********************************************************/
+
+    /**
+     * @return the number of ingredients in the mixture
+     */
+    int getCount() {
+        return count;
+    }
+
+    /**
+     * @return the name of the mixture: its distinct part names in order, joined by " mixed with "
+     */
+    String getName() {
+        return String.join(" mixed with ", parts);
+    }
+
+    /**
+     * @return the state of the mixture
+     */
+    IngredientState getState() {
+        return new IngredientState(solid);
+    }
+
+    /**
+     * @return the quantity of the mixture, in pinches if it is solid and in drops if it is fluid
+     */
+    Quantity getQuantity() {
+        return new Quantity(new FixedQuantity(getUnits() * (solid ? pinchTicks : dropTicks), solid ? PowderUnit.PINCH : FluidUnit.DROP));
+    }
+
+    /**
+     * @return the temperature of the mixture, packed
+     */
+    float getTemperature() {
+        long ticks = getUnits() * (solid ? pinchTicks : dropTicks);
+        if (ticks == 0) {
+            return 0F;
+        }
+        return PackedTemperature.heat((float) (weighedTemperature / ticks), 0F);
+    }
+
+    /**
+     * @return the standard temperature of the mixture
+     */
+    Temperature getStandardTemperature() {
+        return standardTemperature;
+    }
+
+    /**
+     * @return the quantity of the mixture in pinches if it is solid and in drops if it is fluid, rounded to the nearest whole unit
+     */
+    private long getUnits() {
+        long ticks;
+        long unitTicks;
+        if (solid) {
+            unitTicks = pinchTicks;
+            ticks = powderTicks + fluidTicks - smallFluidTicks + (smallFluidDrops * dropTicks / spoonTicks) * spoonTicks;
+        } else {
+            unitTicks = dropTicks;
+            ticks = fluidTicks + powderTicks - smallPowderTicks + (smallPowderPinches * pinchTicks / spoonTicks) * spoonTicks;
+        }
+        return (ticks + unitTicks / 2) / unitTicks;
+    }
+}
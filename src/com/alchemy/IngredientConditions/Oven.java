@@ -1,8 +1,7 @@
 package com.alchemy.IngredientConditions;
+import be.kuleuven.cs.som.annotate.Basic;
 import be.kuleuven.cs.som.annotate.Raw;
-import com.alchemy.IngredientContainer;
-
-import java.util.Random;
+import com.alchemy.AlchemicIngredient;
 
 /**********************************************************
  * A class representing an Oven, used to heat up an ingredient
@@ -24,6 +23,11 @@ public class Oven extends Device {
      */
     private Temperature temperature;
 
+    /**
+     * Variable referencing the source of the deviations of the oven
+     */
+    private DeviationSource deviationSource = DeviationSource.perThread();
+
 
     /**********************************************************
      * Constructors
@@ -60,10 +64,37 @@ public class Oven extends Device {
      * @param hotness the hotness the oven will be set to
      */
     public void setTemperature(Float coldness,Float hotness) {
-        temperature.heat(temperature.getColdness());
-        temperature.cool(temperature.getHotness());//temperature is set to 0,0
-        temperature.cool(coldness);
-        temperature.heat(hotness);
+        temperature.setValue(hotness - coldness);
+    }
+
+    /**
+     * method to get the source of the deviations of the oven
+     * @return the source of the deviations of the oven
+     */
+    @Basic
+    public DeviationSource getDeviationSource() {
+        return deviationSource;
+    }
+
+    /**
+     * method to set the source of the deviations of the oven, e.g. a seeded source to make the oven reproducible
+     * @param deviationSource the source of the deviations
+     * @throws IllegalArgumentException if the source is null
+     */
+    public void setDeviationSource(DeviationSource deviationSource) {
+        if (deviationSource == null) {
+            throw new IllegalArgumentException("deviation source can't be null");
+        }
+        this.deviationSource = deviationSource;
+    }
+
+    /**
+     * method to get the temperature of the oven
+     * @return the temperature of the oven
+     */
+    @Basic
+    public Temperature getTemperature() {
+        return temperature;
     }
 
     /**
@@ -71,12 +102,7 @@ public class Oven extends Device {
      * @param temperature the temperature the oven will be set to
      */
     public void setTemperature(Temperature temperature) {
-        Float coldness = temperature.getColdness();
-        Float hotness = temperature.getHotness();
-        this.temperature.heat(temperature.getColdness());
-        this.temperature.cool(temperature.getHotness());
-        temperature.cool(coldness);
-        temperature.heat(hotness);
+        setTemperature(temperature.getColdness(), temperature.getHotness());
     }
 
 
@@ -86,16 +112,16 @@ public class Oven extends Device {
 
     /**
      * method for adding an ingredient to the oven
-     * @param container the container containing the ingredient that has to be added to the device
+     * @param ingredient the ingredient that has to be added to the device
      * @throws DeviceFullException if there already is an ingredient in the oven, the device is considered full
      */
     @Override
-    public void addIngredient(IngredientContainer container) throws DeviceFullException {
-        if (ingredient != null){
+    public void addIngredient(AlchemicIngredient ingredient) throws DeviceFullException {
+        if (this.ingredient != null){
             throw new DeviceFullException("Oven Full");
         }
         else{
-            super.addIngredient(container);
+            super.addIngredient(ingredient);
         }
     }
 
@@ -109,26 +135,55 @@ public class Oven extends Device {
         if(!isInLaboratory()){
             throw new NotInLaboratoryException("Oven not in Laboratory");
         }
-        if(ingredient == null){
-            return;
-        }
-        else{
-            Temperature ingredientTemperature= ingredient.getTemperature();
-            Float ingredientHotness = ingredientTemperature.getHotness();
-            Float ingredientColdness = ingredientTemperature.getColdness();
-            Float hotness = temperature.getHotness();
-            Float coldness = temperature.getColdness();
-            if(ingredientHotness > hotness | ingredientColdness< coldness |(ingredientHotness.equals(hotness) && ingredientColdness.equals(coldness))){
-                return;
-            }
-            else{
-                Random rand = new Random();
-                int randomDeviation = rand.nextInt(11)-5;
-                ingredientTemperature.heat(ingredientColdness-coldness+hotness-ingredientHotness + randomDeviation);
-            }
+        if(ingredient != null && isColder(ingredient)){
+            heatIngredient(ingredient, deviationSource.nextDeviation());
         }
     }
 
+    /**
+     * checks if an ingredient is colder than the temperature of the oven, only then the oven heats it
+     * @param ingredient the ingredient to check
+     * @return true if the ingredient is colder than the oven
+     */
+    boolean isColder(AlchemicIngredient ingredient) {
+        return isColder(ingredient, temperature.getValue());
+    }
+
+    /**
+     * checks if an ingredient is colder than a packed oven temperature
+     * @param ingredient the ingredient to check
+     * @param temperature the packed temperature of the oven
+     * @return true if the ingredient is colder than the temperature
+     */
+    static boolean isColder(AlchemicIngredient ingredient, float temperature) {
+        return PackedTemperature.isColderThan(ingredient.getTemperature().getValue(), temperature);
+    }
+
+    /**
+     * heats an ingredient to the temperature of the oven with the given deviation
+     * @pre the ingredient is colder than the oven
+     *  |isColder(ingredient)
+     * @param ingredient the ingredient to heat
+     * @param deviation the deviation from the temperature of the oven
+     */
+    void heatIngredient(AlchemicIngredient ingredient, int deviation) {
+        heatIngredient(ingredient, temperature.getValue(), deviation);
+    }
+
+    /**
+     * heats an ingredient to a packed oven temperature with the given deviation
+     * @pre the ingredient is colder than the temperature
+     *  |isColder(ingredient, temperature)
+     * @param ingredient the ingredient to heat
+     * @param temperature the packed temperature of the oven
+     * @param deviation the deviation from the temperature of the oven
+     */
+    static void heatIngredient(AlchemicIngredient ingredient, float temperature, int deviation) {
+        Temperature ingredientTemperature= ingredient.getTemperature();
+        float ingredientValue = ingredientTemperature.getValue();
+        ingredientTemperature.setValue(PackedTemperature.heat(ingredientValue, temperature - ingredientValue + deviation));
+    }
+
     /**
      * method to higher ovens own temperature by 10 degrees
      * @effect the temperature of oven will be heated by 10 degrees
@@ -0,0 +1,127 @@
+package com.alchemy.IngredientConditions;
+
+/**********************************************************
+ * PackedTemperature
+ * Operations on temperatures packed in a single float: the hotness minus the coldness.
+ * Because hotness and coldness can't both differ from 0, the packed value holds the whole temperature:
+ * a positive value is a hotness, a negative value is a coldness.
+ * None of the operations allocate, so devices can change temperatures without touching the heap.
+ * @invar a packed temperature lies between -temperatureLimit and temperatureLimit
+ * totally programmed
+ *
+ * @author MiroVanHoef
+ * @author BenDeMets
+ * @author SimonVandeputte
+ * @version 1.0
+ **********************************************************/
+public final class PackedTemperature {
+
+    /**********************************************************
+     * Constructors
+     **********************************************************/
+
+    /**
+     * This class only holds static methods.
+     */
+    private PackedTemperature() {}
+
+
+    /**********************************************************
+     * Methods
+     **********************************************************/
+
+    /**
+     * Packs a coldness and a hotness. If both differ from 0, only hotness is used, as in the constructor of Temperature
+     * @param coldness the coldness of the temperature
+     * @param hotness the hotness of the temperature
+     * @return the packed temperature, limited to the temperatureLimit
+     */
+    public static float of(float coldness, float hotness) {
+        if (coldness != 0 && hotness != 0) {
+            return clamp(hotness);
+        }
+        return clamp(hotness - coldness);
+    }
+
+    /**
+     * @param packed a packed temperature
+     * @return the coldness of the temperature
+     */
+    public static float coldness(float packed) {
+        return packed < 0 ? -packed : 0F;
+    }
+
+    /**
+     * @param packed a packed temperature
+     * @return the hotness of the temperature
+     */
+    public static float hotness(float packed) {
+        return packed > 0 ? packed : 0F;
+    }
+
+    /**
+     * Heats a packed temperature
+     * @post coldness goes down by "change" amount. If coldness is zero, hotness goes up for the rest of the amount, if the change is less than 0, temperature is cooled by -change instead
+     * @param packed the packed temperature
+     * @param change the change in temperature
+     * @return the heated temperature, at most the temperatureLimit
+     */
+    public static float heat(float packed, float change) {
+        return clamp(packed + change);
+    }
+
+    /**
+     * Cools a packed temperature
+     * @post hotness goes down by "change" amount. If hotness is 0, coldness goes up for the rest of the change, if the change is less than 0, temperature is heated by -change instead
+     * @param packed the packed temperature
+     * @param change the change in temperature
+     * @return the cooled temperature, at most the temperatureLimit cold
+     */
+    public static float cool(float packed, float change) {
+        return clamp(packed - change);
+    }
+
+    /**
+     * @param packed a packed temperature
+     * @param other another packed temperature
+     * @return true if the first temperature is hotter than the other
+     */
+    public static boolean isHotterThan(float packed, float other) {
+        return packed > other;
+    }
+
+    /**
+     * @param packed a packed temperature
+     * @param other another packed temperature
+     * @return true if the first temperature is colder than the other
+     */
+    public static boolean isColderThan(float packed, float other) {
+        return packed < other;
+    }
+
+    /**
+     * Compares two packed temperatures, from cold to hot
+     * @param packed a packed temperature
+     * @param other another packed temperature
+     * @return a negative number, zero or a positive number if the first temperature is colder than, as hot as or hotter than the other
+     */
+    public static int compare(float packed, float other) {
+        return Float.compare(packed, other);
+    }
+
+    /**
+     * @param packed a packed temperature
+     * @param other another packed temperature
+     * @return the difference in coldness plus the difference in hotness between the temperatures
+     */
+    public static float difference(float packed, float other) {
+        return Math.abs(packed - other);
+    }
+
+    /**
+     * Limits a temperature to the temperatureLimit, both hot and cold
+     */
+    private static float clamp(float packed) {
+        return Math.max(-Temperature.temperatureLimit, Math.min(Temperature.temperatureLimit, packed));
+    }
+}
@@ -0,0 +1,50 @@
+package com.alchemy.IngredientConditions;
+
+import be.kuleuven.cs.som.annotate.Raw;
+
+/**********************************************************
+ * A source that replays a recorded sequence of deviations, starting over after the last one
+ * The source is not meant to be used by several threads at the same time.
+ *
+ * @author MiroVanHoef
+ * @author BenDeMets
+ * @author SimonVandeputte
+ * @version 1.0
+ **********************************************************/
+class ReplayDeviationSource implements DeviationSource {
+
+    /**
+     * Variable referencing the deviations that are replayed
+     */
+    private final int[] deviations;
+
+    /**
+     * Variable referencing the index of the next deviation
+     */
+    private int next;
+
+    /**
+     * creates a source that replays the given deviations
+     * @param deviations the deviations to replay, which are copied
+     * @throws IllegalArgumentException if there are no deviations or a deviation is larger than MAX_DEVIATION
+     */
+    @Raw
+    ReplayDeviationSource(int[] deviations) {
+        if (deviations.length == 0) {
+            throw new IllegalArgumentException("no deviations to replay");
+        }
+        for (int deviation : deviations) {
+            if (Math.abs(deviation) > MAX_DEVIATION) {
+                throw new IllegalArgumentException("deviation " + deviation + " is larger than " + MAX_DEVIATION);
+            }
+        }
+        this.deviations = deviations.clone();
+    }
+
+    @Override
+    public int nextDeviation() {
+        int deviation = deviations[next];
+        next = (next + 1) % deviations.length;
+        return deviation;
+    }
+}
@@ -0,0 +1,43 @@
+package com.alchemy.IngredientConditions;
+
+import be.kuleuven.cs.som.annotate.Raw;
+
+import java.util.SplittableRandom;
+
+/**********************************************************
+ * A source of deviations with one seeded random generator
+ * The source is not meant to be used by several threads at the same time.
+ *
+ * @author MiroVanHoef
+ * @author BenDeMets
+ * @author SimonVandeputte
+ * @version 1.0
+ **********************************************************/
+class SeededDeviationSource implements DeviationSource {
+
+    /**
+     * Variable referencing the random generator of the source
+     */
+    private final SplittableRandom random;
+
+    /**
+     * creates a source with the given seed
+     * @param seed the seed of the random generator
+     */
+    @Raw
+    SeededDeviationSource(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    @Override
+    public int nextDeviation() {
+        return random.nextInt(-MAX_DEVIATION, MAX_DEVIATION + 1);
+    }
+
+    @Override
+    public void nextDeviations(int[] deviations, int count) {
+        for (int i = 0; i < count; i++) {
+            deviations[i] = random.nextInt(-MAX_DEVIATION, MAX_DEVIATION + 1);
+        }
+    }
+}
@@ -3,10 +3,10 @@ import be.kuleuven.cs.som.annotate.Basic;
 import be.kuleuven.cs.som.annotate.Raw;
 
 import java.util.ArrayList;
-import java.lang.Math;
 /**********************************************************
  * Temperature
  * class to keep track of temperatures, with methods to heat and cool.
+ * The temperature is kept packed in a single float, see PackedTemperature, and is changed in place.
  * @invar hotness and coldness can't both differ from 0 at the same time
  * totally programmed
  *
@@ -22,19 +22,14 @@ public class Temperature {
      **********************************************************/
 
     /**
-     * Variable referencing the hotness of the temperature
+     * Variable referencing the packed temperature, the hotness minus the coldness
      */
-    private Float hotness;
-
-    /**
-     * Variable referencing the coldness of the temperature
-     */
-    private Float coldness;
+    private float value;
 
     /**
      * Variable referencing the limit of the hotness and coldness
      */
-    static Float temperatureLimit = 10000F;
+    static final float temperatureLimit = 10000F;
 
 
     /**********************************************************
@@ -48,21 +43,7 @@ public class Temperature {
      */
     @Raw
     public Temperature(Float coldness, Float hotness){
-        if(coldness != 0 && hotness != 0){
-            this.hotness = hotness;
-            this.coldness = 0F;
-        }
-        else {
-            this.hotness = hotness;
-            this.coldness = coldness;
-        }
-        if(hotness > temperatureLimit){
-            hotness = temperatureLimit;
-        }
-        else if(coldness > temperatureLimit){
-            coldness = temperatureLimit;
-        }
-
+        this.value = PackedTemperature.of(coldness, hotness);
     }
 
     /**
@@ -83,7 +64,7 @@ public class Temperature {
      */
     @Basic
     public Float getHotness(){
-        return hotness;
+        return PackedTemperature.hotness(value);
     }
 
     /**
@@ -91,7 +72,24 @@ public class Temperature {
      */
     @Basic
     public Float getColdness(){
-        return coldness;
+        return PackedTemperature.coldness(value);
+    }
+
+    /**
+     * @return the packed temperature, the hotness minus the coldness
+     */
+    @Basic
+    public float getValue(){
+        return value;
+    }
+
+    /**
+     * Sets the packed temperature
+     * @param value the packed temperature, the hotness minus the coldness
+     * @post the temperature is set to the given value, limited to the temperatureLimit
+     */
+    void setValue(float value){
+        this.value = PackedTemperature.heat(value, 0F);
     }
 
     /**
@@ -101,8 +99,8 @@ public class Temperature {
     @Basic
     public ArrayList<Float> getTemperature() {
         ArrayList<Float> list = new ArrayList<>();
-        list.add(coldness);
-        list.add(hotness);
+        list.add(getColdness());
+        list.add(getHotness());
         return list;
     }
 
@@ -117,15 +115,7 @@ public class Temperature {
      * @param change the change in temperature
      */
     void heat(Float change){
-        if(change <0){
-            cool(change);
-            return;
-        }
-        else{
-            ArrayList<Float> newTemps = changeTemp(change,hotness,coldness);
-            hotness = newTemps.getFirst();
-            coldness = newTemps.getLast();
-        }
+        value = PackedTemperature.heat(value, change);
     }
 
     /**
@@ -134,39 +124,7 @@ public class Temperature {
      * @param change the change in temperature
      */
     void cool(Float change){
-        if(change<0){
-            heat(change);
-
-        }
-        else{
-            ArrayList<Float> newTemps = changeTemp(change,coldness,hotness);
-            coldness = newTemps.getFirst();
-            hotness = newTemps.getLast();
-        }
-
-    }
-
-    /**
-     * method that changes temperature
-     * @param change the total amount the temperature changes.
-     * @param higher the amount of the variable that decreases
-     * @param lower the amount of the variable that increases.
-     * @post lower will be lowered by change amount or until its zero, in which case higher will be raised by the rest of change, if higher ends up higher than the temperatureLimit, it will be set to the limit itself
-     * @return an arraylist of the two variables that have been changed.
-     */
-    private ArrayList<Float> changeTemp(Float change, Float higher,Float lower){
-        lower -= change;
-        if(lower <0){
-            higher += lower*-1;
-            lower = 0F;
-        }
-        if(higher>temperatureLimit){
-            higher = temperatureLimit;
-        }
-        ArrayList<Float> list = new ArrayList<>();
-        list.add(higher);
-        list.add(lower);
-        return list;
+        value = PackedTemperature.cool(value, change);
     }
 
     /**
@@ -175,7 +133,7 @@ public class Temperature {
      * @return true if this temperature is hotter than otherTemp
      */
     public Boolean isHotterThan(Temperature otherTemp) {
-        return(coldness<otherTemp.getColdness()|hotness>otherTemp.getHotness());
+        return PackedTemperature.isHotterThan(value, otherTemp.value);
     }
 
     /**
@@ -184,7 +142,7 @@ public class Temperature {
      * @return true if this temperature is colder than otherTemp
      */
     public Boolean isColderThan(Temperature otherTemp) {
-        return(coldness>otherTemp.getColdness()|hotness<otherTemp.getHotness());
+        return PackedTemperature.isColderThan(value, otherTemp.value);
     }
 
     /**
@@ -193,6 +151,32 @@ public class Temperature {
      * @return the value of the difference in temperature
      */
     public Float differenceFrom(Temperature otherTemp) {
-        return(Math.abs(coldness-otherTemp.getColdness())+Math.abs(hotness-otherTemp.getHotness()));
+        return PackedTemperature.difference(value, otherTemp.value);
+    }
+
+    /**
+     * Method that checks if this temperature is the same as another object
+     * @param other the object that this temperature gets compared to
+     * @return true if other is a temperature with the same coldness and hotness
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof Temperature otherTemp)) {
+            return false;
+        }
+        return value == otherTemp.value;
+    }
+
+    /**
+     * Method that calculates the hash code of this temperature, based on its coldness and hotness
+     * @return the hash code of this temperature
+     */
+    @Override
+    public int hashCode() {
+        // adding 0 turns -0 into 0, which is equal to it
+        return Float.hashCode(value + 0F);
     }
 }
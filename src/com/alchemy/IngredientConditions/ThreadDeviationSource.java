@@ -0,0 +1,85 @@
+package com.alchemy.IngredientConditions;
+
+import be.kuleuven.cs.som.annotate.Raw;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**********************************************************
+ * A source of deviations with a random generator per thread
+ * Threads never wait for each other to draw a deviation. A seeded source splits the generator of every thread off one seeded generator,
+ * an unseeded source draws from the ThreadLocalRandom of the thread.
+ *
+ * @author MiroVanHoef
+ * @author BenDeMets
+ * @author SimonVandeputte
+ * @version 1.0
+ **********************************************************/
+class ThreadDeviationSource implements DeviationSource {
+
+    /**
+     * The unseeded source, which draws from ThreadLocalRandom
+     */
+    static final ThreadDeviationSource UNSEEDED = new ThreadDeviationSource();
+
+    /**
+     * Variable referencing the generator every thread's generator is split off, null if the source is not seeded
+     */
+    private final SplittableRandom root;
+
+    /**
+     * Variable referencing the generator of every thread, null if the source is not seeded
+     */
+    private final ThreadLocal<SplittableRandom> randoms;
+
+    /**
+     * creates an unseeded source
+     */
+    @Raw
+    private ThreadDeviationSource() {
+        this.root = null;
+        this.randoms = null;
+    }
+
+    /**
+     * creates a source with the given seed
+     * @param seed the seed of the generator every thread's generator is split off
+     */
+    @Raw
+    ThreadDeviationSource(long seed) {
+        this.root = new SplittableRandom(seed);
+        this.randoms = ThreadLocal.withInitial(this::split);
+    }
+
+    /**
+     * @return a new generator for a thread, split off the root generator
+     */
+    private SplittableRandom split() {
+        synchronized (root) {
+            return root.split();
+        }
+    }
+
+    @Override
+    public int nextDeviation() {
+        if (randoms == null) {
+            return ThreadLocalRandom.current().nextInt(-MAX_DEVIATION, MAX_DEVIATION + 1);
+        }
+        return randoms.get().nextInt(-MAX_DEVIATION, MAX_DEVIATION + 1);
+    }
+
+    @Override
+    public void nextDeviations(int[] deviations, int count) {
+        if (randoms == null) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < count; i++) {
+                deviations[i] = random.nextInt(-MAX_DEVIATION, MAX_DEVIATION + 1);
+            }
+        } else {
+            SplittableRandom random = randoms.get();
+            for (int i = 0; i < count; i++) {
+                deviations[i] = random.nextInt(-MAX_DEVIATION, MAX_DEVIATION + 1);
+            }
+        }
+    }
+}
@@ -1,6 +1,6 @@
 package com.alchemy.IngredientConditions;
 
-import com.alchemy.IngredientContainer;
+import com.alchemy.AlchemicIngredient;
 import com.alchemy.quantity.FluidUnit;
 import com.alchemy.quantity.PowderUnit;
 
@@ -46,17 +46,17 @@ public class Transmogrifier extends Device {
     }
 
     /**
-     * method to add the contents of a container to the transmogrifier, destroying the container in the process
-     * @param container the container containing the ingredient that has to be added to the device
+     * method to add an ingredient to the transmogrifier
+     * @param ingredient the ingredient that has to be added to the device
      * @throws DeviceFullException if there already is an ingredient in the transmogrifier
      */
     @Override
-    public void addIngredient(IngredientContainer container) throws DeviceFullException{
-        if (ingredient != null){
+    public void addIngredient(AlchemicIngredient ingredient) throws DeviceFullException{
+        if (this.ingredient != null){
             throw new DeviceFullException("transmogrifier Full");
         }
         else{
-            super.addIngredient(container);
+            super.addIngredient(ingredient);
         }
 
     }
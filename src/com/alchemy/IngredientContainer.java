@@ -2,10 +2,16 @@ package com.alchemy;
 
 import be.kuleuven.cs.som.annotate.Basic;
 import be.kuleuven.cs.som.annotate.Raw;
+import com.alchemy.quantity.FixedQuantity;
 import com.alchemy.quantity.FluidUnit;
 import com.alchemy.quantity.PowderUnit;
+import com.alchemy.quantity.Quantity;
 import com.alchemy.quantity.Unit;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 /**********************************************************
  * Represents a container for alchemic ingredients.
  * @invar The containerUnit of the IngredientContainer is always non-null.
@@ -108,6 +114,35 @@ public class IngredientContainer {
         return(ingredient.getQuantity().isSmallerThanOrEqualTo(this.containerUnit, 1)&&((containerUnit.getClass() == PowderUnit.class))==ingredient.getQuantity().isPowderUnit());
     }
 
+    /**
+     * Pours an ingredient in containers: the largest containers it fills and the smallest container that fits the rest.
+     * An ingredient that fits in one container is put in the smallest container that fits it as it is,
+     * a larger ingredient is split in parts of the same kind, one per container.
+     *
+     * @param ingredient the alchemic ingredient to pour
+     *                   | ingredient != null
+     * @return a list of new containers that together hold the whole ingredient
+     */
+    public static List<IngredientContainer> pour(AlchemicIngredient ingredient) {
+        long ticks = ingredient.getQuantity().getValue().getTicks();
+        boolean solid = ingredient.getQuantity().isPowderUnit();
+        Unit smallest = Quantity.getSmallestContainer(ticks, solid);
+        if (ticks <= FixedQuantity.ticksPer(smallest)) {
+            return List.of(new IngredientContainer(ingredient, smallest));
+        }
+        Unit baseUnit = ingredient.getQuantity().getUnit().getBaseUnit();
+        List<IngredientContainer> containers = new ArrayList<>();
+        long remaining = ticks;
+        while (remaining > 0) {
+            Unit container = Quantity.getSmallestContainer(remaining, solid);
+            long part = Math.min(remaining, FixedQuantity.ticksPer(container));
+            containers.add(new IngredientContainer(new AlchemicIngredient(ingredient.getStandardType(), ingredient.getSpecialName(),
+                    new Quantity(new FixedQuantity(part, baseUnit)), ingredient.getTemperature(), ingredient.getState()), container));
+            remaining -= part;
+        }
+        return Collections.unmodifiableList(containers);
+    }
+
     /**
      * Returns the unit of this IngredientContainer.
      *
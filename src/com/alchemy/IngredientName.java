@@ -13,6 +13,7 @@ import java.util.List;
  *      | isValidIngredientPartName(specialName) && nameParts.length > 1
  * @invar Every name part of an ingredient must be a valid ingredient part name.
  *     | for (String namePart : nameParts) { isValidIngredientPartName(namePart) }
+ * @invar A frozen name never changes. The names of ingredient types are frozen, because a type is shared by all its ingredients.
  * Defensively programmed.
  *
  * @author MiroVanHoef
@@ -22,21 +23,6 @@ import java.util.List;
  */
 public class IngredientName {
 
-    /**********************************************************
-     * Constants
-     **********************************************************/
-
-    /**
-     * The regex used to check if a name is a valid ingredient part name.
-     */
-    private final static String ingredientPartRegex = "^[a-zA-Z'()\\s]*$";
-
-    /**
-     * The words that are not allowed in an ingredient part name. (eg "mixed" or "with")
-     */
-    private final static String[] blacklistedWordsIngredientPart = {"mixed", "with","Heated","Cooled"};
-
-
     /**********************************************************
      * Variables
      **********************************************************/
@@ -51,6 +37,11 @@ public class IngredientName {
      */
     private String[] nameParts = new String[0];
 
+    /**
+     * The name parts joined with " mixed with ".
+     */
+    private String basicName = "";
+
     /**
      * The prefixes of the name of the ingredient.
      */
@@ -66,6 +57,11 @@ public class IngredientName {
      */
     private String specialName = null;
 
+    /**
+     * Whether the name can no longer be changed.
+     */
+    private boolean frozen = false;
+
 
     /**********************************************************
      * Constructors
@@ -134,24 +130,62 @@ public class IngredientName {
     public IngredientName(String name) throws IllegalNameException {
         this(name, new String[0]);
     }
-    
+
+    /**
+     * Create a frozen copy of the given name.
+     *
+     * @param name The name to copy.
+     */
+    @Raw
+    private IngredientName(IngredientName name) {
+        this.blacklistedWords = name.blacklistedWords.clone();
+        this.nameParts = name.nameParts.clone();
+        this.basicName = name.basicName;
+        this.prefixes = List.copyOf(name.prefixes);
+        this.suffixes = List.copyOf(name.suffixes);
+        this.specialName = name.specialName;
+        this.frozen = true;
+    }
+
+    /**
+     * Returns a copy of this name that can't be changed.
+     *
+     * @return a frozen name equal to this name, this name if it is frozen already
+     */
+    IngredientName frozenCopy() {
+        return frozen ? this : new IngredientName(this);
+    }
 
     /**********************************************************
      * Getters and Setters
      **********************************************************/
 
+    /**
+     * Check if this name can no longer be changed.
+     *
+     * @return true if the name is frozen
+     */
+    @Basic
+    public boolean isFrozen() {
+        return frozen;
+    }
+
     /**
      * Set the name of the ingredient to the given name.
      *
      * @param name The name to set.
      * @throws IllegalNameException If the given name is not a valid mixture name.
+     * @throws IllegalStateException If the name is frozen.
      * @post The name of the ingredient is set to the given name.
      *       | new.getName() == name
      */
     @Raw
     public void setName(String name) throws IllegalNameException {
-        if (isValidMixtureName(name)) {
-            this.nameParts = name.split(" mixed with ");
+        checkNotFrozen();
+        String[] parts = NameValidator.mixtureParts(name, blacklistedWords);
+        if (parts != null) {
+            this.nameParts = parts;
+            this.basicName = name;
         } else {
             throw new IllegalNameException(name);
         }
@@ -164,12 +198,14 @@ public class IngredientName {
      * 
      * @param name The special name to set.
      * @throws IllegalSpecialNameException if the special name is invalid or the ingredient does not have enough name parts
+     * @throws IllegalStateException If the name is frozen.
      * @post The special name of the ingredient is set to the given name.
      *      | new.getSpecialName() == name
      */
     @Raw
     public void setSpecialName(String name) throws IllegalSpecialNameException {
-        if (isValidIngredientPartName(name) && this.nameParts.length > 1) {
+        checkNotFrozen();
+        if (canHaveAsSpecialName(name)) {
             this.specialName = name;
         } else {
             throw new IllegalSpecialNameException(name + " injected info for debug: " + this.nameParts.length + " " + Arrays.toString(this.nameParts)+ " " + isValidIngredientPartName(name));
@@ -183,7 +219,7 @@ public class IngredientName {
      */
     @Basic
     public String getBasicName() {
-        return String.join(" mixed with ", nameParts);
+        return basicName;
     }
 
     /**
@@ -211,12 +247,29 @@ public class IngredientName {
         }
     }
 
+    /**
+     * Get the full name of an ingredient with this name, without changing this name.
+     * (special name followed by the basic name with the prefix in brackets, or just the basic name with the prefix if there is no special name.)
+     *
+     * @param prefix The prefix to put in front of the basic name, null if there is none.
+     * @param specialName The special name of the ingredient, null if it has none.
+     * @return The full name of the ingredient.
+     */
+    String getFullName(String prefix, String specialName) {
+        if (prefix == null) {
+            return specialName == null ? basicName : specialName + " (" + basicName + ")";
+        }
+        return specialName == null ? prefix + " " + basicName : specialName + " (" + prefix + " " + basicName + ")";
+    }
+
     /**
      * Add a prefix to the name of the ingredient.
      *
      * @param prefix The prefix to add.
+     * @throws IllegalStateException If the name is frozen.
      */
     public void addPrefix(String prefix) {
+        checkNotFrozen();
         prefixes.add(prefix);
     }
 
@@ -224,15 +277,20 @@ public class IngredientName {
      * Add a suffix to the name of the ingredient.
      *
      * @param suffix The suffix to add.
+     * @throws IllegalStateException If the name is frozen.
      */
     public void addSuffix(String suffix) {
+        checkNotFrozen();
         suffixes.add(suffix);
     }
 
     /**
      * Removes all pre- and suffixes
+     *
+     * @throws IllegalStateException If the name is frozen.
      */
     public void clearPreAndSuffixes() {
+        checkNotFrozen();
         prefixes.clear();
         suffixes.clear();
     }
@@ -272,6 +330,17 @@ public class IngredientName {
      * Helper methods
      **********************************************************/
 
+    /**
+     * Throws if the name is frozen.
+     *
+     * @throws IllegalStateException If the name is frozen.
+     */
+    private void checkNotFrozen() {
+        if (frozen) {
+            throw new IllegalStateException("The name " + basicName + " belongs to an ingredient type and can't be changed");
+        }
+    }
+
     /**
      * Add pre- and suffixes to the given name.
      * 
@@ -297,6 +366,17 @@ public class IngredientName {
      * Validity checks
      **********************************************************/
 
+    /**
+     * Checks if the given name can be the special name of an ingredient with this name.
+     * Only mixtures can have a special name, which must be a valid ingredient part name.
+     *
+     * @param name The special name to be checked.
+     * @return True if this name has more than one part and the given name is a valid ingredient part name, false otherwise.
+     */
+    boolean canHaveAsSpecialName(String name) {
+        return name != null && nameParts.length > 1 && isValidIngredientPartName(name);
+    }
+
     /**
      * Checks if the given mixture name is valid.
      * A valid mixture name consists of multiple ingredient part names separated by " mixed with ".
@@ -308,28 +388,12 @@ public class IngredientName {
      * @return True if the mixture name is valid, false otherwise.
      */
     private boolean isValidMixtureName(String name) {
-        // the name mustn't contain any blacklisted words
-        for (String word : blacklistedWords) {
-            if (name.contains(word)) return false;
-        }
-        // split the name into parts
-        String[] parts = name.split(" mixed with ");
-
-        // if there is only one part, it has to be at least 3 characters long
-        if (name.length() < 3) return false;
-        // each part has to be a valid ingredient part name
-        for (String part : parts) {
-            if (!isValidIngredientPartName(part)) return false;
-        }
-        // all parts combined with ' mixed with ' should equal the original name
-        String joinedString = String.join(" mixed with ", parts);
-
-        return joinedString.equals(name);
+        return NameValidator.isValidMixtureName(name, blacklistedWords);
     }
 
     /**
      * Checks if the given ingredient part name is valid.
-     * A valid ingredient part name must match the ingredient part regex and must not be empty.
+     * A valid ingredient part name may only contain letters, apostrophes, brackets and whitespace and must not be empty.
      * Each word must start with a capital letter and be at least 2 characters long.
      * All other characters must be lowercase.
      * The name must not contain any blacklisted words. (eg. "mixed" or "with")
@@ -338,32 +402,7 @@ public class IngredientName {
      * @return True if the ingredient part name is valid, false otherwise.
      */
     private boolean isValidIngredientPartName(String name) {
-        // the name mustn't contain any blacklisted words
-        for (String word : blacklistedWordsIngredientPart) {
-            if (name.contains(word)) return false;
-        }
-        for (String word : blacklistedWords) {
-            if (name.contains(word)) return false;
-        }
-        // the name must match the ingredient part regex and must not be empty
-        if (!name.matches(ingredientPartRegex) || name.isEmpty()) {
-            return false;
-        }
-        // each word must not start with a lowercase letter and be at least 2 characters long
-        String[] words = name.split(" ");
-        for (String word : words) {
-            if (Character.isLowerCase(word.charAt(0)) ||
-                    word.length() < 2) {
-                return false;
-            }
-            // all other characters must be lowercase
-            for (int i = 1; i < word.length(); i++) {
-                if (Character.isUpperCase(word.charAt(i))) {
-                    return false;
-                }
-            }
-        }
-        return true;
+        return NameValidator.isValidIngredientPartName(name, blacklistedWords);
     }
 
 
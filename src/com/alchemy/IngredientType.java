@@ -5,8 +5,13 @@ import be.kuleuven.cs.som.annotate.Raw;
 import com.alchemy.IngredientConditions.Temperature;
 import com.alchemy.IngredientConditions.IngredientState;
 
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * A class representing a type for Ingredient, which stores some final variables for an ingredient
+ * Types are interned by of and ofMixture: there is only one type per name, standard temperature and standard state,
+ * shared by all ingredients of that type, so types can be compared by identity.
+ * A type is never changed after it is made, ingredients work on their own copies of its name, temperature and state.
  * @invar none of the variables in IngredientType are null
  * totally programmed
  *
@@ -36,6 +41,16 @@ public class IngredientType {
      */
     final private IngredientState standardState;
 
+    /**
+     * The interned types, by name, standard temperature and standard state
+     */
+    private static final ConcurrentHashMap<Key, IngredientType> types = new ConcurrentHashMap<>();
+
+    /**
+     * The standard type, Water with a standardTemperature of [0,20] and a standard liquid state
+     */
+    private static final IngredientType standard = intern(new IngredientType());
+
 
     /**********************************************************
      * Constructors //
@@ -50,23 +65,21 @@ public class IngredientType {
      */
     @Raw
     public IngredientType(String name, Temperature standardTemperature, IngredientState standardState) throws IngredientName.IllegalNameException {
-        this.standardTemperature = standardTemperature;
-        this.ingredientName = new IngredientName(name);
-        this.standardState = standardState;
+        this(new IngredientName(name), standardTemperature, standardState);
     }
 
     /**
      * initializes an IngredientType with given parameters
-     * @param name the name of the IngredientType
+     * @param name the name of the IngredientType, a frozen copy of it is kept
      * @param standardTemperature the standard Temperature of the IngredientType
      * @param standardState the standardState of the IngredientType
      * @throws IngredientName.IllegalNameException is thrown if the name is invalid
      */
     @Raw
     public IngredientType(IngredientName name, Temperature standardTemperature, IngredientState standardState) throws IngredientName.IllegalNameException {
-        this.standardTemperature = standardTemperature;
-        this.ingredientName = name;
-        this.standardState = standardState;
+        this.standardTemperature = new Temperature(standardTemperature.getColdness(), standardTemperature.getHotness());
+        this.ingredientName = name.frozenCopy();
+        this.standardState = new IngredientState(standardState.getState());
     }
 
     /**
@@ -75,7 +88,7 @@ public class IngredientType {
     @Raw
     public IngredientType() {
         try {
-            ingredientName = new IngredientName("Water");
+            ingredientName = new IngredientName("Water").frozenCopy();
         } catch (IngredientName.IllegalNameException e) {
             throw new RuntimeException(e);
         }
@@ -84,6 +97,86 @@ public class IngredientType {
     }
 
 
+    /**********************************************************
+     * Registry
+     **********************************************************/
+
+    /**
+     * Returns the type with the given name, standard temperature and standard state, made the first time it is asked for.
+     * @param name the name of the IngredientType, which can't be a mixture
+     * @param standardTemperature the standard Temperature of the IngredientType
+     * @param standardState the standardState of the IngredientType
+     * @return the shared type
+     * @throws IngredientName.IllegalNameException is thrown if the name is invalid
+     */
+    public static IngredientType of(String name, Temperature standardTemperature, IngredientState.State standardState) throws IngredientName.IllegalNameException {
+        IngredientType type = types.get(new Key(name, standardTemperature, standardState));
+        if (type == null) {
+            return intern(new IngredientType(name, standardTemperature, new IngredientState(standardState)));
+        }
+        if (type.ingredientName.getPartNames().size() > 1) {
+            // a kettle made this mixture, it can't be made from its name
+            throw new IngredientName.IllegalNameException(name);
+        }
+        return type;
+    }
+
+    /**
+     * Returns the type with the given name, standard temperature and standard state, made the first time it is asked for.
+     * @param name the name of the IngredientType, which can't be a mixture
+     * @param standardTemperature the standard Temperature of the IngredientType
+     * @param standardState the standardState of the IngredientType
+     * @return the shared type
+     * @throws IngredientName.IllegalNameException is thrown if the name is invalid
+     */
+    public static IngredientType of(String name, Temperature standardTemperature, IngredientState standardState) throws IngredientName.IllegalNameException {
+        return of(name, standardTemperature, standardState.getState());
+    }
+
+    /**
+     * Returns the type of a mixture with the given name, standard temperature and standard state, made the first time it is asked for.
+     * @param name the name of the mixture, its parts separated by " mixed with "
+     * @param standardTemperature the standard Temperature of the IngredientType
+     * @param standardState the standardState of the IngredientType
+     * @return the shared type
+     * @throws IngredientName.IllegalNameException is thrown if the name is not a valid mixture name
+     */
+    public static IngredientType ofMixture(String name, Temperature standardTemperature, IngredientState standardState) throws IngredientName.IllegalNameException {
+        IngredientType type = types.get(new Key(name, standardTemperature, standardState.getState()));
+        if (type == null) {
+            IngredientName mixtureName = new IngredientName(name.split(" mixed with ")[0]);
+            mixtureName.setName(name);
+            return intern(new IngredientType(mixtureName, standardTemperature, standardState));
+        }
+        return type;
+    }
+
+    /**
+     * Returns the standard type, Water with a standardTemperature of [0,20] and a standard liquid state
+     * @return the shared standard type
+     */
+    public static IngredientType standard() {
+        return standard;
+    }
+
+    /**
+     * Returns the interned type equal to the given type, the given type if there is none yet.
+     */
+    private static IngredientType intern(IngredientType type) {
+        IngredientType interned = types.putIfAbsent(new Key(type.ingredientName.getBasicName(), type.standardTemperature, type.standardState.getState()), type);
+        return interned == null ? type : interned;
+    }
+
+    /**
+     * The key of an interned type.
+     */
+    private record Key(String name, float coldness, float hotness, IngredientState.State state) {
+        Key(String name, Temperature temperature, IngredientState.State state) {
+            this(name, temperature.getColdness(), temperature.getHotness(), state);
+        }
+    }
+
+
     /**********************************************************
      * Getters and Setters
      **********************************************************/
@@ -100,8 +193,9 @@ public class IngredientType {
 
     /**
      * Retrieves the name of the ingredient.
+     * The name is shared by all ingredients of the type, so it is frozen.
      *
-     * @return The name of the ingredient.
+     * @return The frozen name of the ingredient.
      */
     @Basic
     public IngredientName getName() {
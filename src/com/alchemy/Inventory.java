@@ -0,0 +1,133 @@
+package com.alchemy;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The containers stored in a laboratory, indexed by the basic name of their content.
+ * Amounts and space are expressed in ticks, the space taken by a container is its capacity.
+ * Adding a batch, withdrawing an amount and reserving space are single operations of the inventory,
+ * so an inventory that is shared between threads can make each of them atomic.
+ * @invar The total of a name always equals the sum of the amounts of the containers stored under that name.
+ * @invar Every stored container has content.
+ *
+ * @author MiroVanHoef
+ * @author BenDeMets
+ * @author SimonVandeputte
+ * @version 1.0
+ */
+interface Inventory {
+
+    /**
+     * Stores a batch of containers, if their content fits in the space that is left.
+     *
+     * @param containers the containers to store
+     *                   | for (IngredientContainer container : containers) { container != null && container.getContent() != null }
+     * @param limit the total space of the inventory, in ticks
+     * @return true if the content of the containers fitted and all containers were stored,
+     *         false if nothing was stored
+     */
+    boolean tryAdd(Collection<IngredientContainer> containers, long limit);
+
+    /**
+     * Stores a batch of containers in space that was claimed with reserve, and gives the claimed space back in the same step,
+     * so no other change of the inventory can take the space in between.
+     * Content that fits in the claimed space is always stored, also when other containers took more than their content of the space that was left.
+     *
+     * @param containers the containers to store
+     *                   | for (IngredientContainer container : containers) { container != null && container.getContent() != null }
+     * @param reserved the space that was claimed for the containers, in ticks
+     * @param limit the total space of the inventory, in ticks
+     * @return true if the content of the containers fitted in the claimed space, or in the claimed space and the space that is left, all containers were stored
+     *         and the claimed space was given back, false if nothing was stored, in which case the space stays claimed
+     */
+    boolean tryAddReserved(Collection<IngredientContainer> containers, long reserved, long limit);
+
+    /**
+     * Takes an amount of an ingredient out of the inventory.
+     * The oldest containers of the ingredient are taken first. If only part of a container is needed,
+     * the rest is stored again in the smallest container that fits it.
+     *
+     * @param name the basic name of the ingredient
+     * @param requested the amount to take, in ticks
+     *                  | requested > 0
+     * @return the ingredient that was taken, expressed in its base unit,
+     *         or null if the inventory holds less than the requested amount, in which case nothing is taken
+     */
+    AlchemicIngredient withdraw(String name, long requested);
+
+    /**
+     * Claims space without storing a container, if that much space is left.
+     *
+     * @param ticks the space to claim
+     * @param limit the total space of the inventory, in ticks
+     * @return true if the space was claimed
+     */
+    boolean reserve(long ticks, long limit);
+
+    /**
+     * Gives back space that was claimed with reserve.
+     *
+     * @param ticks the space to give back
+     */
+    void release(long ticks);
+
+    /**
+     * Returns the oldest container of the given ingredient without removing it.
+     *
+     * @param name the basic name of the ingredient
+     * @return the oldest container stored under the name, or null if there is none
+     */
+    IngredientContainer peekFirst(String name);
+
+    /**
+     * Returns the total amount of the given ingredient.
+     *
+     * @param name the basic name of the ingredient
+     * @return the sum of the amounts of all containers stored under the name, in ticks
+     */
+    long getTicks(String name);
+
+    /**
+     * Returns the basic names of all stored ingredients.
+     *
+     * @return a snapshot of the names, one for every ingredient of which containers are stored
+     */
+    List<String> getNames();
+
+    /**
+     * Returns the space taken by all stored containers and reservations.
+     *
+     * @return the filled space, in ticks
+     */
+    long getFilledTicks();
+
+    /**
+     * Returns the space taken by the stored containers of one state.
+     *
+     * @param solid whether to count the powder containers instead of the fluid containers
+     * @return the sum of the capacities of the stored containers of the state, in ticks
+     */
+    long getFilledTicks(boolean solid);
+
+    /**
+     * Returns all stored containers.
+     *
+     * @return a snapshot of the stored containers
+     */
+    List<IngredientContainer> getContainers();
+
+    /**
+     * Returns all stored containers, without copying them if the inventory allows it.
+     *
+     * @return a read-only view or a snapshot of the stored containers
+     */
+    Iterable<IngredientContainer> containers();
+
+    /**
+     * Checks if the inventory holds no containers.
+     *
+     * @return true if no container is stored
+     */
+    boolean isEmpty();
+}
@@ -0,0 +1,168 @@
+package com.alchemy;
+
+import com.alchemy.quantity.FixedQuantity;
+import com.alchemy.quantity.Unit;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Reports the contents of a laboratory one ingredient at a time.
+ * Every line of a report is the total amount of one ingredient over all its containers, in its base unit,
+ * followed by " of " and the basic name of the ingredient, e.g. "80.0 drop of Test Liquid". The lines are ordered by name.
+ * The totals are the ones the laboratory keeps per ingredient, so a report never goes over the containers
+ * and never builds or changes them: besides the names of the ingredients, a report takes the same memory for any number of containers.
+ * Every line is made when it is reached, an ingredient that is taken out of the laboratory before its line is reached is left out.
+ * nominally programmed
+ *
+ * @author MiroVanHoef
+ * @author BenDeMets
+ * @author SimonVandeputte
+ * @version 1.0
+ */
+public final class InventoryReporter {
+
+    /**********************************************************
+     * Constants
+     **********************************************************/
+
+    /**
+     * The separator between the amount and the name of an ingredient.
+     */
+    private static final String OF = " of ";
+
+    /**
+     * The size of the write buffer of a channel.
+     */
+    private static final int BUFFER_SIZE = 1 << 13;
+
+
+    /**********************************************************
+     * Constructors
+     **********************************************************/
+
+    /**
+     * This class only holds static methods.
+     */
+    private InventoryReporter() {}
+
+
+    /**********************************************************
+     * Methods
+     **********************************************************/
+
+    /**
+     * Returns the lines of the report of a laboratory as a lazy stream.
+     *
+     * @param laboratory the laboratory to report on
+     * @return a stream with a line for every ingredient in the laboratory, ordered by name, without line separators
+     */
+    public static Stream<String> lines(Laboratory laboratory) {
+        return names(laboratory).stream()
+                .map(name -> line(laboratory, name))
+                .filter(Objects::nonNull);
+    }
+
+    /**
+     * Writes the report of a laboratory to an Appendable, a line at a time.
+     *
+     * @param laboratory the laboratory to report on
+     * @param out the Appendable to write to, every line is followed by a newline
+     * @throws IOException if the Appendable can't be written
+     */
+    public static void write(Laboratory laboratory, Appendable out) throws IOException {
+        for (String name : names(laboratory)) {
+            String line = line(laboratory, name);
+            if (line != null) {
+                out.append(line).append('\n');
+            }
+        }
+    }
+
+    /**
+     * Writes the report of a laboratory to a channel in UTF-8, through a buffer of a fixed size.
+     *
+     * @param laboratory the laboratory to report on
+     * @param channel the channel to write to, every line is followed by a newline. The channel is not closed.
+     * @throws IOException if the channel can't be written
+     */
+    public static void write(Laboratory laboratory, WritableByteChannel channel) throws IOException {
+        CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        for (String name : names(laboratory)) {
+            String line = line(laboratory, name);
+            if (line == null) {
+                continue;
+            }
+            CharBuffer chars = CharBuffer.wrap(line + '\n');
+            CoderResult result;
+            while ((result = encoder.encode(chars, buffer, false)).isOverflow()) {
+                drain(buffer, channel);
+            }
+            if (result.isError()) {
+                result.throwException();
+            }
+        }
+        drain(buffer, channel);
+    }
+
+    /**
+     * Returns the lines of the report of a laboratory joined by ", ".
+     *
+     * @param laboratory the laboratory to report on
+     * @return the lines of the report on one line, an empty string if the laboratory is empty
+     */
+    static String summary(Laboratory laboratory) {
+        StringBuilder summary = new StringBuilder();
+        Iterator<String> lines = lines(laboratory).iterator();
+        while (lines.hasNext()) {
+            summary.append(lines.next());
+            if (lines.hasNext()) {
+                summary.append(", ");
+            }
+        }
+        return summary.toString();
+    }
+
+    /**
+     * Returns the names of the ingredients in a laboratory, in the order of a report.
+     */
+    private static List<String> names(Laboratory laboratory) {
+        List<String> names = new ArrayList<>(laboratory.getIngredientNames());
+        names.sort(null);
+        return names;
+    }
+
+    /**
+     * Returns the line of an ingredient, or null if the laboratory holds none of it any more.
+     */
+    private static String line(Laboratory laboratory, String name) {
+        Unit baseUnit = laboratory.getBaseUnit(name);
+        long ticks = laboratory.getTicks(name);
+        if (baseUnit == null || ticks == 0) {
+            return null;
+        }
+        return new FixedQuantity(ticks, baseUnit) + OF + name;
+    }
+
+    /**
+     * Writes out everything in the buffer and empties it.
+     */
+    private static void drain(ByteBuffer buffer, WritableByteChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
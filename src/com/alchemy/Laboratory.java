@@ -1,13 +1,16 @@
 package com.alchemy;
 import be.kuleuven.cs.som.annotate.*;
 import com.alchemy.IngredientConditions.*;
+import com.alchemy.quantity.FixedQuantity;
 import com.alchemy.quantity.FluidUnit;
-import com.alchemy.quantity.PowderUnit;
 import com.alchemy.quantity.Quantity;
 import com.alchemy.recipes.Recipe;
-import com.alchemy.recipes.Recipe.*;
 import com.alchemy.quantity.Unit;
-import java.util.ArrayList;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Class representing a Laboratory.
@@ -20,24 +23,45 @@ import java.util.ArrayList;
  * @author SimonVandeputte
  * @version 1.0
  */
-public class Laboratory {
+public final class Laboratory {
 
     /**
-     * A list of devices.
-     * This ArrayList holds Device objects, each representing a unique device.
-     * A lab can only hold 1 of each Device
+     * The devices of the Laboratory, by kind.
+     * A lab can hold as many devices of each kind as it was created with, 1 by default.
      */
-    private ArrayList<Device> devices;
+    private final DeviceRegistry devices;
 
     /**
-     * A list that contains containers stored in the Laboratory
+     * The containers stored in the Laboratory, indexed by ingredient name
      */
-    private ArrayList<IngredientContainer> containers;
+    private final Inventory inventory;
 
     /**
      * amount of storerooms the Laboratory has
      */
-    private int storeroom;
+    private volatile int storeroom;
+
+    /**
+     * The oven used to bring ingredients that enter the Laboratory to their standard temperature.
+     * It is not one of the devices of the Laboratory.
+     */
+    private final Oven intakeOven = new Oven();
+
+    /**
+     * The coolingbox used to bring ingredients that enter the Laboratory to their standard temperature.
+     * It is not one of the devices of the Laboratory.
+     */
+    private final CoolingBox intakeCoolingBox = new CoolingBox();
+
+    /**
+     * Whether the Laboratory can be used by several threads at once.
+     */
+    private final boolean concurrent;
+
+    /**
+     * The journal the changes of the Laboratory are recorded in, null if the Laboratory is not journaled.
+     */
+    private volatile LaboratoryJournal journal;
 
     /**
      * Constructs a new Laboratory with the specified number of storerooms.
@@ -50,10 +74,94 @@ public class Laboratory {
      */
     @Raw
     public Laboratory(int amount){
+        this(amount, 1);
+    }
+
+    /**
+     * Constructs a new Laboratory with the specified number of storerooms that can hold several devices of each kind.
+     *
+     * @pre amount >= 1
+     * @post A new Laboratory object is created with the specified number of storerooms. The lists of devices and containers are initialized.
+     * @param amount the number of storerooms in the laboratory
+     * @param devicesPerKind the maximum number of devices of each kind in the laboratory
+     * @throws IllegalArgumentException if the number of storerooms or the number of devices per kind is less than 1
+     */
+    @Raw
+    public Laboratory(int amount, int devicesPerKind){
+        this(amount, devicesPerKind, false);
+    }
+
+    /**
+     * Constructs a new Laboratory with the specified number of storerooms, that can be used by several threads at once if it is concurrent.
+     * A concurrent Laboratory spreads its containers over stripes by ingredient name with a lock per stripe and keeps its filled space in atomic counters,
+     * so threads stocking and withdrawing different ingredients don't wait for each other. Every device is used by one thread at a time.
+     *
+     * @pre amount >= 1
+     * @post A new Laboratory object is created with the specified number of storerooms. The lists of devices and containers are initialized.
+     * @param amount the number of storerooms in the laboratory
+     * @param devicesPerKind the maximum number of devices of each kind in the laboratory
+     * @param concurrent whether the laboratory can be used by several threads at once
+     * @throws IllegalArgumentException if the number of storerooms or the number of devices per kind is less than 1
+     */
+    @Raw
+    public Laboratory(int amount, int devicesPerKind, boolean concurrent){
+        this(amount, devicesPerKind, concurrent, concurrent ? new ConcurrentInventory() : new IndexedInventory());
+    }
+
+    /**
+     * Constructs a new Laboratory with the specified number of storerooms that keeps its containers outside the heap,
+     * in columns of memory mapped files in the given directory.
+     * Such a Laboratory can hold more containers than fit in the heap. Its containers are built again every time they are asked for,
+     * so going over all of them (getContents, getContainers) is a sequential sweep of the columns.
+     * The Laboratory is used by one thread at a time. Column files that were left in the directory are emptied.
+     *
+     * @pre amount >= 1
+     * @post A new Laboratory object is created with the specified number of storerooms. The lists of devices and containers are initialized.
+     * @param amount the number of storerooms in the laboratory
+     * @param devicesPerKind the maximum number of devices of each kind in the laboratory
+     * @param storage the directory of the column files, created if it does not exist
+     * @throws IllegalArgumentException if the number of storerooms or the number of devices per kind is less than 1
+     * @throws IOException if the column files can't be created
+     */
+    @Raw
+    public Laboratory(int amount, int devicesPerKind, Path storage) throws IOException {
+        this(amount, devicesPerKind, false, new MappedInventory(storage));
+    }
+
+    /**
+     * Creates a new Laboratory with the specified number of storerooms that keeps a balance per kind of ingredient instead of its containers.
+     * Stored content is merged with the content of the same type, special name, state and temperature that is already in the Laboratory,
+     * so the Laboratory grows with the number of different ingredients instead of the number of containers that were added,
+     * and removing an ingredient lowers its balances. Containers are only made when they are asked for,
+     * in the smallest containers that fit the balances. A balance takes the space of the containers it would be poured in,
+     * so the filled space is the same as when the stock was added in those containers.
+     * The Laboratory is used by one thread at a time.
+     *
+     * @pre amount >= 1
+     * @param amount the number of storerooms in the laboratory
+     * @param devicesPerKind the maximum number of devices of each kind in the laboratory
+     * @return a new, empty Laboratory
+     * @throws IllegalArgumentException if the number of storerooms or the number of devices per kind is less than 1
+     */
+    public static Laboratory aggregated(int amount, int devicesPerKind) {
+        return new Laboratory(amount, devicesPerKind, false, new AggregatedInventory());
+    }
+
+    /**
+     * Constructs a new Laboratory with the specified number of storerooms that stores its containers in the given inventory.
+     */
+    @Raw
+    private Laboratory(int amount, int devicesPerKind, boolean concurrent, Inventory inventory){
+        this.inventory = inventory;
+        this.concurrent = concurrent;
+        if (devicesPerKind < 1) {
+            throw new IllegalArgumentException("amount of devices per kind must be bigger than 0");
+        }
         if(amount >= 1) {
             this.storeroom = amount;
-            devices = new ArrayList<>();
-            containers = new ArrayList<>();
+            devices = new DeviceRegistry(devicesPerKind);
+            intakeOven.setLaboratory(this);
+            intakeCoolingBox.setLaboratory(this);
         } else{
             throw new IllegalArgumentException("amount of storerooms must be bigger than 0");
         }
@@ -62,42 +170,78 @@ public class Laboratory {
     /**
      * Gets the list of ingredient containers currently in the Laboratory
      *
-     * @return An ArrayList of IngredientContainer objects representing all the containers in the Laboratory.
+     * @return A snapshot of all the containers in the Laboratory, in the order they were added.
      */
     @Basic
-    public ArrayList<IngredientContainer> getContainers() {
-        return containers;
+    public List<IngredientContainer> getContainers() {
+        return inventory.getContainers();
     }
 
     /**
-     * Calculates and returns the filled space in the storeroom.
+     * Returns the filled space in the storeroom.
+     * The space taken by the containers is kept up to date whenever a container is added or removed.
      *
      * @return the filled space in the storeroom, expressed in storerooms.
      */
     public float getFilledSpace() {
-        float FilledSpace = 0F;
+        return (float) FixedQuantity.toAmount(inventory.getFilledTicks(), FluidUnit.STOREROOM);
+    }
 
-        for (IngredientContainer container : containers) {
-            if (container.getContent().getQuantity().isFluidUnit()){
-                float amountOfFluid = container.getContainerUnit().convertTo(FluidUnit.STOREROOM, 1F); // converting to powder unit is allowed in this case since 1 storeroom powder == 1 storeroom fluid
-                FilledSpace += amountOfFluid;
-            } else if (container.getContent().getQuantity().isPowderUnit()) {
-                float amountOfPowder = container.getContainerUnit().convertTo(PowderUnit.STOREROOM, 1F);
-                FilledSpace += amountOfPowder;
-            }
-        }
-        return FilledSpace;
+    /**
+     * Returns the space in the storeroom taken by containers of one state.
+     *
+     * @param solid whether to count the powder containers instead of the fluid containers
+     * @return the space taken by the containers of the state, expressed in storerooms.
+     */
+    public float getFilledSpace(boolean solid) {
+        return (float) FixedQuantity.toAmount(inventory.getFilledTicks(solid), FluidUnit.STOREROOM);
     }
 
     /**
-     * Calculates and returns the free space available in the storeroom.
+     * Returns the free space available in the storeroom.
      *
      * @return the free space in the storeroom expressed in storerooms
      */
     public float getFreeSpace() {
-        float FilledSpace = this.getFilledSpace();
-        float space = this.getSpace();
-        return space - FilledSpace;
+        return (float) FixedQuantity.toAmount(getFreeTicks(), FluidUnit.STOREROOM);
+    }
+
+    /**
+     * Returns the free space available in the storeroom in ticks.
+     * 1 storeroom powder == 1 storeroom fluid, so the space of fluids and powders is counted together.
+     *
+     * @return the free space in the storeroom expressed in ticks
+     */
+    long getFreeTicks() {
+        return getCapacityTicks() - inventory.getFilledTicks();
+    }
+
+    /**
+     * Claims free space without storing anything, so it is still free when something is stored later.
+     *
+     * @param ticks the space to claim, in ticks
+     * @return true if that much space was free and is now claimed, false if nothing was claimed
+     */
+    boolean reserveSpace(long ticks) {
+        return inventory.reserve(ticks, getCapacityTicks());
+    }
+
+    /**
+     * Gives back space that was claimed with reserveSpace.
+     *
+     * @param ticks the space to give back, in ticks
+     */
+    void releaseSpace(long ticks) {
+        inventory.release(ticks);
+    }
+
+    /**
+     * Returns the total space of the storerooms in ticks.
+     *
+     * @return the space of all storerooms together, expressed in ticks
+     */
+    private long getCapacityTicks() {
+        return storeroom * FixedQuantity.ticksPer(FluidUnit.STOREROOM);
     }
 
     /**
@@ -112,30 +256,21 @@ public class Laboratory {
 
     /**
      * Constructs a string representation of the contents of the laboratory.
+     * Every ingredient is listed once with its total amount, in its base unit, ordered by name. See InventoryReporter.
      *
      * @return A string describing the amount, unit, and name of each ingredient in the laboratory.
      *         The string is in the format: "The lab contains: {amount} {unit} of {ingredient}, ..."
      *         If the laboratory is empty, the returned string will simply be: "The lab is empty".
      */
     public String getContents() {
-        if(!this.isEmpty()) {
-            StringBuilder contents = new StringBuilder("The lab contains: ");
-            for (IngredientContainer container : containers) {
-                Quantity quantity = container.getContent().getQuantity();
-                quantity.convertToBase();
-                contents.append(quantity).append(" of ").append(container.getContent().getBasicName()).append(", ");
-            }
-            if (!contents.isEmpty()) {
-                contents.setLength(contents.length() - 2);
-            }
-            return contents.toString();
-        } else{
-            return ("The lab is empty");
-        }
+        String summary = InventoryReporter.summary(this);
+        return summary.isEmpty() ? "The lab is empty" : "The lab contains: " + summary;
     }
 
     /**
      * Constructs a string representation of a specific ingredient in the laboratory.
+     * The ingredient is found by its kind: its basic name, special name, state, temperature and the standard temperature and state of its type,
+     * so a container of the laboratory matches whatever its quantity, also when the laboratory only keeps a copy of the content that was added.
      *
      * @param ingredient The specific AlchemicIngredient to find in the laboratory.
      * @return A string describing the amount, unit, and name of the specified ingredient in the laboratory.
@@ -143,15 +278,35 @@ public class Laboratory {
      *         If the ingredient is not found in the laboratory, the returned string will be empty.
      */
     public String getContents(AlchemicIngredient ingredient) {
-        String ingredientString = "";
-        for (IngredientContainer container : containers) {
-            if (container.getContent().equals(ingredient)) {
+        if (inventory.getTicks(ingredient.getBasicName()) == 0) {
+            return "";
+        }
+        for (IngredientContainer container : inventory.containers()) {
+            if (container.getContent().isOfSameKind(ingredient)) {
                 return "The lab contains: " + container;
-            } else{
-                throw new IllegalArgumentException("Ingredient " + ingredient + "not found in lab");
             }
         }
-        return ingredientString;
+        return "";
+    }
+
+    /**
+     * Returns the basic names of all ingredients in the laboratory.
+     *
+     * @return a snapshot of the names, in no particular order
+     */
+    List<String> getIngredientNames() {
+        return inventory.getNames();
+    }
+
+    /**
+     * Returns the base unit an ingredient in the laboratory is expressed in.
+     *
+     * @param ingredientName The basic name of the ingredient.
+     * @return the base unit of the oldest container of the ingredient, null if the laboratory holds none of it
+     */
+    Unit getBaseUnit(String ingredientName) {
+        IngredientContainer oldest = inventory.peekFirst(ingredientName);
+        return oldest == null ? null : oldest.getContent().getQuantity().getUnit().getBaseUnit();
     }
 
     /**
@@ -164,17 +319,8 @@ public class Laboratory {
     public boolean canAddContainer(IngredientContainer container){
         if (container.getContent() == null) {
             return false;
-        }else {
-            Quantity comparisonContainer;
-            if(container.getContent().getState().isSolid()){
-                comparisonContainer = new Quantity(this.getFreeSpace(), PowderUnit.STOREROOM);
-            }
-            else{
-                comparisonContainer = new Quantity(this.getFreeSpace(), FluidUnit.STOREROOM);
-            }
-
-            return container.getContent().getQuantity().isSmallerThanOrEqualTo(comparisonContainer);
         }
+        return container.getContent().getQuantity().getValue().getTicks() <= getFreeTicks();
     }
 
     /**
@@ -184,122 +330,204 @@ public class Laboratory {
      * @post added container must be changed to standard temperature
      * @param container The IngredientContainer to be added to the laboratory.
      * @throws IllegalArgumentException if the laboratory does not have enough free space to accommodate the ingredient in the container.
+     * @effect The container is added as a batch of one.
+     *  |addContainers(List.of(container))
      */
     public void addContainer(IngredientContainer container){
-        if (canAddContainer(container)){
-            Device tempCool = new CoolingBox();
-            Device tempHeat = new Oven();
-            if (this.canAddDevice(tempCool)) {
-                try {
-                    this.addDevice(tempCool);
-                } catch (LaboratoryFullException e) {
-                    throw new RuntimeException(e);
-                }
-            }
-            if (this.canAddDevice(tempHeat)) {
-                try {
-                    this.addDevice(tempHeat);
-                } catch (LaboratoryFullException e) {
-                    throw new RuntimeException(e);
-                }
-            }
-            try {
-                standardTempWithTempDevice(container, tempCool, tempHeat);
-                tempCool = null;
-                tempHeat = null;
-            } catch (Device.DeviceFullException | LaboratoryMissingDeviceException e) {
-                throw new RuntimeException(e);
+        addContainers(List.of(container));
+    }
+
+    /**
+     * Adds a batch of IngredientContainers to the laboratory.
+     * The space for the whole batch is checked before anything is changed, so either all containers are added or none are.
+     * The ingredients are brought to their standard temperature with the oven and coolingbox the laboratory keeps for intake,
+     * no devices are added to or removed from the laboratory.
+     *
+     * @post added containers must be changed to standard temperature
+     * @param containers The IngredientContainers to be added to the laboratory.
+     * @throws IllegalArgumentException if a container is empty, or if the laboratory does not have enough free space to accommodate the ingredients of all containers together.
+     *                                  In a concurrent laboratory the space can be taken by another thread after the temperatures were adjusted, the containers are not added then either.
+     */
+    public void addContainers(Collection<IngredientContainer> containers){
+        addContainers(containers, 0);
+    }
+
+    /**
+     * Adds a batch of IngredientContainers to the laboratory in space that was claimed with reserveSpace.
+     * The claimed space is given back in the same step the containers are stored, so no other thread can take it in between.
+     * The ingredients are brought to their standard temperature like in addContainers.
+     *
+     * @param containers The IngredientContainers to be added to the laboratory.
+     * @param reservedTicks the space that was claimed for the containers, in ticks
+     * @throws IllegalArgumentException if a container is empty, or if the ingredients of all containers together don't fit in the claimed space and the free space.
+     *                                  The space stays claimed then.
+     */
+    void addReservedContainers(Collection<IngredientContainer> containers, long reservedTicks) {
+        addContainers(containers, reservedTicks);
+    }
+
+    /**
+     * Adds a batch of IngredientContainers to the laboratory, in claimed space and free space.
+     */
+    private void addContainers(Collection<IngredientContainer> containers, long reservedTicks) {
+        long batchTicks = 0;
+        for (IngredientContainer container : containers) {
+            if (container == null || container.getContent() == null) {
+                throw new IllegalArgumentException("can't add container");
             }
-            containers.add(container);
-        } else{
+            batchTicks += container.getContent().getQuantity().getValue().getTicks();
+        }
+        if (batchTicks > reservedTicks && batchTicks > getFreeTicks() + reservedTicks) {
+            throw new IllegalArgumentException("can't add container");
+        }
+        for (IngredientContainer container : containers) {
+            bringToStandardTemperature(container.getContent());
+        }
+        LaboratoryJournal journal = this.journal;
+        boolean added = journal == null
+                ? inventory.tryAddReserved(containers, reservedTicks, getCapacityTicks())
+                : journal.add(containers, () -> inventory.tryAddReserved(containers, reservedTicks, getCapacityTicks()));
+        if (!added) {
             throw new IllegalArgumentException("can't add container");
         }
     }
 
     /**
-     * Adjusts the temperature of the given IngredientContainer to a standard temperature using the provided devices.
-     * After the adjustment, the devices are removed and any contents they may have are destroyed.
+     * Adds a stream of IngredientContainers to the laboratory as one batch.
+     *
+     * @param containers The IngredientContainers to be added to the laboratory.
+     * @throws IllegalArgumentException if a container is empty, or if the laboratory does not have enough free space to accommodate the ingredients of all containers together.
+     * @effect The containers of the stream are added as one batch.
+     *  |addContainers(containers.toList())
+     */
+    public void addContainers(Stream<IngredientContainer> containers){
+        addContainers(containers.toList());
+    }
+
+    /**
+     * Stores containers that were in the laboratory before, as they are.
+     * Unlike addContainers, the ingredients keep their temperature: they were brought to their standard temperature when they entered the laboratory the first time.
+     *
+     * @param containers The IngredientContainers to store, every one with content.
+     * @return true if the containers fitted in the storerooms and were all stored, false if none were stored
+     */
+    boolean restoreContainers(Collection<IngredientContainer> containers) {
+        return inventory.tryAdd(containers, getCapacityTicks());
+    }
+
+    /**
+     * Stores containers that were stored in the laboratory before, as they are, whether they fit or not.
+     * The changes of a journal are replayed in the order they were recorded, which can differ from the order they took effect for different ingredients,
+     * so the space they needed was already checked when they took effect.
+     *
+     * @param containers The IngredientContainers to store, every one with content.
+     */
+    void replayContainers(Collection<IngredientContainer> containers) {
+        inventory.tryAdd(containers, Long.MAX_VALUE);
+    }
+
+    /**
+     * Sets the number of storerooms to a number that was recorded in a journal.
+     *
+     * @param amount the number of storerooms
+     * @throws IllegalArgumentException if the number of storerooms is less than 1
+     */
+    synchronized void replayStorerooms(int amount) {
+        if (amount < 1) {
+            throw new IllegalArgumentException("amount of storerooms must be bigger than 0");
+        }
+        this.storeroom = amount;
+    }
+
+    /**
+     * Retrieves the journal the changes of the laboratory are recorded in.
+     *
+     * @return the journal of the laboratory, null if it is not journaled
+     */
+    LaboratoryJournal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Sets the journal the changes of the laboratory are recorded in.
+     *
+     * @param journal the journal of the laboratory, null to stop journaling
+     */
+    void setJournal(LaboratoryJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Brings an ingredient that enters the laboratory to its standard temperature.
+     * If the ingredient is colder than its standard temperature it is heated in the intake oven,
+     * if it is hotter it is cooled in the intake coolingbox.
      *
-     * @param container The IngredientContainer whose temperature is to be adjusted.
-     * @param tempCool The Device used to cool the container.
-     * @param tempHeat The Device used to heat the container.
-     * @throws Device.DeviceFullException If a device is full and cannot accept more contents.
-     * @throws LaboratoryMissingDeviceException If a required device is missing from the laboratory.
+     * @param ingredient The ingredient whose temperature is to be adjusted.
      */
-    private void standardTempWithTempDevice(IngredientContainer container, Device tempCool, Device tempHeat) throws Device.DeviceFullException, LaboratoryMissingDeviceException {
-        bringBackToStandardTemperature(container.getContent());
-        removeDevice(tempCool);
-        removeDevice(tempHeat);
-        IngredientContainer container1 = tempCool.getContents();
-        IngredientContainer container2 = tempHeat.getContents();
-        if(container1!=null){
-            container1.destroy();
+    private void bringToStandardTemperature(AlchemicIngredient ingredient) {
+        Temperature standardTemperature = ingredient.getStandardType().getStandardTemperature();
+        Device device;
+        if (ingredient.getTemperature().isColderThan(standardTemperature)) {
+            device = intakeOven;
+        } else if (ingredient.getTemperature().isHotterThan(standardTemperature)) {
+            device = intakeCoolingBox;
+        } else {
+            return;
         }
-        if(container2 != null){
-            tempHeat.getContents().destroy();
+        synchronized (device) {
+            if (device == intakeOven) {
+                intakeOven.setTemperature(standardTemperature);
+            } else {
+                intakeCoolingBox.setTemperature(standardTemperature);
+            }
+            try {
+                device.addIngredient(ingredient);
+                device.react();
+            } catch (Device.DeviceFullException | Device.NotInLaboratoryException e) {
+                throw new RuntimeException(e);
+            } finally {
+                device.takeIngredient();
+            }
         }
     }
 
     /**
      * Adds a specified amount of an IngredientContainer to the laboratory.
+     * The rest of the ingredient stays in the given container, the container is destroyed if nothing is left.
      *
      * @pre size of container must be smaller than amount of space left in storeroom
      * @post added container must be changed to standard temperature
      * @param container The IngredientContainer to be added to the laboratory.
-     * @param amount The amount of the ingredient to be added from the container.
+     * @param amount The amount of the ingredient to be added from the container, in the base unit of the ingredient.
      * @throws IllegalArgumentException if the laboratory does not have enough free space to accommodate the specified amount of the ingredient in the container,
-     *                                  or if the container does not have enough of the ingredient. (Watch out, still adds tha max amount it can fit)
+     *                                  or if the container does not have enough of the ingredient. Nothing is added in that case.
      * @effect The specified amount of the ingredient is added to the laboratory.
      */
     public void addContainer(IngredientContainer container, int amount) throws IngredientName.IllegalNameException {
-        for (int i = 0; i < amount; i++) {
-            if (container.getContent() != null) {
-                Device tempCool = new CoolingBox();
-                Device tempHeat = new Oven();
-                if (this.canAddDevice(tempCool)) {
-                    try {
-                        this.addDevice(tempCool);
-                    } catch (LaboratoryFullException e) {
-                        throw new RuntimeException(e);
-                    }
-                }
-                if (this.canAddDevice(tempHeat)) {
-                    try {
-                        this.addDevice(tempHeat);
-                    } catch (LaboratoryFullException e) {
-                        throw new RuntimeException(e);
-                    }
-                }
-                try {
-                    bringBackToStandardTemperature(container.getContent());
-                    tempCool = null;
-                    tempHeat = null;
-                } catch (Device.DeviceFullException | LaboratoryMissingDeviceException e) {
-                    throw new RuntimeException(e);
-                }
-                AlchemicIngredient partialIngredient = new AlchemicIngredient(container.getContent().getFullName(), container.getContent().getTemperature(), container.getContent().getState(), container.getContent().getQuantity().convertTo(container.getContent().getQuantity().getUnit()) - amount);
-                AlchemicIngredient labIngredient = new AlchemicIngredient(container.getContent().getFullName(), container.getContent().getTemperature(), container.getContent().getState(), amount);
-                IngredientContainer partialContainer = new IngredientContainer(partialIngredient, container.getContainerUnit());
-                IngredientContainer labContainer = new IngredientContainer(labIngredient, container.getContainerUnit());
-                if (canAddContainer(container)) {
-                    containers.add(labContainer);
-                    container.destroy();
-                } else {
-                    labContainer.destroy();
-                    partialContainer.destroy();
-                    labContainer = null;
-                    partialContainer = null;
-                    throw new IllegalArgumentException("Not enough space to add container");
-                }
-            }
+        AlchemicIngredient content = container.getContent();
+        if (content == null || amount <= 0) {
+            return;
+        }
+        Unit baseUnit = content.getQuantity().getUnit().getBaseUnit();
+        long moved = FixedQuantity.toTicks(amount, baseUnit);
+        long ticks = content.getQuantity().getValue().getTicks();
+        if (moved > ticks) {
+            throw new IllegalArgumentException("Container does not hold enough of the ingredient");
+        }
+        AlchemicIngredient labIngredient = content.withQuantity(new Quantity(new FixedQuantity(moved, baseUnit)));
+        addContainer(new IngredientContainer(labIngredient, container.getContainerUnit()));
+        if (moved == ticks) {
+            container.destroy();
+        } else {
+            container.setContent(content.withQuantity(new Quantity(new FixedQuantity(ticks - moved, baseUnit))));
         }
     }
 
     /**
      * Removes a specified amount of a specific ingredient from the laboratory.
-     * The method searches for the ingredient in the laboratory's containers and removes the specified amount.
-     * If the ingredient is not found, an exception is thrown.
-     * If the amount to be removed is less than the amount in a container, the remaining amount is added back to the laboratory.
+     * The oldest containers of the ingredient are taken first. If only part of a container is needed,
+     * the rest stays in the laboratory in the smallest container that fits it.
+     * If there is not enough of the ingredient, nothing is removed.
      *
      * @pre Ingredient must be in Laboratory
      * @param ingredientName The name of the ingredient to be removed.
@@ -307,55 +535,79 @@ public class Laboratory {
      * @param amount The amount of the ingredient to be removed.
      * @return A new IngredientContainer containing the removed ingredient.
      * @throws IngredientName.IllegalNameException If the ingredient name is illegal.
-     * @throws IllegalArgumentException If the amount to be removed is less than or equal to 0, or if not enough ingredient is not found in the laboratory.
+     * @throws IllegalArgumentException If the amount to be removed is less than or equal to 0, if not enough of the ingredient is found in the laboratory,
+     *                                  or if the amount does not fit in a single container.
      * @effect The specified amount of the ingredient is removed from the laboratory.
-     * @effect If there is not enough of the ingredient in the laboratory, this function will throw an IllegalArgumentException, but will still remove as much as possible.
      */
     public IngredientContainer removeIngredient(String ingredientName, Unit containerUnit, int amount) throws IngredientName.IllegalNameException {
-        if (amount > 0) {
-            ArrayList<IngredientContainer> removedContainers = new ArrayList<>();
-            int newAmount = amount;
-            while (newAmount > 0) {
-                boolean found = false;
-                ArrayList<IngredientContainer> containers1 = this.containers;
-                for (IngredientContainer container : containers1) {
-                    System.out.println(container.getContent().getFullName());
-                    if ((container.getContent().getBasicName().equals(ingredientName))) {
-                        Float removedAmount = container.getContent().getQuantity().convertTo(containerUnit);
-                        if (newAmount < removedAmount) {
-                            AlchemicIngredient newIngredient = new AlchemicIngredient(container.getContent().getFullName(), container.getContent().getTemperature(), container.getContent().getState(), removedAmount - newAmount);
-                            IngredientContainer newContainer = new IngredientContainer(newIngredient, newIngredient.getQuantity().getSmallestContainer());
-                            this.addContainer(newContainer);
-                            newIngredient = new AlchemicIngredient(container.getContent().getFullName(), container.getContent().getTemperature(), container.getContent().getState(), newAmount - removedAmount);
-                            newContainer = new IngredientContainer(newIngredient, newIngredient.getQuantity().getSmallestContainer());
-                            removedContainers.add(newContainer);
-                            newAmount = 0;
-                            this.containers.remove(container);
-                        } else {
-                            removedContainers.add(container);
-                            this.containers.remove(container);
-                            newAmount -= removedAmount;
-                        }
-                        found = true;
-                        break;
-                    }
-                }
-                if (!found) {
-                    throw new IllegalArgumentException("Ingredient not found in laboratory");
-                }
-            }
-            // merge all labcontainers into one container
-            // all ingredients which were removed are the same alchemicingredient, so we can merge their quantities (convert everything to base unit and add up the amounts)
-            Float totalAmount = 0F;
-            for (IngredientContainer container : removedContainers) {
-                totalAmount += container.getContent().getQuantity().convertToBase();
-            }
-            AlchemicIngredient reference = removedContainers.getFirst().getContent();
-            AlchemicIngredient newIngredient = new AlchemicIngredient(reference.getFullName(), reference.getTemperature(), reference.getState(), totalAmount);
-            return new IngredientContainer(newIngredient, newIngredient.getQuantity().getSmallestContainer());
-        } else{
+        if (amount <= 0) {
             throw new IllegalArgumentException("amount must be greater than 0");
         }
+        long requested = FixedQuantity.toTicks(amount, containerUnit);
+        IngredientContainer oldest = inventory.peekFirst(ingredientName);
+        if (oldest == null || inventory.getTicks(ingredientName) < requested) {
+            throw new IllegalArgumentException("Ingredient not found in laboratory");
+        }
+        Unit resultUnit = Quantity.getSmallestContainer(requested, oldest.getContent().getQuantity().isPowderUnit());
+        if (requested > FixedQuantity.ticksPer(resultUnit)) {
+            throw new IllegalArgumentException("amount does not fit in a single container");
+        }
+        AlchemicIngredient removed = withdraw(ingredientName, requested);
+        if (removed == null) {
+            throw new IllegalArgumentException("Ingredient not found in laboratory");
+        }
+        return new IngredientContainer(removed, resultUnit);
+    }
+
+    /**
+     * Takes an amount of an ingredient out of the laboratory without putting it in a container.
+     * The oldest containers of the ingredient are taken first. If only part of a container is needed,
+     * the rest stays in the laboratory in the smallest container that fits it.
+     *
+     * @param ingredientName The basic name of the ingredient.
+     * @param requested The amount to take, in ticks.
+     *                  | requested > 0
+     * @return The ingredient that was taken, expressed in its base unit, null if the laboratory holds less than the requested amount.
+     */
+    AlchemicIngredient withdraw(String ingredientName, long requested) {
+        LaboratoryJournal journal = this.journal;
+        if (journal == null) {
+            return inventory.withdraw(ingredientName, requested);
+        }
+        return journal.withdraw(ingredientName, requested, () -> inventory.withdraw(ingredientName, requested));
+    }
+
+    /**
+     * Checks if the laboratory holds at least a specified amount of an ingredient.
+     *
+     * @param ingredientName The basic name of the ingredient.
+     * @param unit The unit of the amount.
+     * @param amount The amount of the ingredient.
+     * @return true if the containers of the ingredient hold at least the specified amount together, false otherwise
+     */
+    public boolean hasIngredient(String ingredientName, Unit unit, float amount) {
+        return inventory.getTicks(ingredientName) >= FixedQuantity.toTicks(amount, unit);
+    }
+
+    /**
+     * Retrieves the total amount of an ingredient in the laboratory.
+     *
+     * @param ingredientName The basic name of the ingredient.
+     * @param unit The unit to express the amount in.
+     * @return The amount of the ingredient over all containers, 0 if the laboratory holds none of it.
+     */
+    public float getAmount(String ingredientName, Unit unit) {
+        return (float) FixedQuantity.toAmount(getTicks(ingredientName), unit);
+    }
+
+    /**
+     * Retrieves the total amount of an ingredient in the laboratory in ticks.
+     *
+     * @param ingredientName The basic name of the ingredient.
+     * @return The amount of the ingredient over all containers in ticks, 0 if the laboratory holds none of it.
+     */
+    long getTicks(String ingredientName) {
+        return inventory.getTicks(ingredientName);
     }
 
     /**
@@ -364,8 +616,8 @@ public class Laboratory {
      * @return The list of containers.
      */
     @Basic
-    public ArrayList<IngredientContainer> getLabContainers() {
-        return containers;
+    public List<IngredientContainer> getLabContainers() {
+        return inventory.getContainers();
     }
 
     /**
@@ -374,9 +626,16 @@ public class Laboratory {
      * @param amount The number of storerooms to be added to the laboratory.
      * @throws IllegalArgumentException if the specified number of storerooms is negative.
      */
-    public void addStorerooms(int amount) {
+    public synchronized void addStorerooms(int amount) {
         if (amount >= 0) {
+            LaboratoryJournal journal = this.journal;
+            if (journal != null) {
+                journal.checkWritable();
+            }
             this.storeroom += amount;
+            if (journal != null) {
+                journal.storerooms(storeroom);
+            }
         } else{
             throw new IllegalArgumentException("Cannot add negative Storerooms");
         }
@@ -392,9 +651,19 @@ public class Laboratory {
      * @param amount the number of storerooms to be removed
      * @throws IllegalArgumentException if the specified number of storerooms cannot be removed
      */
-    public void removeStorerooms(int amount) {
-        if (canRemoveStoreRoom(amount)){
+    public synchronized void removeStorerooms(int amount) {
+        long removedTicks = amount * FixedQuantity.ticksPer(FluidUnit.STOREROOM);
+        LaboratoryJournal journal = this.journal;
+        if (journal != null) {
+            journal.checkWritable();
+        }
+        // the space of the removed storerooms is claimed first, so no container can take it while the storerooms are removed
+        if (amount > 0 && amount <= storeroom && inventory.reserve(removedTicks, getCapacityTicks())){
             this.storeroom -= amount;
+            inventory.release(removedTicks);
+            if (journal != null) {
+                journal.storerooms(storeroom);
+            }
         }else{
             throw new IllegalArgumentException("Cannot remove storeroom");
         }
@@ -408,7 +677,7 @@ public class Laboratory {
      * @return true if the specified number of storerooms can be removed, false otherwise
      */
     public Boolean canRemoveStoreRoom(int storeroom){
-        return storeroom <= this.storeroom && storeroom > 0 && this.getFreeSpace() >= storeroom;
+        return storeroom <= this.storeroom && storeroom > 0 && getFreeTicks() >= storeroom * FixedQuantity.ticksPer(FluidUnit.STOREROOM);
     }
 
     /**
@@ -419,7 +688,27 @@ public class Laboratory {
      */
     @Basic
     public Boolean isEmpty(){
-        return containers.isEmpty();
+        return inventory.isEmpty();
+    }
+
+    /**
+     * Checks if the laboratory can be used by several threads at once.
+     *
+     * @return true if the laboratory is concurrent
+     */
+    @Basic
+    public boolean isConcurrent() {
+        return concurrent;
+    }
+
+    /**
+     * Returns the inventory the containers of the laboratory are stored in.
+     *
+     * @return the inventory of the laboratory
+     */
+    @Basic
+    Inventory getInventory() {
+        return inventory;
     }
 
     /**
@@ -435,38 +724,126 @@ public class Laboratory {
 
     /**
      * Retrieves the list of devices.
-     * This method returns the list of devices currently stored. The returned list is an ArrayList of Device objects.
+     * This method returns the devices currently in the laboratory, grouped by kind.
+     *
+     * @return a snapshot of the devices currently in the laboratory
+     */
+    public List<Device> getDevices() {
+        return devices.getAll();
+    }
+
+    /**
+     * Retrieves the maximum number of devices of each kind.
      *
-     * @return an ArrayList of Device objects representing the devices currently stored
+     * @return the maximum number of devices of each kind in the laboratory
      */
     @Basic
-    public ArrayList<Device> getDevices() {
-        return devices;
+    public int getDevicesPerKind() {
+        return devices.getDevicesPerKind();
+    }
+
+    /**
+     * Retrieves the kettle of the laboratory.
+     *
+     * @return the first kettle added to the laboratory, null if there is none
+     */
+    public Kettle getKettle() {
+        return (Kettle) devices.first(DeviceRegistry.Kind.KETTLE);
+    }
+
+    /**
+     * Retrieves the oven of the laboratory.
+     *
+     * @return the first oven added to the laboratory, null if there is none
+     */
+    public Oven getOven() {
+        return (Oven) devices.first(DeviceRegistry.Kind.OVEN);
+    }
+
+    /**
+     * Retrieves the coolingbox of the laboratory.
+     *
+     * @return the first coolingbox added to the laboratory, null if there is none
+     */
+    public CoolingBox getCoolingBox() {
+        return (CoolingBox) devices.first(DeviceRegistry.Kind.COOLING_BOX);
+    }
+
+    /**
+     * Retrieves the transmogrifier of the laboratory.
+     *
+     * @return the first transmogrifier added to the laboratory, null if there is none
+     */
+    public Transmogrifier getTransmogrifier() {
+        return (Transmogrifier) devices.first(DeviceRegistry.Kind.TRANSMOGRIFIER);
+    }
+
+    /**
+     * Retrieves all devices of the same kind as a given class.
+     *
+     * @param kind a kettle, oven, coolingbox or transmogrifier class
+     * @return a read-only view of the devices of that kind, in the order they were added
+     */
+    public List<Device> getDevices(Class<? extends Device> kind) {
+        return devices.get(DeviceRegistry.Kind.of(kind));
     }
 
     /**
      * Adds a device to the laboratory.
      * This method attempts to add a device to the laboratory. If the addition is possible
-     * (i.e., the laboratory has enough space for the device), it adds the device to the laboratory's list of devices
+     * (i.e., the laboratory has room for another device of its kind), it adds the device to the slot of its kind
      * and sets the laboratory for the device. Otherwise, it throws a LaboratoryFullException.
+     * The ingredients in the device are moved to the storeroom, all ingredients of a batch oven or coolingbox as one batch.
      *
-     * @pre Device of same kind must not already be in Laboratory
+     * @pre The laboratory must have room for another device of the same kind
      * @param device the device to be added
      * @throws LaboratoryFullException if the laboratory does not have enough space for the device
      */
     public void addDevice(Device device) throws LaboratoryFullException {
-        if(canAddDevice(device)) {
-            devices.add(device);
-            device.setLaboratory(this);
-            IngredientContainer container = device.getContents();
-            if (!(container == null)) {
-                this.addContainer(container);
-                container.destroy();
-                container.setContent(null);
+        LaboratoryJournal journal = this.journal;
+        long record = 0;
+        boolean added;
+        if (journal != null) {
+            journal.lockAll();
+        }
+        try {
+            if (journal != null) {
+                journal.checkWritable();
             }
-        } else {
+            synchronized (devices) {
+                added = canAddDevice(device);
+                if (added) {
+                    devices.add(device);
+                    if (journal != null) {
+                        record = journal.addDevice(device);
+                    }
+                }
+            }
+            if(added) {
+                device.setLaboratory(this);
+                List<IngredientContainer> containers;
+                if (device instanceof BatchDevice batch) {
+                    containers = batch.getBatchContents();
+                } else {
+                    IngredientContainer container = device.getContents();
+                    containers = container == null ? List.of() : List.of(container);
+                }
+                if (!containers.isEmpty()) {
+                    // the containers of the device are stored as they are, they keep their content
+                    this.addContainers(containers);
+                }
+            }
+        } finally {
+            if (journal != null) {
+                journal.unlockAll();
+            }
+        }
+        if (!added) {
             throw new LaboratoryFullException("Laboratory already has " + device.getClass().getSimpleName());
         }
+        if (journal != null) {
+            journal.commitIfDue(record);
+        }
     }
 
     /**
@@ -476,240 +853,68 @@ public class Laboratory {
      * @param device The Device to be removed.
      */
     public void removeDevice(Device device) {
-        devices.remove(device);
+        LaboratoryJournal journal = this.journal;
+        long record = 0;
+        if (journal != null) {
+            journal.lockAll();
+        }
+        try {
+            if (journal != null) {
+                journal.checkWritable();
+            }
+            synchronized (devices) {
+                int index = journal == null ? -1 : devices.getAll().indexOf(device);
+                if (devices.remove(device) && journal != null) {
+                    record = journal.removeDevice(index);
+                }
+            }
+        } finally {
+            if (journal != null) {
+                journal.unlockAll();
+            }
+        }
         device.setLaboratory(null);
+        if (record != 0) {
+            journal.commitIfDue(record);
+        }
     }
 
     /**
      * Checks if a device can be added to the laboratory.
-     * This method checks if it's possible to add a specified device to the laboratory. It returns true if the laboratory does not already contain a device of the same class as the specified device, or if the laboratory's list of devices is null. Otherwise, it returns false.
+     * It returns true if the device is not in the laboratory yet and the laboratory holds fewer devices of its kind than allowed.
      *
      * @param checkedDevice the device to be checked
      * @return true if the specified device can be added, false otherwise
      */
     public Boolean canAddDevice(Device checkedDevice) {
-        boolean valid = true;
-        if(devices == null){return true;}
-        for(Device device: devices){
-            if (device.getClass() == checkedDevice.getClass()) {
-                valid = false;
-                break;
-            }
-        }
-        return valid;
-    }
-
-    /**
-     * Adjusts the temperature of the given ingredient to its standard temperature.
-     * If the ingredient's temperature is colder than its standard temperature, it is heated in an oven.
-     * If the ingredient's temperature is hotter than its standard temperature, it is cooled in a cooling box.
-     *
-     * @param ingredient The ingredient whose temperature is to be adjusted.
-     * @return The ingredient after its temperature has been adjusted.
-     * @throws Device.DeviceFullException If the device (oven or cooling box) is full and cannot accommodate the ingredient.
-     * @throws LaboratoryMissingDeviceException If the required device (oven or cooling box) is missing in the laboratory.
-     */
-    private AlchemicIngredient bringBackToStandardTemperature(AlchemicIngredient ingredient) throws Device.DeviceFullException, LaboratoryMissingDeviceException {
-        Temperature targetTemp = ingredient.getStandardType().getStandardTemperature();
-        if(ingredient.getTemperature().isColderThan(targetTemp)){
-            for(Device device: devices){
-                if(device.getClass() == Oven.class){
-                    if(ingredient.getState().isSolid()) {
-                        ((Oven) device).addIngredient(new IngredientContainer(ingredient, ingredient.getQuantity().getSmallestPowderContainer()));
-                    }
-                    else{
-                        ((Oven) device).addIngredient(new IngredientContainer(ingredient, ingredient.getQuantity().getSmallestPowderContainer()));
-                    }
-                    try {
-                        device.react();
-                        return(device.getContents().getContent());
-                    } catch (Device.NotInLaboratoryException e) {
-                        throw new RuntimeException(e);
-                    }
-                }
-            }
-        }
-        else{
-            for(Device device: devices){
-                if(device.getClass() == CoolingBox.class){
-                    if(ingredient.getQuantity().isPowderUnit()) {
-                        ((CoolingBox) device).addIngredient(new IngredientContainer(ingredient, ingredient.getQuantity().getSmallestPowderContainer()));
-                    }
-                    else{
-                        ((CoolingBox) device).addIngredient(new IngredientContainer(ingredient, ingredient.getQuantity().getSmallestFluidContainer()));
-                    }
-                    try {
-                        device.react();
-                        return(device.getContents().getContent());
-                    } catch (Device.NotInLaboratoryException e) {
-                        throw new RuntimeException(e);
-                    }
-                }
-            }
-        }
-        throw new LaboratoryMissingDeviceException("Missing oven or coolingbox");
+        return devices.canAdd(checkedDevice);
     }
 
     /**
      * function made to execute a recipe
+     * The devices, ingredients and space the recipe needs are checked and reserved before any device is used.
      * @param recipe the recipe that will be followed
      * @throws LaboratoryMissingDeviceException when Laboratory does not have specified Device
+     * @throws Device.DeviceFullException when a device of the recipe holds an ingredient that was not put in by the recipe
+     * @throws IllegalArgumentException when the Laboratory does not hold enough of the ingredients of the recipe or has no space for its result
+     * @effect the recipe is compiled and executed once
+     *  |compileRecipe(recipe).execute()
      */
-    public void executeRecipe(Recipe recipe) throws LaboratoryMissingDeviceException, IngredientName.IllegalNameException {
-        boolean stopRecipe = false;
-        ArrayList<AlchemicIngredient> usedIngredients = new ArrayList<>();
-        ActionType[] actions = recipe.getActions();
-        AlchemicIngredient[] ingredients = recipe.getIngredients();
-        AlchemicIngredient currentIngredient;
-        int ingredientIndex = 0;
-        for(ActionType action: actions){
-            switch (action){
-                case MIX:
-                Kettle kettle = null;
-                for(Device device: devices){
-                    if(device.getClass() == Kettle.class){
-                        kettle = (Kettle) device;
-                    }
-                }
-                if(kettle == null){
-                    stopRecipe = true;
-                    break;
-                }
-                for(AlchemicIngredient ingredient: usedIngredients){
-                    if(ingredient.getState().isSolid()){
-                        kettle.addIngredient(new IngredientContainer(ingredient,ingredient.getQuantity().getSmallestPowderContainer()));
-                    }
-                    else{
-                        kettle.addIngredient(new IngredientContainer(ingredient,ingredient.getQuantity().getSmallestFluidContainer()));
-                    }
-                }
-                try {
-                    kettle.react();
-                } catch (Device.NotInLaboratoryException e) {
-                    throw new RuntimeException(e);
-                }
-                usedIngredients.clear();
-                usedIngredients.add(kettle.getContents().getContent());
-                break;
-                case ADD:
-                    currentIngredient = ingredients[ingredientIndex];
-                    for (IngredientContainer container : containers){
-                        if (container.getContent() == currentIngredient){
-                            if (container.getContent().getQuantity().isPowderUnit()) {
-                                containers.add(new IngredientContainer(new AlchemicIngredient(currentIngredient.getFullName(), currentIngredient.getTemperature(), currentIngredient.getState(), currentIngredient.getQuantity().convertToPowderUnit((PowderUnit) container.getContent().getQuantity().getUnit())),container.getContainerUnit()));
-                                try {
-                                    usedIngredients.add(new AlchemicIngredient(currentIngredient.getFullName(), currentIngredient.getTemperature(), currentIngredient.getState(), currentIngredient.getQuantity().convertToPowderUnit(PowderUnit.SPOON)));
-                                } catch (IngredientName.IllegalNameException e) {
-                                    throw new RuntimeException(e);
-                                }
-                            } else if (container.getContent().getQuantity().isFluidUnit()) {
-                                containers.add(new IngredientContainer(new AlchemicIngredient(currentIngredient.getFullName(), currentIngredient.getTemperature(), currentIngredient.getState(), currentIngredient.getQuantity().convertToFluidUnit((FluidUnit) container.getContent().getQuantity().getUnit())),container.getContainerUnit()));
-                                try {
-                                    usedIngredients.add(new AlchemicIngredient(currentIngredient.getFullName(), currentIngredient.getTemperature(), currentIngredient.getState(), currentIngredient.getQuantity().convertToFluidUnit(FluidUnit.SPOON)));
-                                } catch (IngredientName.IllegalNameException e) {
-                                    throw new RuntimeException(e);
-                                }
-                            }
-                        }
-                    }
-                    ingredientIndex++;
-                    break;
-                case COOL:
-                    currentIngredient = usedIngredients.getLast();
-                    CoolingBox coolingBox = null;
-                    for(Device device: devices){
-                        if(device.getClass() == CoolingBox.class){
-                            coolingBox = (CoolingBox) device;
-                        }
-                    }
-                    if(coolingBox == null){
-                        stopRecipe = true;
-                        break;
-                    }
-                    if(currentIngredient.getState().isSolid()){
-                        try {
-                            coolingBox.addIngredient(new IngredientContainer(currentIngredient,currentIngredient.getQuantity().getSmallestPowderContainer()));
-                        } catch (Device.DeviceFullException e) {
-                            throw new RuntimeException(e);
-                        }
-                    }
-                    else{
-                        try {
-                            coolingBox.addIngredient(new IngredientContainer(currentIngredient,currentIngredient.getQuantity().getSmallestFluidContainer()));
-                        } catch (Device.DeviceFullException e) {
-                            throw new RuntimeException(e);
-                        }
-                    }
-                    coolingBox.setTemperature(currentIngredient.getTemperature());
-                    coolingBox.lowerOwnTemp();
-                    try {
-                        coolingBox.react();
-                    } catch (Device.NotInLaboratoryException e) {
-                        throw new RuntimeException(e);
-                    }
-                    usedIngredients.remove(usedIngredients.getLast());
-                    usedIngredients.add(coolingBox.getContents().getContent());
-                    break;
-                case HEAT:
-                    AlchemicIngredient ingredient = usedIngredients.getLast();
-                    Oven oven = null;
-                    for(Device device: devices){
-                        if(device.getClass() == Oven.class){
-                            oven = (Oven) device;
-                        }
-                    }
-                    if(oven == null){
-                        stopRecipe = true;
-                        break;
-                    }
-                    if(ingredient.getState().isSolid()){
-                        try {
-                            oven.addIngredient(new IngredientContainer(ingredient,ingredient.getQuantity().getSmallestPowderContainer()));
-                        } catch (Device.DeviceFullException e) {
-                            throw new RuntimeException(e);
-                        }
-                    }
-                    else{
-                        try {
-                            oven.addIngredient(new IngredientContainer(ingredient,ingredient.getQuantity().getSmallestFluidContainer()));
-                        } catch (Device.DeviceFullException e) {
-                            throw new RuntimeException(e);
-                        }
-                    }
-                    oven.setTemperature(ingredient.getTemperature());
-                    oven.heatOwnTemperature();
-                    try {
-                        oven.react();
-                    } catch (Device.NotInLaboratoryException e) {
-                        throw new RuntimeException(e);
-                    }
-                    usedIngredients.remove(usedIngredients.getLast());
-                    usedIngredients.add(oven.getContents().getContent());
-
-
-            }
-            if(stopRecipe){
-                for(AlchemicIngredient ingredient: usedIngredients){
-                    IngredientContainer labContainer = null;
-                    try {
-                       ingredient = bringBackToStandardTemperature(ingredient);
-                    } catch (Device.DeviceFullException e) {
-                        throw new RuntimeException(e);
-                    }
-                    if(!ingredient.getState().isSolid()) {
-                        Unit Unit = ingredient.getQuantity().getSmallestFluidContainer();
-                        labContainer = new IngredientContainer(ingredient, Unit);
-                    } else if (ingredient.getState().isSolid()) {
-                        Unit Unit = ingredient.getQuantity().getSmallestPowderContainer();
-                        labContainer = new IngredientContainer(ingredient, Unit);
-                    }
-                    this.addContainer(labContainer);
-                }
-                break;
-            }
-
-        }
+    public void executeRecipe(Recipe recipe) throws LaboratoryMissingDeviceException, Device.DeviceFullException, IngredientName.IllegalNameException {
+        compileRecipe(recipe).execute();
+    }
 
+    /**
+     * Turns a recipe into a plan that can be executed in this laboratory as often as needed.
+     * The devices the recipe needs are looked up once, when the plan is made.
+     *
+     * @param recipe the recipe to compile
+     * @return a plan executing the recipe in this laboratory
+     * @throws LaboratoryMissingDeviceException when Laboratory does not have a device the recipe needs
+     * @throws IllegalArgumentException when the recipe heats or cools before any ingredient is added, or does not have an ingredient for every add
+     */
+    public RecipePlan compileRecipe(Recipe recipe) throws LaboratoryMissingDeviceException {
+        return new RecipePlan(this, recipe);
     }
 
 
@@ -0,0 +1,900 @@
+package com.alchemy;
+
+import com.alchemy.IngredientConditions.Device;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+import java.util.zip.CRC32C;
+
+/**
+ * An append-only journal of the changes to a laboratory, next to a snapshot of the laboratory.
+ * Every change is recorded as a compact binary record when it took effect: the containers that were stored, with the temperature they were stored at,
+ * the amounts that were withdrawn, the number of storerooms and the devices that were added or removed.
+ * A recipe is recorded through the ingredients it withdrew and the result it stored.
+ * Recovering a laboratory loads the snapshot and replays the journal on top of it, a checkpoint writes a new snapshot and starts an empty journal,
+ * so recovery only replays the changes since the last checkpoint.
+ *
+ * Records are written to a buffer and committed in groups: a group is written and forced to disk when syncBatch records are waiting,
+ * by the thread that appends the record that completes it, or when syncIntervalMillis have passed since the last commit,
+ * by the thread that appends the next record or by a daemon thread of the journal if no record is appended in time.
+ * The other threads keep appending to a second buffer in the meantime, so no change waits for a commit it didn't trigger.
+ * Records that were not committed are lost in a crash, sync commits them right away.
+ * A commit that fails leaves its records in the buffer and the number of committed records as it was, and the journal fails:
+ * sync and checkpoint throw, and the laboratory refuses every change it would have to record, until the journal is closed.
+ * Every record carries its length and a checksum, a record that was only partly written when the process stopped is dropped on recovery.
+ *
+ * The changes to the same ingredient are recorded in the order they took effect, so replaying the journal withdraws from the same containers.
+ * nominally programmed
+ *
+ * @author MiroVanHoef
+ * @author BenDeMets
+ * @author SimonVandeputte
+ * @version 1.0
+ */
+public final class LaboratoryJournal implements Closeable {
+
+    /**********************************************************
+     * Constants
+     **********************************************************/
+
+    /**
+     * The first bytes of every journal, "ALCJ".
+     */
+    private static final int MAGIC = 0x414C434A;
+
+    /**
+     * The version of the format.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * The size of the header: the magic, the version and the checksum of the snapshot the journal applies to.
+     */
+    private static final int HEADER_BYTES = 4 + 4 + 8;
+
+    /**
+     * The size of the frame of every record: its length and its checksum.
+     */
+    private static final int FRAME_BYTES = 4 + 4;
+
+    /**
+     * The names of the files of a journaled laboratory in its directory.
+     */
+    private static final String SNAPSHOT_FILE = "laboratory.snapshot", JOURNAL_FILE = "laboratory.journal";
+
+    /**
+     * The kinds of records.
+     */
+    private static final byte TYPE = 0, NAME = 1, ADD = 2, WITHDRAW = 3, STOREROOMS = 4, ADD_DEVICE = 5, REMOVE_DEVICE = 6;
+
+    /**
+     * The number of locks the ingredients are spread over.
+     */
+    private static final int STRIPES = 16;
+
+    /**
+     * The initial size of the buffers.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+
+    /**********************************************************
+     * Variables
+     **********************************************************/
+
+    /**
+     * The journaled laboratory.
+     */
+    private final Laboratory laboratory;
+
+    /**
+     * The files of the snapshot and the journal.
+     */
+    private final Path snapshotFile, journalFile;
+
+    /**
+     * The number of records that are committed together, at most.
+     */
+    private final int syncBatch;
+
+    /**
+     * The time between commits, at most, in nanoseconds.
+     */
+    private final long syncInterval;
+
+    /**
+     * The locks that keep the records of an ingredient in the order of the changes, by stripe of the name of the ingredient.
+     * Changes to the storerooms and devices and checkpoints hold all of them.
+     */
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+
+    /**
+     * The lock of the buffer records are appended to and of the dictionaries.
+     */
+    private final Object appendLock = new Object();
+
+    /**
+     * The lock of the channel, held while a group is committed.
+     */
+    private final Object commitLock = new Object();
+
+    /**
+     * The channel of the journal file.
+     */
+    private FileChannel channel;
+
+    /**
+     * The buffer records are appended to.
+     */
+    private ByteBuffer active = ByteBuffer.allocate(BUFFER_SIZE);
+
+    /**
+     * The buffer that is free while no group is being committed.
+     */
+    private ByteBuffer spare = ByteBuffer.allocate(BUFFER_SIZE);
+
+    /**
+     * The number of records appended since the journal was opened, and the number that is committed.
+     */
+    private long appended;
+    private volatile long committed;
+
+    /**
+     * The number of records waiting in the active buffer.
+     */
+    private int pending;
+
+    /**
+     * The time of the last commit, in nanoseconds.
+     */
+    private long lastCommit = System.nanoTime();
+
+    /**
+     * The exception of the commit that failed, null if no commit failed.
+     */
+    private volatile IOException failure;
+
+    /**
+     * The thread that commits the records that waited syncIntervalMillis, null if no records wait for an interval.
+     */
+    private ScheduledExecutorService flusher;
+
+    /**
+     * The indices of the types and names that are defined in the journal file.
+     */
+    private final IdentityHashMap<IngredientType, Integer> types = new IdentityHashMap<>();
+    private final HashMap<String, Integer> names = new HashMap<>();
+
+
+    /**********************************************************
+     * Constructors
+     **********************************************************/
+
+    /**
+     * Creates a journal of a laboratory in a directory, with the given commit policy.
+     */
+    private LaboratoryJournal(Laboratory laboratory, Path directory, int syncBatch, long syncIntervalMillis) {
+        if (syncBatch < 1 || syncIntervalMillis < 0) {
+            throw new IllegalArgumentException("records must be committed at least every record, at an interval of at least 0 milliseconds");
+        }
+        this.laboratory = laboratory;
+        this.snapshotFile = directory.resolve(SNAPSHOT_FILE);
+        this.journalFile = directory.resolve(JOURNAL_FILE);
+        this.syncBatch = syncBatch;
+        this.syncInterval = syncIntervalMillis * 1_000_000L;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Starts journaling a laboratory in a directory: the laboratory is saved as the snapshot, and its changes are journaled from now on.
+     * Anything that was journaled in the directory before is replaced.
+     *
+     * @param laboratory the laboratory to journal, which is not journaled yet
+     * @param directory the directory of the snapshot and the journal
+     * @param syncBatch the number of records that are committed together, at most. 1 commits every record when it is appended
+     * @param syncIntervalMillis the time a record waits for its group, at most, in milliseconds. 0 commits every record when it is appended
+     * @return the journal of the laboratory
+     * @throws IOException if the snapshot or the journal can't be written
+     * @throws IllegalArgumentException if the laboratory is already journaled, if syncBatch is less than 1 or syncIntervalMillis is negative
+     */
+    public static LaboratoryJournal create(Laboratory laboratory, Path directory, int syncBatch, long syncIntervalMillis) throws IOException {
+        if (laboratory.getJournal() != null) {
+            throw new IllegalArgumentException("laboratory is already journaled");
+        }
+        LaboratoryJournal journal = new LaboratoryJournal(laboratory, directory, syncBatch, syncIntervalMillis);
+        journal.lockAll();
+        try {
+            journal.startJournal();
+            laboratory.setJournal(journal);
+        } finally {
+            journal.unlockAll();
+        }
+        journal.startFlusher();
+        return journal;
+    }
+
+    /**
+     * Recovers a journaled laboratory from a directory: the snapshot is loaded and the journal is replayed on top of it.
+     * A record at the end of the journal that was not completely written is dropped, the changes of the laboratory are journaled after the last complete record.
+     *
+     * @param directory the directory of the snapshot and the journal
+     * @param syncBatch the number of records that are committed together, at most. 1 commits every record when it is appended
+     * @param syncIntervalMillis the time a record waits for its group, at most, in milliseconds. 0 commits every record when it is appended
+     * @return the journal of the recovered laboratory
+     * @throws IOException if the snapshot or the journal can't be read, or holds a change that can't be replayed
+     * @throws IllegalArgumentException if syncBatch is less than 1 or syncIntervalMillis is negative
+     */
+    public static LaboratoryJournal recover(Path directory, int syncBatch, long syncIntervalMillis) throws IOException {
+        Path snapshotFile = directory.resolve(SNAPSHOT_FILE);
+        Laboratory laboratory = LaboratorySnapshot.load(snapshotFile);
+        LaboratoryJournal journal = new LaboratoryJournal(laboratory, directory, syncBatch, syncIntervalMillis);
+        if (Files.exists(journal.journalFile) && journal.replay(checksum(snapshotFile))) {
+            journal.channel = FileChannel.open(journal.journalFile, StandardOpenOption.WRITE);
+            journal.channel.position(journal.channel.size());
+        } else {
+            // the journal was replaced by a checkpoint that stopped before the new journal was written: its changes are in the snapshot
+            journal.types.clear();
+            journal.names.clear();
+            journal.startJournal();
+        }
+        laboratory.setJournal(journal);
+        journal.startFlusher();
+        return journal;
+    }
+
+
+    /**********************************************************
+     * Getters
+     **********************************************************/
+
+    /**
+     * @return the journaled laboratory
+     */
+    public Laboratory getLaboratory() {
+        return laboratory;
+    }
+
+    /**
+     * @return the number of records appended since the journal was opened or checkpointed
+     */
+    public long getAppendedRecords() {
+        synchronized (appendLock) {
+            return appended;
+        }
+    }
+
+    /**
+     * @return the number of records that are committed to disk since the journal was opened or checkpointed
+     */
+    public long getCommittedRecords() {
+        return committed;
+    }
+
+
+    /**********************************************************
+     * Commits and checkpoints
+     **********************************************************/
+
+    /**
+     * Commits every record that was appended so far.
+     *
+     * @throws IOException if the records can't be written, or an earlier commit failed
+     */
+    public void sync() throws IOException {
+        long target;
+        synchronized (appendLock) {
+            target = appended;
+        }
+        commit(target);
+    }
+
+    /**
+     * Saves the laboratory as the snapshot and starts an empty journal.
+     * The laboratory can't change while the snapshot is written.
+     *
+     * @throws IOException if the snapshot or the journal can't be written, or an earlier commit failed
+     */
+    public void checkpoint() throws IOException {
+        lockAll();
+        try {
+            sync();
+            synchronized (commitLock) {
+                synchronized (appendLock) {
+                    channel.close();
+                    types.clear();
+                    names.clear();
+                    appended = 0;
+                    committed = 0;
+                    startJournal();
+                }
+            }
+        } finally {
+            unlockAll();
+        }
+    }
+
+    /**
+     * Commits every record and stops journaling the laboratory.
+     * The laboratory is no longer journaled afterwards, also when the records can't be committed.
+     *
+     * @throws IOException if the records can't be written, or an earlier commit failed
+     */
+    @Override
+    public void close() throws IOException {
+        lockAll();
+        try {
+            if (flusher != null) {
+                flusher.shutdown();
+            }
+            sync();
+        } finally {
+            laboratory.setJournal(null);
+            synchronized (commitLock) {
+                channel.close();
+            }
+            unlockAll();
+        }
+    }
+
+    /**
+     * Saves the laboratory as the snapshot and writes a journal with only a header, which applies to the snapshot.
+     * The journal is written next to its file and moved over it, so a checkpoint that stops halfway leaves the old journal,
+     * which recover recognises by the checksum of the snapshot in its header.
+     */
+    private void startJournal() throws IOException {
+        LaboratorySnapshot.save(laboratory, snapshotFile);
+        Path temporary = journalFile.resolveSibling(journalFile.getFileName() + ".tmp");
+        try (FileChannel header = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(VERSION).putLong(checksum(snapshotFile)).flip();
+            while (buffer.hasRemaining()) {
+                header.write(buffer);
+            }
+            header.force(false);
+        }
+        Files.move(temporary, journalFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(journalFile, StandardOpenOption.WRITE);
+        channel.position(HEADER_BYTES);
+    }
+
+    /**
+     * Writes the records in the active buffer to the journal file and forces them to disk, if the record with the given number is not committed yet.
+     * Records can be appended to the other buffer while the group is written.
+     * If the group can't be written, it is put back in front of the records appended in the meantime and the journal fails.
+     */
+    private void commit(long target) throws IOException {
+        synchronized (commitLock) {
+            checkNotFailed();
+            if (committed >= target) {
+                return;
+            }
+            ByteBuffer group;
+            long last;
+            synchronized (appendLock) {
+                group = active;
+                active = spare;
+                spare = null;
+                last = appended;
+                pending = 0;
+                lastCommit = System.nanoTime();
+            }
+            group.flip();
+            try {
+                while (group.hasRemaining()) {
+                    channel.write(group);
+                }
+                channel.force(false);
+            } catch (IOException e) {
+                synchronized (appendLock) {
+                    restore(group, last);
+                    failure = e;
+                }
+                throw e;
+            }
+            group.clear();
+            synchronized (appendLock) {
+                spare = group;
+            }
+            committed = last;
+        }
+    }
+
+    /**
+     * Puts a group that could not be committed back in front of the records that were appended since,
+     * so the active buffer holds every record that is not committed and the spare buffer is free again.
+     * The caller holds the commit lock and the append lock.
+     *
+     * @param group the buffer of the group, flipped
+     * @param last the number of the last record of the group
+     */
+    private void restore(ByteBuffer group, long last) {
+        ByteBuffer since = active.flip();
+        group.rewind();
+        ByteBuffer restored = ByteBuffer.allocate(Math.max(BUFFER_SIZE, group.remaining() + since.remaining()));
+        restored.put(group).put(since);
+        active = restored;
+        spare = since.clear();
+        pending += (int) (last - committed);
+    }
+
+    /**
+     * Commits the records if the group of the record with the given number is complete.
+     *
+     * @throws UncheckedIOException if the records can't be written, or an earlier commit failed
+     */
+    private void commitIfDue(long record, boolean due) {
+        if (due) {
+            try {
+                commit(record);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Commits the records that waited syncIntervalMillis, if no record was appended to commit them.
+     * A commit that fails here is reported by the next change or sync.
+     */
+    private void commitIfLate() {
+        long target;
+        synchronized (appendLock) {
+            if (pending == 0 || System.nanoTime() - lastCommit < syncInterval || failure != null) {
+                return;
+            }
+            target = appended;
+        }
+        try {
+            commit(target);
+        } catch (IOException e) {
+            // the journal failed, see commit
+        }
+    }
+
+    /**
+     * Starts the daemon thread that commits the records that waited syncIntervalMillis, if records can wait for their group.
+     */
+    private void startFlusher() {
+        if (syncBatch == 1 || syncInterval == 0) {
+            return;
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "laboratory journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::commitIfLate, syncInterval, syncInterval, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Checks that no commit of the journal failed.
+     *
+     * @throws IOException if a commit failed, with the exception of that commit as its cause
+     */
+    private void checkNotFailed() throws IOException {
+        IOException failure = this.failure;
+        if (failure != null) {
+            throw new IOException("an earlier commit of the journal failed", failure);
+        }
+    }
+
+    /**
+     * Checks that changes can still be recorded, before a change takes effect.
+     *
+     * @throws IllegalStateException if a commit of the journal failed
+     */
+    void checkWritable() {
+        IOException failure = this.failure;
+        if (failure != null) {
+            throw new IllegalStateException("an earlier commit of the journal failed, changes can't be recorded", failure);
+        }
+    }
+
+    /**
+     * Returns the CRC32C of a file.
+     * The file is read in a heap buffer instead of mapped, so it can be replaced by the next checkpoint right away.
+     */
+    private static long checksum(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            CRC32C crc = new CRC32C();
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            while (channel.read(buffer) >= 0) {
+                crc.update(buffer.flip());
+                buffer.clear();
+            }
+            return crc.getValue();
+        }
+    }
+
+
+    /**********************************************************
+     * Recording
+     **********************************************************/
+
+    /**
+     * Stores containers and records them if they were stored.
+     *
+     * @param containers the containers to store
+     * @param store stores the containers, true if they were stored
+     * @return true if the containers were stored
+     * @throws IllegalStateException if a commit of the journal failed, the containers are not stored then
+     * @throws UncheckedIOException if the record completed a group that can't be committed, the containers are stored then
+     */
+    boolean add(Collection<IngredientContainer> containers, BooleanSupplier store) {
+        int mask = 0;
+        for (IngredientContainer container : containers) {
+            mask |= 1 << stripeOf(container.getContent().getBasicName());
+        }
+        long record;
+        boolean due;
+        lock(mask);
+        try {
+            checkWritable();
+            if (!store.getAsBoolean()) {
+                return false;
+            }
+            synchronized (appendLock) {
+                int[] typeIndices = new int[containers.size()];
+                int[] specialIndices = new int[containers.size()];
+                int i = 0;
+                for (IngredientContainer container : containers) {
+                    AlchemicIngredient content = container.getContent();
+                    typeIndices[i] = typeIndex(content.getStandardType());
+                    specialIndices[i] = content.getSpecialName() == null ? -1 : nameIndex(content.getSpecialName());
+                    i++;
+                }
+                int start = begin(ADD, 4 + containers.size() * LaboratorySnapshot.CONTAINER_BYTES);
+                active.putInt(containers.size());
+                i = 0;
+                for (IngredientContainer container : containers) {
+                    LaboratorySnapshot.putContainer(active, container, typeIndices[i], specialIndices[i]);
+                    i++;
+                }
+                record = end(start);
+                due = isDue();
+            }
+        } finally {
+            unlock(mask);
+        }
+        commitIfDue(record, due);
+        return true;
+    }
+
+    /**
+     * Withdraws an amount of an ingredient and records it if it was withdrawn.
+     *
+     * @param name the basic name of the ingredient
+     * @param requested the amount to withdraw, in ticks
+     * @param withdraw withdraws the amount, null if it was not withdrawn
+     * @return the withdrawn ingredient, null if nothing was withdrawn
+     * @throws IllegalStateException if a commit of the journal failed, nothing is withdrawn then
+     * @throws UncheckedIOException if the record completed a group that can't be committed, the amount is withdrawn then
+     */
+    AlchemicIngredient withdraw(String name, long requested, Supplier<AlchemicIngredient> withdraw) {
+        int mask = 1 << stripeOf(name);
+        AlchemicIngredient withdrawn;
+        long record;
+        boolean due;
+        lock(mask);
+        try {
+            checkWritable();
+            withdrawn = withdraw.get();
+            if (withdrawn == null) {
+                return null;
+            }
+            synchronized (appendLock) {
+                int index = nameIndex(name);
+                int start = begin(WITHDRAW, 4 + 8);
+                active.putInt(index).putLong(requested);
+                record = end(start);
+                due = isDue();
+            }
+        } finally {
+            unlock(mask);
+        }
+        commitIfDue(record, due);
+        return withdrawn;
+    }
+
+    /**
+     * Records the number of storerooms of the laboratory.
+     *
+     * @param storerooms the number of storerooms
+     */
+    void storerooms(int storerooms) {
+        long record;
+        boolean due;
+        lockAll();
+        try {
+            synchronized (appendLock) {
+                int start = begin(STOREROOMS, 4);
+                active.putInt(storerooms);
+                record = end(start);
+                due = isDue();
+            }
+        } finally {
+            unlockAll();
+        }
+        commitIfDue(record, due);
+    }
+
+    /**
+     * Records a device that was added to the laboratory, as the last device of its kind.
+     * The caller holds all locks, see lockAll.
+     *
+     * @param device the device that was added
+     * @return the number of the record
+     */
+    long addDevice(Device device) {
+        synchronized (appendLock) {
+            int start = begin(ADD_DEVICE, 1 + 4 + 4);
+            active.put(LaboratorySnapshot.deviceCode(device)).putFloat(LaboratorySnapshot.deviceTemperature(device)).putInt(LaboratorySnapshot.deviceCapacity(device));
+            return end(start);
+        }
+    }
+
+    /**
+     * Records a device that was removed from the laboratory.
+     * The caller holds all locks, see lockAll.
+     *
+     * @param index the index of the device in the devices of the laboratory, before it was removed
+     * @return the number of the record
+     */
+    long removeDevice(int index) {
+        synchronized (appendLock) {
+            int start = begin(REMOVE_DEVICE, 4);
+            active.putInt(index);
+            return end(start);
+        }
+    }
+
+    /**
+     * Commits the records if the group of the record with the given number is complete, after the locks were released.
+     *
+     * @param record the number of the last record of the change
+     */
+    void commitIfDue(long record) {
+        boolean due;
+        synchronized (appendLock) {
+            due = isDue();
+        }
+        commitIfDue(record, due);
+    }
+
+    /**
+     * Takes the locks of all ingredients, so no change can be recorded by another thread until unlockAll.
+     */
+    void lockAll() {
+        for (ReentrantLock stripe : stripes) {
+            stripe.lock();
+        }
+    }
+
+    /**
+     * Releases the locks taken by lockAll.
+     */
+    void unlockAll() {
+        for (int i = STRIPES - 1; i >= 0; i--) {
+            stripes[i].unlock();
+        }
+    }
+
+    /**
+     * Takes the locks of the given stripes, in order.
+     */
+    private void lock(int mask) {
+        for (int i = 0; i < STRIPES; i++) {
+            if ((mask & (1 << i)) != 0) {
+                stripes[i].lock();
+            }
+        }
+    }
+
+    /**
+     * Releases the locks of the given stripes.
+     */
+    private void unlock(int mask) {
+        for (int i = STRIPES - 1; i >= 0; i--) {
+            if ((mask & (1 << i)) != 0) {
+                stripes[i].unlock();
+            }
+        }
+    }
+
+    /**
+     * Returns the stripe of an ingredient name.
+     */
+    private static int stripeOf(String name) {
+        int hash = name.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+
+    /**
+     * Returns the index of a type in the journal file, recording the type first if it is not in the journal file yet.
+     * The caller holds the append lock.
+     */
+    private int typeIndex(IngredientType type) {
+        Integer index = types.get(type);
+        if (index != null) {
+            return index;
+        }
+        byte[] name = type.getName().getBasicName().getBytes(StandardCharsets.UTF_8);
+        int start = begin(TYPE, 4 + name.length + 4 + 1 + 1);
+        active.putInt(name.length).put(name)
+                .putFloat(type.getStandardTemperature().getValue())
+                .put(LaboratorySnapshot.stateCode(type.getStandardState()))
+                .put((byte) (type.getName().getPartNames().size() > 1 ? 1 : 0));
+        end(start);
+        types.put(type, types.size());
+        return types.size() - 1;
+    }
+
+    /**
+     * Returns the index of a name in the journal file, recording the name first if it is not in the journal file yet.
+     * The caller holds the append lock.
+     */
+    private int nameIndex(String name) {
+        Integer index = names.get(name);
+        if (index != null) {
+            return index;
+        }
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        int start = begin(NAME, 4 + bytes.length);
+        active.putInt(bytes.length).put(bytes);
+        end(start);
+        names.put(name, names.size());
+        return names.size() - 1;
+    }
+
+    /**
+     * Starts a record of the given kind with a payload of the given size in the active buffer, growing it if needed.
+     * The caller holds the append lock.
+     *
+     * @return the position of the record
+     */
+    private int begin(byte kind, int payload) {
+        int needed = FRAME_BYTES + 1 + payload;
+        if (active.remaining() < needed) {
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(active.capacity() * 2, active.position() + needed));
+            grown.put(active.flip());
+            active = grown;
+        }
+        int start = active.position();
+        active.position(start + FRAME_BYTES);
+        active.put(kind);
+        return start;
+    }
+
+    /**
+     * Ends the record at the given position: fills in its length and checksum.
+     * The caller holds the append lock.
+     *
+     * @return the number of the record
+     */
+    private long end(int start) {
+        int length = active.position() - start - FRAME_BYTES;
+        CRC32C crc = new CRC32C();
+        crc.update(active.array(), active.arrayOffset() + start + FRAME_BYTES, length);
+        active.putInt(start, length);
+        active.putInt(start + 4, (int) crc.getValue());
+        pending++;
+        return ++appended;
+    }
+
+    /**
+     * Checks if the records in the active buffer have to be committed.
+     * The caller holds the append lock.
+     */
+    private boolean isDue() {
+        return pending >= syncBatch || System.nanoTime() - lastCommit >= syncInterval;
+    }
+
+
+    /**********************************************************
+     * Replaying
+     **********************************************************/
+
+    /**
+     * Replays the complete records of the journal file on the laboratory and drops a record at the end that was not completely written.
+     * The journal is read in a heap buffer instead of mapped, so it can be truncated while it is open, also on Windows.
+     *
+     * @param snapshot the checksum of the snapshot the laboratory was loaded from
+     * @return false if the journal applies to another snapshot, in which case nothing is replayed
+     * @throws IOException if the journal can't be read or holds a change that can't be replayed
+     */
+    private boolean replay(long snapshot) throws IOException {
+        long end;
+        try (FileChannel file = FileChannel.open(journalFile, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer in = LaboratorySnapshot.read(file);
+            if (in.remaining() < HEADER_BYTES || in.getInt() != MAGIC || in.getInt() != VERSION) {
+                throw new IOException(journalFile + " is not a laboratory journal");
+            }
+            if (in.getLong() != snapshot) {
+                return false;
+            }
+            List<IngredientType> typeList = new ArrayList<>();
+            List<String> nameList = new ArrayList<>();
+            end = in.position();
+            while (in.remaining() >= FRAME_BYTES) {
+                int length = in.getInt();
+                int checksum = in.getInt();
+                if (length < 1 || length > in.remaining()) {
+                    break;
+                }
+                ByteBuffer record = in.slice(in.position(), length);
+                CRC32C crc = new CRC32C();
+                crc.update(record.duplicate());
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+                apply(record, typeList, nameList);
+                in.position(in.position() + length);
+                end = in.position();
+            }
+            for (IngredientType type : typeList) {
+                types.put(type, types.size());
+            }
+            for (String name : nameList) {
+                names.put(name, names.size());
+            }
+            if (end < file.size()) {
+                file.truncate(end);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Applies one record to the laboratory.
+     */
+    private void apply(ByteBuffer record, List<IngredientType> typeList, List<String> nameList) throws IOException {
+        try {
+            switch (record.get()) {
+                case TYPE -> typeList.add(LaboratorySnapshot.getType(record));
+                case NAME -> nameList.add(LaboratorySnapshot.getString(record));
+                case ADD -> {
+                    int count = record.getInt();
+                    List<IngredientContainer> containers = new ArrayList<>(count);
+                    for (int i = 0; i < count; i++) {
+                        containers.add(LaboratorySnapshot.getContainer(record, typeList, nameList));
+                    }
+                    laboratory.replayContainers(containers);
+                }
+                case WITHDRAW -> {
+                    String name = nameList.get(record.getInt());
+                    if (laboratory.withdraw(name, record.getLong()) == null) {
+                        throw new IOException("journal withdraws more " + name + " than the laboratory holds");
+                    }
+                }
+                case STOREROOMS -> laboratory.replayStorerooms(record.getInt());
+                case ADD_DEVICE -> laboratory.addDevice(LaboratorySnapshot.device(record.get(), record.getFloat(), record.getInt()));
+                case REMOVE_DEVICE -> laboratory.removeDevice(laboratory.getDevices().get(record.getInt()));
+                default -> throw new IOException("unknown journal record");
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException
+                 | IngredientName.IllegalNameException | Laboratory.LaboratoryFullException e) {
+            throw new IOException(journalFile + " holds a record that can't be replayed", e);
+        }
+    }
+}
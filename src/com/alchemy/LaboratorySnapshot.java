@@ -0,0 +1,504 @@
+package com.alchemy;
+
+import com.alchemy.IngredientConditions.*;
+import com.alchemy.quantity.FixedQuantity;
+import com.alchemy.quantity.FluidUnit;
+import com.alchemy.quantity.PowderUnit;
+import com.alchemy.quantity.Quantity;
+import com.alchemy.quantity.Unit;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Saves a laboratory to a compact binary file and loads it again.
+ * A snapshot holds the storerooms, the kind of inventory, the devices and the stored containers of a laboratory:
+ * every ingredient type and special name is written once in a table, every container as a fixed size record
+ * with the index of its type, its exact quantity in ticks and its packed temperature.
+ * The file is written and read through a FileChannel in one buffer, without mapping it,
+ * so a laboratory of a million containers is saved and loaded in well under a second and the file can be replaced right after it was read.
+ * The contents of the devices are not part of a snapshot, devices are restored empty.
+ * Devices of other classes than the ones of this project are restored as the device they extend.
+ * nominally programmed
+ *
+ * @author MiroVanHoef
+ * @author BenDeMets
+ * @author SimonVandeputte
+ * @version 1.0
+ */
+public final class LaboratorySnapshot {
+
+    /**********************************************************
+     * Constants
+     **********************************************************/
+
+    /**
+     * The first bytes of every snapshot, "ALCH".
+     */
+    private static final int MAGIC = 0x414C4348;
+
+    /**
+     * The version of the format.
+     */
+    private static final int VERSION = 2;
+
+    /**
+     * The size of a container record: type, special name, ticks, quantity unit, container unit, temperature and state.
+     */
+    static final int CONTAINER_BYTES = 4 + 4 + 8 + 1 + 1 + 4 + 1;
+
+    /**
+     * The size of the write buffer.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The codes of the kinds of devices.
+     */
+    private static final byte KETTLE = 0, OVEN = 1, COOLING_BOX = 2, TRANSMOGRIFIER = 3, BATCH_OVEN = 4, BATCH_COOLING_BOX = 5;
+
+    /**
+     * The codes of the kinds of inventories. Version 1 of the format only knew the first two, in the same byte.
+     */
+    private static final byte INDEXED = 0, CONCURRENT = 1, AGGREGATED = 2, MAPPED = 3;
+
+    /**
+     * The codes of the states.
+     */
+    private static final byte LIQUID = 0, POWDER = 1;
+
+    /**
+     * The flag of the code of a powder unit, the rest of the code is the ordinal of the unit.
+     */
+    private static final int POWDER_UNIT = 0x80;
+
+    /**
+     * The states an ingredient is restored in, which the ingredient copies.
+     */
+    private static final IngredientState liquid = new IngredientState(IngredientState.State.Liquid);
+    private static final IngredientState powder = new IngredientState(IngredientState.State.Powder);
+
+
+    /**********************************************************
+     * Constructors
+     **********************************************************/
+
+    /**
+     * This class only holds static methods.
+     */
+    private LaboratorySnapshot() {}
+
+
+    /**********************************************************
+     * Saving
+     **********************************************************/
+
+    /**
+     * Saves a laboratory to a file.
+     * The snapshot is written next to the file first and moved over it when it is complete,
+     * so the file always holds a whole snapshot, the old one or the new one.
+     *
+     * @param laboratory the laboratory to save
+     * @param file the file to save the laboratory to
+     * @throws IOException if the file can't be written
+     */
+    public static void save(Laboratory laboratory, Path file) throws IOException {
+        List<IngredientContainer> containers = laboratory.getContainers();
+        IdentityHashMap<IngredientType, Integer> typeIndex = new IdentityHashMap<>();
+        List<IngredientType> types = new ArrayList<>();
+        HashMap<String, Integer> specialIndex = new HashMap<>();
+        List<String> specials = new ArrayList<>();
+        for (IngredientContainer container : containers) {
+            AlchemicIngredient content = container.getContent();
+            if (typeIndex.putIfAbsent(content.getStandardType(), types.size()) == null) {
+                types.add(content.getStandardType());
+            }
+            String special = content.getSpecialName();
+            if (special != null && specialIndex.putIfAbsent(special, specials.size()) == null) {
+                specials.add(special);
+            }
+        }
+
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            Output out = new Output(channel);
+            Inventory inventory = laboratory.getInventory();
+            out.ensure(17);
+            out.buffer.putInt(MAGIC).putInt(VERSION).putInt(laboratory.getStoreroom()).putInt(laboratory.getDevicesPerKind())
+                    .put(inventoryCode(inventory));
+            if (inventory instanceof MappedInventory mapped) {
+                out.putString(mapped.getDirectory().toAbsolutePath().toString());
+            }
+
+            out.ensure(4);
+            out.buffer.putInt(types.size());
+            for (IngredientType type : types) {
+                out.putString(type.getName().getBasicName());
+                out.ensure(6);
+                out.buffer.putFloat(type.getStandardTemperature().getValue()).put(stateCode(type.getStandardState()))
+                        .put((byte) (type.getName().getPartNames().size() > 1 ? 1 : 0));
+            }
+            out.ensure(4);
+            out.buffer.putInt(specials.size());
+            for (String special : specials) {
+                out.putString(special);
+            }
+
+            List<Device> devices = laboratory.getDevices();
+            out.ensure(4);
+            out.buffer.putInt(devices.size());
+            for (Device device : devices) {
+                out.ensure(9);
+                out.buffer.put(deviceCode(device)).putFloat(deviceTemperature(device)).putInt(deviceCapacity(device));
+            }
+
+            out.ensure(4);
+            out.buffer.putInt(containers.size());
+            for (IngredientContainer container : containers) {
+                AlchemicIngredient content = container.getContent();
+                String special = content.getSpecialName();
+                out.ensure(CONTAINER_BYTES);
+                putContainer(out.buffer, container, typeIndex.get(content.getStandardType()), special == null ? -1 : specialIndex.get(special));
+            }
+            out.flush();
+            channel.force(false);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * A write buffer in front of a channel.
+     */
+    private static final class Output {
+
+        /**
+         * The channel the buffer is written to.
+         */
+        private final FileChannel channel;
+
+        /**
+         * The bytes that are not written to the channel yet.
+         */
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        /**
+         * Creates an empty buffer in front of the given channel.
+         */
+        private Output(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Makes room for the given number of bytes in the buffer, writing the buffer to the channel if needed.
+         */
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        /**
+         * Writes the buffer to the channel.
+         */
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        /**
+         * Writes a string as its length in bytes and its UTF-8 bytes.
+         */
+        private void putString(String string) throws IOException {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            ensure(4);
+            buffer.putInt(bytes.length);
+            if (bytes.length > buffer.capacity()) {
+                flush();
+                ByteBuffer wrapped = ByteBuffer.wrap(bytes);
+                while (wrapped.hasRemaining()) {
+                    channel.write(wrapped);
+                }
+            } else {
+                ensure(bytes.length);
+                buffer.put(bytes);
+            }
+        }
+    }
+
+
+    /**********************************************************
+     * Loading
+     **********************************************************/
+
+    /**
+     * Loads a laboratory from a file.
+     * The ingredient types of the snapshot are interned again, the containers keep the temperature they had when they were saved.
+     * The laboratory keeps its containers like the laboratory that was saved: on the heap, concurrent, as balances or in mapped columns.
+     * A laboratory with mapped columns is loaded with its columns in the directory of the laboratory that was saved, whose column files are emptied first,
+     * so that laboratory should no longer be used.
+     *
+     * @param file the file the laboratory was saved to
+     * @return a new laboratory with the storerooms, devices and containers of the snapshot
+     * @throws IOException if the file can't be read or is not a valid snapshot
+     */
+    public static Laboratory load(Path file) throws IOException {
+        ByteBuffer in;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            in = read(channel);
+        }
+        try {
+            if (in.getInt() != MAGIC) {
+                throw new IOException(file + " is not a laboratory snapshot");
+            }
+            int version = in.getInt();
+            if (version != VERSION && version != 1) {
+                throw new IOException("unknown snapshot version " + version);
+            }
+            int storerooms = in.getInt();
+            int devicesPerKind = in.getInt();
+            Laboratory laboratory = switch (in.get()) {
+                case INDEXED -> new Laboratory(storerooms, devicesPerKind, false);
+                case CONCURRENT -> new Laboratory(storerooms, devicesPerKind, true);
+                case AGGREGATED -> Laboratory.aggregated(storerooms, devicesPerKind);
+                case MAPPED -> new Laboratory(storerooms, devicesPerKind, Path.of(getString(in)));
+                default -> throw new IOException(file + " holds an unknown kind of laboratory");
+            };
+
+            int typeCount = in.getInt();
+            List<IngredientType> types = new ArrayList<>(typeCount);
+            for (int i = 0; i < typeCount; i++) {
+                types.add(getType(in));
+            }
+            int specialCount = in.getInt();
+            List<String> specials = new ArrayList<>(specialCount);
+            for (int i = 0; i < specialCount; i++) {
+                specials.add(getString(in));
+            }
+
+            int deviceCount = in.getInt();
+            for (int i = 0; i < deviceCount; i++) {
+                laboratory.addDevice(device(in.get(), in.getFloat(), in.getInt()));
+            }
+
+            int containerCount = in.getInt();
+            if ((long) containerCount * CONTAINER_BYTES != in.remaining()) {
+                throw new IOException("snapshot holds " + in.remaining() + " bytes of containers, expected " + containerCount);
+            }
+            List<IngredientContainer> containers = new ArrayList<>(containerCount);
+            for (int i = 0; i < containerCount; i++) {
+                containers.add(getContainer(in, types, specials));
+            }
+            if (!laboratory.restoreContainers(containers)) {
+                throw new IOException("the containers of the snapshot don't fit in its storerooms");
+            }
+            return laboratory;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException(file + " is not a complete laboratory snapshot", e);
+        } catch (IngredientName.IllegalNameException | Laboratory.LaboratoryFullException | IllegalArgumentException e) {
+            throw new IOException(file + " is not a valid laboratory snapshot", e);
+        }
+    }
+
+    /**
+     * Reads a string written as its length in bytes and its UTF-8 bytes.
+     */
+    static String getString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads the whole file of a channel in a new heap buffer.
+     * The file is not mapped, so it can be truncated, replaced or deleted as soon as the channel is closed, also on Windows.
+     *
+     * @throws IOException if the file can't be read or is larger than a buffer can hold
+     */
+    static ByteBuffer read(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("file of " + size + " bytes is too large to read");
+        }
+        ByteBuffer in = ByteBuffer.allocate((int) size);
+        while (in.hasRemaining()) {
+            if (channel.read(in, in.position()) < 0) {
+                throw new IOException("file became shorter while it was read");
+            }
+        }
+        return in.flip();
+    }
+
+    /**
+     * Reads an ingredient type written as its name, packed standard temperature, standard state and whether it is a mixture,
+     * and returns the interned type.
+     *
+     * @throws IngredientName.IllegalNameException if the name is not valid
+     */
+    static IngredientType getType(ByteBuffer in) throws IngredientName.IllegalNameException {
+        String name = getString(in);
+        Temperature standardTemperature = temperature(in.getFloat());
+        IngredientState standardState = state(in.get());
+        boolean mixture = in.get() != 0;
+        return mixture
+                ? IngredientType.ofMixture(name, standardTemperature, standardState)
+                : IngredientType.of(name, standardTemperature, standardState);
+    }
+
+    /**
+     * Writes a container as a record of CONTAINER_BYTES bytes.
+     *
+     * @param out the buffer to write to, with at least CONTAINER_BYTES bytes left
+     * @param container the container to write, with content
+     * @param type the index of the type of the content
+     * @param special the index of the special name of the content, -1 if it has none
+     */
+    static void putContainer(ByteBuffer out, IngredientContainer container, int type, int special) {
+        AlchemicIngredient content = container.getContent();
+        FixedQuantity quantity = content.getQuantity().getValue();
+        out.putInt(type)
+                .putInt(special)
+                .putLong(quantity.getTicks())
+                .put(unitCode(quantity.getUnit()))
+                .put(unitCode(container.getContainerUnit()))
+                .putFloat(content.getTemperature().getValue())
+                .put(stateCode(content.getState()));
+    }
+
+    /**
+     * Reads a container written by putContainer.
+     *
+     * @param in the buffer to read from
+     * @param types the types, by index
+     * @param specials the special names, by index
+     * @return a new container with a new ingredient
+     */
+    static IngredientContainer getContainer(ByteBuffer in, List<IngredientType> types, List<String> specials) {
+        IngredientType type = types.get(in.getInt());
+        int special = in.getInt();
+        long ticks = in.getLong();
+        Unit quantityUnit = unit(in.get());
+        Unit containerUnit = unit(in.get());
+        Temperature temperature = temperature(in.getFloat());
+        IngredientState state = state(in.get());
+        AlchemicIngredient content = new AlchemicIngredient(type, special < 0 ? null : specials.get(special),
+                new Quantity(new FixedQuantity(ticks, quantityUnit)), temperature, state);
+        return new IngredientContainer(content, containerUnit);
+    }
+
+
+    /**********************************************************
+     * Codes
+     **********************************************************/
+
+    /**
+     * Returns the code of a state.
+     */
+    static byte stateCode(IngredientState state) {
+        return state.isSolid() ? POWDER : LIQUID;
+    }
+
+    /**
+     * Returns the state of a code, shared between ingredients that copy it.
+     */
+    static IngredientState state(byte code) {
+        return code == POWDER ? powder : liquid;
+    }
+
+    /**
+     * Returns a new temperature with the given packed value.
+     */
+    static Temperature temperature(float packed) {
+        return new Temperature(PackedTemperature.coldness(packed), PackedTemperature.hotness(packed));
+    }
+
+    /**
+     * Returns the code of a unit: the ordinal of the unit, with POWDER_UNIT set for a powder unit.
+     */
+    static byte unitCode(Unit unit) {
+        if (unit instanceof PowderUnit powderUnit) {
+            return (byte) (POWDER_UNIT | powderUnit.ordinal());
+        }
+        return (byte) ((FluidUnit) unit).ordinal();
+    }
+
+    /**
+     * Returns the unit of a code.
+     */
+    static Unit unit(byte code) {
+        int value = code & 0xFF;
+        if ((value & POWDER_UNIT) != 0) {
+            return PowderUnit.values()[value & ~POWDER_UNIT];
+        }
+        return FluidUnit.values()[value];
+    }
+
+    /**
+     * Returns the code of the kind of an inventory.
+     */
+    private static byte inventoryCode(Inventory inventory) {
+        if (inventory instanceof ConcurrentInventory) return CONCURRENT;
+        if (inventory instanceof AggregatedInventory) return AGGREGATED;
+        if (inventory instanceof MappedInventory) return MAPPED;
+        return INDEXED;
+    }
+
+    /**
+     * Returns the code of the kind of a device, the most specific kind it belongs to.
+     */
+    static byte deviceCode(Device device) {
+        if (device instanceof BatchOven) return BATCH_OVEN;
+        if (device instanceof BatchCoolingBox) return BATCH_COOLING_BOX;
+        if (device instanceof Oven) return OVEN;
+        if (device instanceof CoolingBox) return COOLING_BOX;
+        if (device instanceof Kettle) return KETTLE;
+        return TRANSMOGRIFIER;
+    }
+
+    /**
+     * Returns the packed temperature of a device, 0 if it has none.
+     */
+    static float deviceTemperature(Device device) {
+        if (device instanceof Oven oven) return oven.getTemperature().getValue();
+        if (device instanceof CoolingBox coolingBox) return coolingBox.getTemperature().getValue();
+        return 0F;
+    }
+
+    /**
+     * Returns the capacity of a batch device in storerooms, 0 for other devices.
+     */
+    static int deviceCapacity(Device device) {
+        if (device instanceof BatchDevice batch) return batch.getCapacity();
+        return 0;
+    }
+
+    /**
+     * Returns a new empty device of the given kind, temperature and capacity.
+     */
+    static Device device(byte code, float packed, int capacity) throws IOException {
+        Float coldness = PackedTemperature.coldness(packed);
+        Float hotness = PackedTemperature.hotness(packed);
+        return switch (code) {
+            case KETTLE -> new Kettle();
+            case OVEN -> new Oven(coldness, hotness);
+            case COOLING_BOX -> new CoolingBox(coldness, hotness);
+            case TRANSMOGRIFIER -> new Transmogrifier();
+            case BATCH_OVEN -> new BatchOven(capacity, coldness, hotness);
+            case BATCH_COOLING_BOX -> new BatchCoolingBox(capacity, coldness, hotness);
+            default -> throw new IOException("unknown device " + code);
+        };
+    }
+}
@@ -0,0 +1,573 @@
+package com.alchemy;
+
+import be.kuleuven.cs.som.annotate.Basic;
+import be.kuleuven.cs.som.annotate.Raw;
+import com.alchemy.quantity.FixedQuantity;
+import com.alchemy.quantity.PowderUnit;
+import com.alchemy.quantity.Quantity;
+import com.alchemy.quantity.Unit;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * The containers stored in a laboratory, kept outside the heap in columns of memory mapped files.
+ * Every stored container is a row of the columns: the index of the type of its content, the index of its special name,
+ * its amount in ticks, the unit of its quantity, its container unit, its packed temperature and its state.
+ * Only the tables of types and special names and the stock of every name are kept on the heap,
+ * so a laboratory can hold more containers than fit in the heap, and going over all containers is a sequential sweep of the columns.
+ * Containers are only built when they are asked for, every time as a new container.
+ * The rows of one name are chained through a column of row indexes, oldest first.
+ * Removed rows are marked and dropped when they outnumber the stored containers, so the rows stay in the order the containers were stored.
+ * The rest of a container that is only partly withdrawn stays in the row of that container.
+ * The columns are scratch files: they are emptied when the inventory is created, the directory is not removed afterwards.
+ * This inventory is meant to be used by one thread at a time.
+ * @invar The total of a name always equals the sum of the amounts of the containers stored under that name.
+ * @invar The filled space of a state always equals the sum of the capacities of the stored containers of that state.
+ * @invar Every row that is not removed holds a stored container.
+ * nominally programmed
+ *
+ * @author MiroVanHoef
+ * @author BenDeMets
+ * @author SimonVandeputte
+ * @version 1.0
+ */
+class MappedInventory implements Inventory {
+
+    /**********************************************************
+     * Constants
+     **********************************************************/
+
+    /**
+     * The type index of a removed row.
+     */
+    private static final int REMOVED = -1;
+
+    /**
+     * The row index that ends a chain.
+     */
+    private static final int NONE = -1;
+
+    /**
+     * The number of rows the columns are created with.
+     */
+    private static final int INITIAL_ROWS = 1 << 12;
+
+    /**
+     * The largest number of rows, so the widest column still fits in one mapped buffer.
+     */
+    private static final int MAX_ROWS = Integer.MAX_VALUE / Long.BYTES;
+
+    /**
+     * The number of removed rows below which the columns are never compacted.
+     */
+    private static final int MIN_COMPACTION = 1 << 10;
+
+
+    /**********************************************************
+     * Variables
+     **********************************************************/
+
+    /**
+     * The directory of the column files.
+     */
+    private final Path directory;
+
+    /**
+     * The columns of the rows.
+     */
+    private final Column types, specials, ticks, quantityUnits, containerUnits, temperatures, states, next;
+
+    /**
+     * The number of rows in the columns, removed rows included.
+     */
+    private int rows;
+
+    /**
+     * The number of stored containers.
+     */
+    private int size;
+
+    /**
+     * The types of the stored ingredients, by index, and the index of every type.
+     */
+    private final List<IngredientType> typeTable = new ArrayList<>();
+    private final IdentityHashMap<IngredientType, Integer> typeIndex = new IdentityHashMap<>();
+
+    /**
+     * The special names of the stored ingredients, by index, and the index of every special name.
+     */
+    private final List<String> specialTable = new ArrayList<>();
+    private final HashMap<String, Integer> specialIndex = new HashMap<>();
+
+    /**
+     * The stock of every ingredient, by basic name.
+     */
+    private final HashMap<String, Stock> stocks = new HashMap<>();
+
+    /**
+     * The sum of the capacities of all stored fluid containers, in ticks.
+     */
+    private long filledFluidTicks;
+
+    /**
+     * The sum of the capacities of all stored powder containers, in ticks.
+     */
+    private long filledPowderTicks;
+
+    /**
+     * The space that is reserved without holding a container, in ticks.
+     */
+    private long reservedTicks;
+
+
+    /**********************************************************
+     * Constructors
+     **********************************************************/
+
+    /**
+     * Creates an empty inventory with its columns in the given directory.
+     * The directory is created if it does not exist, columns that were left in it are emptied.
+     *
+     * @param directory the directory of the column files
+     * @throws IOException if the column files can't be created
+     */
+    @Raw
+    MappedInventory(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        this.directory = directory;
+        types = new Column(directory.resolve("type.column"), Integer.BYTES);
+        specials = new Column(directory.resolve("special.column"), Integer.BYTES);
+        ticks = new Column(directory.resolve("ticks.column"), Long.BYTES);
+        quantityUnits = new Column(directory.resolve("unit.column"), Byte.BYTES);
+        containerUnits = new Column(directory.resolve("container.column"), Byte.BYTES);
+        temperatures = new Column(directory.resolve("temperature.column"), Float.BYTES);
+        states = new Column(directory.resolve("state.column"), Byte.BYTES);
+        next = new Column(directory.resolve("next.column"), Integer.BYTES);
+    }
+
+
+    /**********************************************************
+     * Getters
+     **********************************************************/
+
+    /**
+     * Returns the directory of the column files.
+     */
+    @Basic
+    Path getDirectory() {
+        return directory;
+    }
+
+
+    /**********************************************************
+     * Methods
+     **********************************************************/
+
+    @Override
+    public boolean tryAdd(Collection<IngredientContainer> containers, long limit) {
+        return tryAddReserved(containers, 0, limit);
+    }
+
+    @Override
+    public boolean tryAddReserved(Collection<IngredientContainer> containers, long reserved, long limit) {
+        long contentTicks = 0;
+        for (IngredientContainer container : containers) {
+            contentTicks += container.getContent().getQuantity().getValue().getTicks();
+        }
+        if (contentTicks > reserved && getFilledTicks() - reserved + contentTicks > limit) {
+            return false;
+        }
+        reservedTicks -= reserved;
+        ensureRows(rows + containers.size());
+        for (IngredientContainer container : containers) {
+            AlchemicIngredient content = container.getContent();
+            FixedQuantity quantity = content.getQuantity().getValue();
+            String special = content.getSpecialName();
+            append(typeOf(content.getStandardType()), special == null ? -1 : specialOf(special), quantity.getTicks(),
+                    LaboratorySnapshot.unitCode(quantity.getUnit()), LaboratorySnapshot.unitCode(container.getContainerUnit()),
+                    content.getTemperature().getValue(), LaboratorySnapshot.stateCode(content.getState()));
+        }
+        return true;
+    }
+
+    @Override
+    public AlchemicIngredient withdraw(String name, long requested) {
+        if (getTicks(name) < requested) {
+            return null;
+        }
+        Stock stock = stocks.get(name);
+        AlchemicIngredient reference = content(stock.first);
+        Unit baseUnit = reference.getQuantity().getUnit().getBaseUnit();
+        long remaining = requested;
+        while (remaining > 0) {
+            int row = stock.first;
+            long rowTicks = ticks.buffer.getLong(row * Long.BYTES);
+            if (rowTicks > remaining) {
+                // only part of this container is needed, the rest stays in its row, so it is still the oldest container of the name
+                long rest = rowTicks - remaining;
+                Unit oldContainer = LaboratorySnapshot.unit(containerUnits.buffer.get(row));
+                Unit container = new Quantity(new FixedQuantity(rest, baseUnit)).getSmallestContainer();
+                ticks.buffer.putLong(row * Long.BYTES, rest);
+                quantityUnits.buffer.put(row, LaboratorySnapshot.unitCode(baseUnit));
+                containerUnits.buffer.put(row, LaboratorySnapshot.unitCode(container));
+                stock.ticks -= remaining;
+                long freed = FixedQuantity.ticksPer(oldContainer) - FixedQuantity.ticksPer(container);
+                if (oldContainer instanceof PowderUnit) {
+                    filledPowderTicks -= freed;
+                } else {
+                    filledFluidTicks -= freed;
+                }
+                remaining = 0;
+            } else {
+                takeFirst(name, stock);
+                remaining -= rowTicks;
+            }
+        }
+        compactIfSparse();
+        return reference.withQuantity(new Quantity(new FixedQuantity(requested, baseUnit)));
+    }
+
+    @Override
+    public boolean reserve(long ticks, long limit) {
+        if (getFilledTicks() + ticks > limit) {
+            return false;
+        }
+        reservedTicks += ticks;
+        return true;
+    }
+
+    @Override
+    public void release(long ticks) {
+        reservedTicks -= ticks;
+    }
+
+    @Override
+    public IngredientContainer peekFirst(String name) {
+        Stock stock = stocks.get(name);
+        return stock == null ? null : container(stock.first);
+    }
+
+    @Override
+    public long getTicks(String name) {
+        Stock stock = stocks.get(name);
+        return stock == null ? 0 : stock.ticks;
+    }
+
+    @Override
+    public List<String> getNames() {
+        return List.copyOf(stocks.keySet());
+    }
+
+    @Override
+    public long getFilledTicks() {
+        return filledFluidTicks + filledPowderTicks + reservedTicks;
+    }
+
+    @Override
+    public long getFilledTicks(boolean solid) {
+        return solid ? filledPowderTicks : filledFluidTicks;
+    }
+
+    /**
+     * Returns all stored containers, in the order they were stored.
+     *
+     * @return a list of new containers, one for every stored container
+     */
+    @Override
+    public List<IngredientContainer> getContainers() {
+        List<IngredientContainer> containers = new ArrayList<>(size);
+        for (IngredientContainer container : containers()) {
+            containers.add(container);
+        }
+        return containers;
+    }
+
+    /**
+     * Returns all stored containers, in the order they were stored, without holding them all on the heap.
+     * The containers are built one at a time while the columns are swept. The inventory can't be changed during the sweep.
+     *
+     * @return a read-only view of the stored containers
+     */
+    @Override
+    public Iterable<IngredientContainer> containers() {
+        return () -> new Iterator<>() {
+            private int row = skipRemoved(0);
+
+            @Override
+            public boolean hasNext() {
+                return row < rows;
+            }
+
+            @Override
+            public IngredientContainer next() {
+                if (row >= rows) {
+                    throw new NoSuchElementException();
+                }
+                IngredientContainer container = container(row);
+                row = skipRemoved(row + 1);
+                return container;
+            }
+        };
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the first row from the given row on that is not removed, or the number of rows if there is none.
+     */
+    private int skipRemoved(int row) {
+        while (row < rows && types.buffer.getInt(row * Integer.BYTES) == REMOVED) {
+            row++;
+        }
+        return row;
+    }
+
+    /**
+     * Appends a row for a stored container and chains it behind the other rows of its name.
+     * The columns must have room for the row.
+     */
+    private void append(int type, int special, long amount, byte quantityUnit, byte containerUnit, float temperature, byte state) {
+        int row = rows++;
+        types.buffer.putInt(row * Integer.BYTES, type);
+        specials.buffer.putInt(row * Integer.BYTES, special);
+        ticks.buffer.putLong(row * Long.BYTES, amount);
+        quantityUnits.buffer.put(row, quantityUnit);
+        containerUnits.buffer.put(row, containerUnit);
+        temperatures.buffer.putFloat(row * Float.BYTES, temperature);
+        states.buffer.put(row, state);
+        next.buffer.putInt(row * Integer.BYTES, NONE);
+        size++;
+
+        Stock stock = stocks.computeIfAbsent(typeTable.get(type).getName().getBasicName(), name -> new Stock());
+        if (stock.last == NONE) {
+            stock.first = row;
+        } else {
+            next.buffer.putInt(stock.last * Integer.BYTES, row);
+        }
+        stock.last = row;
+        stock.ticks += amount;
+        Unit unit = LaboratorySnapshot.unit(containerUnit);
+        if (unit instanceof PowderUnit) {
+            filledPowderTicks += FixedQuantity.ticksPer(unit);
+        } else {
+            filledFluidTicks += FixedQuantity.ticksPer(unit);
+        }
+    }
+
+    /**
+     * Removes the oldest row of a name. The row keeps its values until the columns are compacted.
+     */
+    private void takeFirst(String name, Stock stock) {
+        int row = stock.first;
+        stock.first = next.buffer.getInt(row * Integer.BYTES);
+        if (stock.first == NONE) {
+            stock.last = NONE;
+        }
+        types.buffer.putInt(row * Integer.BYTES, REMOVED);
+        size--;
+
+        stock.ticks -= ticks.buffer.getLong(row * Long.BYTES);
+        if (stock.first == NONE) {
+            stocks.remove(name);
+        }
+        Unit containerUnit = LaboratorySnapshot.unit(containerUnits.buffer.get(row));
+        if (containerUnit instanceof PowderUnit) {
+            filledPowderTicks -= FixedQuantity.ticksPer(containerUnit);
+        } else {
+            filledFluidTicks -= FixedQuantity.ticksPer(containerUnit);
+        }
+    }
+
+    /**
+     * Moves the stored rows to the front of the columns when more rows are removed than stored, keeping their order,
+     * and chains the rows of every name again.
+     */
+    private void compactIfSparse() {
+        int removed = rows - size;
+        if (removed < MIN_COMPACTION || removed <= size) {
+            return;
+        }
+        Stock[] stockOfType = new Stock[typeTable.size()];
+        for (Stock stock : stocks.values()) {
+            stock.first = NONE;
+            stock.last = NONE;
+        }
+        int target = 0;
+        for (int row = 0; row < rows; row++) {
+            int type = types.buffer.getInt(row * Integer.BYTES);
+            if (type == REMOVED) {
+                continue;
+            }
+            if (target != row) {
+                types.buffer.putInt(target * Integer.BYTES, type);
+                specials.buffer.putInt(target * Integer.BYTES, specials.buffer.getInt(row * Integer.BYTES));
+                ticks.buffer.putLong(target * Long.BYTES, ticks.buffer.getLong(row * Long.BYTES));
+                quantityUnits.buffer.put(target, quantityUnits.buffer.get(row));
+                containerUnits.buffer.put(target, containerUnits.buffer.get(row));
+                temperatures.buffer.putFloat(target * Float.BYTES, temperatures.buffer.getFloat(row * Float.BYTES));
+                states.buffer.put(target, states.buffer.get(row));
+            }
+            next.buffer.putInt(target * Integer.BYTES, NONE);
+            Stock stock = stockOfType[type];
+            if (stock == null) {
+                stock = stocks.get(typeTable.get(type).getName().getBasicName());
+                stockOfType[type] = stock;
+            }
+            if (stock.last == NONE) {
+                stock.first = target;
+            } else {
+                next.buffer.putInt(stock.last * Integer.BYTES, target);
+            }
+            stock.last = target;
+            target++;
+        }
+        rows = target;
+    }
+
+    /**
+     * Makes sure the columns have room for the given number of rows, doubling them if they don't.
+     *
+     * @throws IllegalStateException if the columns can't hold that many rows
+     * @throws UncheckedIOException if the column files can't be grown
+     */
+    private void ensureRows(long needed) {
+        if (needed <= types.capacity) {
+            return;
+        }
+        if (needed > MAX_ROWS) {
+            throw new IllegalStateException("an inventory can't hold more than " + MAX_ROWS + " containers");
+        }
+        int capacity = (int) Math.min(MAX_ROWS, Math.max(needed, 2L * types.capacity));
+        try {
+            for (Column column : new Column[]{types, specials, ticks, quantityUnits, containerUnits, temperatures, states, next}) {
+                column.map(capacity);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the index of a type, adding it to the table if it is new.
+     */
+    private int typeOf(IngredientType type) {
+        Integer index = typeIndex.get(type);
+        if (index == null) {
+            index = typeTable.size();
+            typeTable.add(type);
+            typeIndex.put(type, index);
+        }
+        return index;
+    }
+
+    /**
+     * Returns the index of a special name, adding it to the table if it is new.
+     */
+    private int specialOf(String special) {
+        Integer index = specialIndex.get(special);
+        if (index == null) {
+            index = specialTable.size();
+            specialTable.add(special);
+            specialIndex.put(special, index);
+        }
+        return index;
+    }
+
+    /**
+     * Returns a new container built from a row.
+     */
+    private IngredientContainer container(int row) {
+        return new IngredientContainer(content(row), LaboratorySnapshot.unit(containerUnits.buffer.get(row)));
+    }
+
+    /**
+     * Returns a new ingredient built from a row.
+     */
+    private AlchemicIngredient content(int row) {
+        int special = specials.buffer.getInt(row * Integer.BYTES);
+        return new AlchemicIngredient(typeTable.get(types.buffer.getInt(row * Integer.BYTES)), special < 0 ? null : specialTable.get(special),
+                new Quantity(new FixedQuantity(ticks.buffer.getLong(row * Long.BYTES), LaboratorySnapshot.unit(quantityUnits.buffer.get(row)))),
+                LaboratorySnapshot.temperature(temperatures.buffer.getFloat(row * Float.BYTES)),
+                LaboratorySnapshot.state(states.buffer.get(row)));
+    }
+
+
+    /**********************************************************
+     * Classes
+     **********************************************************/
+
+    /**
+     * The oldest and newest row and the total amount of one ingredient.
+     */
+    private static class Stock {
+        /**
+         * The oldest and newest row of the ingredient.
+         */
+        private int first = NONE, last = NONE;
+        /**
+         * The total amount of the ingredient in ticks.
+         */
+        private long ticks;
+    }
+
+    /**
+     * A column of values of one width, mapped from its own file.
+     */
+    private static final class Column {
+        /**
+         * The file of the column.
+         */
+        private final Path file;
+        /**
+         * The width of a value, in bytes.
+         */
+        private final int width;
+        /**
+         * The mapped values of the column.
+         */
+        private MappedByteBuffer buffer;
+        /**
+         * The number of values the mapped buffer holds.
+         */
+        private int capacity;
+
+        /**
+         * Creates the file of an empty column and maps it.
+         */
+        private Column(Path file, int width) throws IOException {
+            this.file = file;
+            this.width = width;
+            Files.deleteIfExists(file);
+            map(INITIAL_ROWS);
+        }
+
+        /**
+         * Maps the column again with room for the given number of values, growing its file.
+         * The values that were stored are kept, the old mapping is released when it is no longer reachable.
+         */
+        private void map(int capacity) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) capacity * width);
+                buffer.order(ByteOrder.nativeOrder());
+                this.capacity = capacity;
+            }
+        }
+    }
+}
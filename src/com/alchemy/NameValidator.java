@@ -0,0 +1,195 @@
+package com.alchemy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Checks the names of ingredients, as described in IngredientName.
+ * Every name is checked in a single pass over its characters, the blacklisted words of every ingredient part name are found with one precompiled pattern.
+ * The parts of the mixture names that were found valid are kept in a bounded cache, so the names that are used most often are only checked once.
+ * Names checked against extra blacklisted words are not cached.
+ * nominally programmed
+ *
+ * @author MiroVanHoef
+ * @author BenDeMets
+ * @author SimonVandeputte
+ * @version 1.0
+ */
+final class NameValidator {
+
+    /**********************************************************
+     * Constants
+     **********************************************************/
+
+    /**
+     * The separator between the parts of a mixture name.
+     */
+    static final String SEPARATOR = " mixed with ";
+
+    /**
+     * The words that are not allowed in an ingredient part name. (eg "mixed" or "with")
+     */
+    private static final Pattern blacklistedWordsIngredientPart = Pattern.compile("mixed|with|Heated|Cooled");
+
+    /**
+     * The number of valid names that is kept, at most.
+     */
+    private static final int CACHE_SIZE = 4096;
+
+    /**
+     * The parts of the most recently used valid mixture names, by name.
+     */
+    private static final Map<String, String[]> cache = Collections.synchronizedMap(new LinkedHashMap<>(CACHE_SIZE * 4 / 3 + 1, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String[]> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    });
+
+
+    /**********************************************************
+     * Constructors
+     **********************************************************/
+
+    /**
+     * This class only holds static methods.
+     */
+    private NameValidator() {}
+
+
+    /**********************************************************
+     * Validity checks
+     **********************************************************/
+
+    /**
+     * Returns the parts of a valid mixture name.
+     *
+     * @param name The mixture name to be checked.
+     * @param blacklistedWords The words that are not allowed in the name.
+     * @return The ingredient part names of the name, in order, or null if the name is not a valid mixture name.
+     *         The returned array is shared and must not be changed.
+     */
+    static String[] mixtureParts(String name, String[] blacklistedWords) {
+        if (blacklistedWords.length == 0) {
+            String[] parts = cache.get(name);
+            if (parts != null) {
+                return parts;
+            }
+        }
+        String[] parts = splitMixtureName(name, blacklistedWords);
+        if (parts != null && blacklistedWords.length == 0) {
+            cache.put(name, parts);
+        }
+        return parts;
+    }
+
+    /**
+     * Checks if the given mixture name is valid.
+     *
+     * @param name The mixture name to be checked.
+     * @param blacklistedWords The words that are not allowed in the name.
+     * @return True if the mixture name is valid, false otherwise.
+     */
+    static boolean isValidMixtureName(String name, String[] blacklistedWords) {
+        return mixtureParts(name, blacklistedWords) != null;
+    }
+
+    /**
+     * Checks if the given ingredient part name is valid.
+     *
+     * @param name The ingredient part name to be checked.
+     * @param blacklistedWords The words that are not allowed in the name, next to the blacklisted words of every ingredient part name.
+     * @return True if the ingredient part name is valid, false otherwise.
+     */
+    static boolean isValidIngredientPartName(String name, String[] blacklistedWords) {
+        if (blacklistedWords.length == 0) {
+            String[] parts = cache.get(name);
+            if (parts != null && parts.length == 1) {
+                return true;
+            }
+        }
+        return scanIngredientPartName(name, blacklistedWords);
+    }
+
+    /**
+     * Splits a mixture name in its parts and checks every part.
+     */
+    private static String[] splitMixtureName(String name, String[] blacklistedWords) {
+        // if there is only one part, it has to be at least 3 characters long
+        if (name.length() < 3 || containsAny(name, blacklistedWords)) {
+            return null;
+        }
+        List<String> parts = new ArrayList<>(2);
+        int start = 0;
+        int end;
+        while ((end = name.indexOf(SEPARATOR, start)) >= 0) {
+            parts.add(name.substring(start, end));
+            start = end + SEPARATOR.length();
+        }
+        parts.add(name.substring(start));
+        // every part, also an empty one between two separators, has to be a valid ingredient part name
+        for (String part : parts) {
+            if (!scanIngredientPartName(part, blacklistedWords)) {
+                return null;
+            }
+        }
+        return parts.toArray(new String[0]);
+    }
+
+    /**
+     * Checks an ingredient part name in one pass over its characters.
+     * Only letters, apostrophes, brackets and whitespace are allowed. The words are separated by spaces,
+     * every word must not start with a lowercase letter, must be at least 2 characters long and may only contain lowercase letters after its first character.
+     * Spaces at the end of the name are ignored.
+     */
+    private static boolean scanIngredientPartName(String name, String[] blacklistedWords) {
+        if (name.isEmpty() || blacklistedWordsIngredientPart.matcher(name).find() || containsAny(name, blacklistedWords)) {
+            return false;
+        }
+        int end = name.length();
+        while (end > 0 && name.charAt(end - 1) == ' ') {
+            end--;
+        }
+        int wordLength = 0;
+        for (int i = 0; i < end; i++) {
+            char c = name.charAt(i);
+            if (c == ' ') {
+                if (wordLength < 2) {
+                    return false;
+                }
+                wordLength = 0;
+                continue;
+            }
+            if (!isAllowed(c)) {
+                return false;
+            }
+            if (wordLength == 0 ? Character.isLowerCase(c) : Character.isUpperCase(c)) {
+                return false;
+            }
+            wordLength++;
+        }
+        return end == 0 || wordLength >= 2;
+    }
+
+    /**
+     * Checks if a character may be used in an ingredient part name.
+     */
+    private static boolean isAllowed(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '\'' || c == '(' || c == ')'
+                || c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    /**
+     * Checks if the name contains any of the given words.
+     */
+    private static boolean containsAny(String name, String[] words) {
+        for (String word : words) {
+            if (name.contains(word)) return true;
+        }
+        return false;
+    }
+}
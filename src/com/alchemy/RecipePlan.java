@@ -0,0 +1,499 @@
+package com.alchemy;
+
+import be.kuleuven.cs.som.annotate.Basic;
+import be.kuleuven.cs.som.annotate.Raw;
+import com.alchemy.IngredientConditions.*;
+import com.alchemy.quantity.FixedQuantity;
+import com.alchemy.quantity.PowderUnit;
+import com.alchemy.recipes.Recipe;
+import com.alchemy.recipes.Recipe.ActionType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A recipe compiled for one laboratory, ready to be executed as often as needed.
+ * Everything that does not change between executions is worked out once, when the plan is made:
+ * the devices of the laboratory that are used, the name of the ingredient every add takes from the laboratory,
+ * the amount it takes in ticks and the total amount of every ingredient the recipe needs.
+ * Executing the plan takes the ingredients out of the laboratory, runs them through the devices and stores the result in the laboratory.
+ * Before a device is used, everything the execution needs is checked and reserved: the devices, the ingredients and the space for the result.
+ * A plan that can't be executed is turned down by these checks, without running part of the recipe and putting the ingredients back.
+ * A plan is not meant to be executed by several threads at the same time, but plans of a concurrent laboratory can be executed at the same time:
+ * every device is only used by one plan at a time.
+ * @invar Every add of the plan has an ingredient name and an amount.
+ * @invar Every device the plan needs is known.
+ * nominally programmed
+ *
+ * @author MiroVanHoef
+ * @author BenDeMets
+ * @author SimonVandeputte
+ * @version 1.0
+ */
+public final class RecipePlan {
+
+    /**********************************************************
+     * Constants
+     **********************************************************/
+
+    /**
+     * The most a mix can add to the amount of its ingredients: its quantity is rounded to the nearest pinch or drop.
+     */
+    private static final long MIX_ROUNDING_TICKS = FixedQuantity.ticksPer(PowderUnit.PINCH);
+
+
+    /**********************************************************
+     * Variables
+     **********************************************************/
+
+    /**
+     * The laboratory the plan is executed in.
+     */
+    private final Laboratory laboratory;
+
+    /**
+     * The actions of the recipe, in order.
+     */
+    private final ActionType[] actions;
+
+    /**
+     * For every add, the basic name of the ingredient it takes from the laboratory. null for the other actions.
+     */
+    private final String[] sources;
+
+    /**
+     * For every add, the amount it takes from the laboratory in ticks. 0 for the other actions.
+     */
+    private final long[] amounts;
+
+    /**
+     * The basic names of all ingredients the recipe takes from the laboratory.
+     */
+    private final String[] neededNames;
+
+    /**
+     * The total amount the recipe takes of every ingredient in neededNames, in ticks.
+     */
+    private final long[] neededTicks;
+
+    /**
+     * The total amount the recipe takes from the laboratory, in ticks.
+     */
+    private final long totalTicks;
+
+    /**
+     * The largest amount the result of the recipe can have, in ticks: the space the result needs in the laboratory.
+     */
+    private final long resultTicks;
+
+    /**
+     * The kettle used to mix, null if the recipe doesn't need one.
+     */
+    private final Kettle kettle;
+
+    /**
+     * The oven used to heat, null if the recipe doesn't need one.
+     */
+    private final Oven oven;
+
+    /**
+     * The coolingbox used to cool, null if the recipe doesn't need one.
+     */
+    private final CoolingBox coolingBox;
+
+    /**
+     * The ingredients the recipe is working on, reused between executions.
+     */
+    private final ArrayList<AlchemicIngredient> used = new ArrayList<>();
+
+
+    /**********************************************************
+     * Constructors
+     **********************************************************/
+
+    /**
+     * Compiles a recipe for a laboratory.
+     *
+     * @param laboratory the laboratory the recipe will be executed in
+     * @param recipe the recipe to compile
+     * @throws Laboratory.LaboratoryMissingDeviceException if the laboratory does not have a device the recipe needs
+     * @throws IllegalArgumentException if the recipe heats or cools before any ingredient is added, or does not have an ingredient for every add
+     */
+    @Raw
+    RecipePlan(Laboratory laboratory, Recipe recipe) throws Laboratory.LaboratoryMissingDeviceException {
+        this.laboratory = laboratory;
+        this.actions = recipe.getActions().clone();
+        AlchemicIngredient[] ingredients = recipe.getIngredients();
+        sources = new String[actions.length];
+        amounts = new long[actions.length];
+        Map<String, Long> needed = new LinkedHashMap<>();
+        boolean heats = false, cools = false;
+        int mixes = 0;
+        int ingredientIndex = 0;
+        for (int i = 0; i < actions.length; i++) {
+            switch (actions[i]) {
+                case ADD -> {
+                    if (ingredientIndex >= ingredients.length) {
+                        throw new IllegalArgumentException("Recipe has no ingredient for every add");
+                    }
+                    AlchemicIngredient ingredient = ingredients[ingredientIndex++];
+                    sources[i] = ingredient.getBasicName();
+                    amounts[i] = ingredient.getQuantity().getValue().getTicks();
+                    needed.merge(sources[i], amounts[i], Long::sum);
+                }
+                case HEAT, COOL -> {
+                    if (ingredientIndex == 0) {
+                        throw new IllegalArgumentException("Recipe " + actions[i] + "s before adding an ingredient");
+                    }
+                    heats |= actions[i] == ActionType.HEAT;
+                    cools |= actions[i] == ActionType.COOL;
+                }
+                case MIX -> mixes++;
+            }
+        }
+        neededNames = needed.keySet().toArray(new String[0]);
+        neededTicks = needed.values().stream().mapToLong(Long::longValue).toArray();
+        totalTicks = Arrays.stream(neededTicks).sum();
+        resultTicks = totalTicks + mixes * MIX_ROUNDING_TICKS;
+        kettle = mixes > 0 ? require(laboratory.getKettle(), "kettle") : null;
+        oven = heats ? require(laboratory.getOven(), "oven") : null;
+        coolingBox = cools ? require(laboratory.getCoolingBox(), "coolingbox") : null;
+    }
+
+    /**
+     * Returns the given device if the laboratory has it.
+     */
+    private static <T extends Device> T require(T device, String kind) throws Laboratory.LaboratoryMissingDeviceException {
+        if (device == null) {
+            throw new Laboratory.LaboratoryMissingDeviceException("Missing " + kind);
+        }
+        return device;
+    }
+
+    /**
+     * Checks that a batch device holds no ingredients, so taking one ingredient out of it takes back the ingredient the plan put in
+     * and reacting on it leaves ingredients that were not put in by the plan untouched. Other devices check this themselves when an ingredient is added.
+     */
+    private static void checkEmptyBatch(Device device, String kind) throws Device.DeviceFullException {
+        if (device instanceof BatchDevice batch && !batch.isEmpty()) {
+            throw new Device.DeviceFullException(kind + " Full");
+        }
+    }
+
+
+    /**********************************************************
+     * Getters
+     **********************************************************/
+
+    /**
+     * Returns the laboratory the plan is executed in.
+     */
+    @Basic
+    public Laboratory getLaboratory() {
+        return laboratory;
+    }
+
+
+    /**********************************************************
+     * Methods
+     **********************************************************/
+
+    /**
+     * Checks if the laboratory can execute the plan right now.
+     * Nothing is taken from or reserved in the laboratory.
+     *
+     * @return true if the devices of the plan are still in the laboratory, the laboratory holds enough of every ingredient
+     *         and it has space for the result once the ingredients are taken out
+     */
+    public boolean canExecute() {
+        return devicesPresent() && ingredientsPresent() && spacePossible();
+    }
+
+    /**
+     * Reserves everything one execution of the plan needs, before any device is used.
+     * The devices, the ingredients and the free space are checked first, a plan that can't be executed is turned down without changing the laboratory.
+     * Then the ingredients are taken out of the laboratory and the space for the result is claimed,
+     * so they can't be taken by anything else until the reservation is executed or cancelled.
+     *
+     * @return a reservation holding the ingredients and the space, to be executed once
+     * @throws Laboratory.LaboratoryMissingDeviceException if a device of the plan was removed from the laboratory
+     * @throws IllegalArgumentException if the laboratory does not hold enough of an ingredient of the recipe,
+     *                                  or does not have space for the result once the ingredients are taken out
+     */
+    public Reservation reserve() throws Laboratory.LaboratoryMissingDeviceException {
+        if (!devicesPresent()) {
+            throw new Laboratory.LaboratoryMissingDeviceException("A device of the recipe is no longer in the laboratory");
+        }
+        if (!ingredientsPresent()) {
+            throw new IllegalArgumentException("Not enough ingredients in laboratory");
+        }
+        if (!spacePossible()) {
+            throw new IllegalArgumentException("Not enough space in laboratory for the result of the recipe");
+        }
+        AlchemicIngredient[] taken = new AlchemicIngredient[actions.length];
+        for (int i = 0; i < actions.length; i++) {
+            if (actions[i] == ActionType.ADD) {
+                taken[i] = laboratory.withdraw(sources[i], amounts[i]);
+                if (taken[i] == null) {
+                    // another thread took the ingredient after the check
+                    putBack(taken);
+                    throw new IllegalArgumentException("Not enough " + sources[i] + " in laboratory");
+                }
+            }
+        }
+        if (!laboratory.reserveSpace(resultTicks)) {
+            putBack(taken);
+            throw new IllegalArgumentException("Not enough space in laboratory for the result of the recipe");
+        }
+        return new Reservation(taken);
+    }
+
+    /**
+     * Executes the plan once.
+     * Nothing is taken from the laboratory if it does not hold enough of every ingredient or has no space for the result.
+     *
+     * @return the ingredient the recipe made, which is stored in the laboratory. null if the recipe made nothing
+     * @throws Laboratory.LaboratoryMissingDeviceException if a device of the plan was removed from the laboratory
+     * @throws Device.DeviceFullException if a device of the plan holds an ingredient that was not put in by the plan
+     * @throws IllegalArgumentException if the laboratory does not hold enough of an ingredient of the recipe or has no space for the result
+     * @effect Everything the execution needs is reserved and the reservation is executed.
+     *  |execute(reserve())
+     */
+    public AlchemicIngredient execute() throws Laboratory.LaboratoryMissingDeviceException, Device.DeviceFullException {
+        return execute(reserve());
+    }
+
+    /**
+     * Executes the plan once with the ingredients and space of a reservation, which is used up.
+     * The ingredients of the reservation run through the devices and the result is stored in the space of the reservation,
+     * which is handed to the result in the same step it is stored.
+     * If a device can't be used halfway, or anything else fails, the ingredients that were not used yet and the ones the devices made so far
+     * are put back in the laboratory in the space of the reservation, brought to their standard temperature.
+     * The result and the ingredients that are put back are poured in as many containers as they need, see IngredientContainer.pour.
+     *
+     * @param reservation an open reservation of this plan
+     * @return the ingredient the recipe made, which is stored in the laboratory. null if the recipe made nothing
+     * @throws Laboratory.LaboratoryMissingDeviceException if a device of the plan was removed from the laboratory since the reservation was made,
+     *                                                     the reservation is cancelled or the ingredients are put back then
+     * @throws Device.DeviceFullException if a device of the plan holds an ingredient that was not put in by the plan, the ingredients are put back then.
+     *                                    A batch oven or coolingbox is only used when it is empty, so the ingredient that is taken back is the one the plan put in
+     * @throws IllegalArgumentException if the reservation is not one of this plan or was already used
+     */
+    public AlchemicIngredient execute(Reservation reservation) throws Laboratory.LaboratoryMissingDeviceException, Device.DeviceFullException {
+        if (reservation == null || reservation.getPlan() != this || !reservation.isOpen()) {
+            throw new IllegalArgumentException("Reservation is not an open reservation of this plan");
+        }
+        if (!devicesPresent()) {
+            reservation.cancel();
+            throw new Laboratory.LaboratoryMissingDeviceException("A device of the recipe is no longer in the laboratory");
+        }
+        reservation.open = false;
+        AlchemicIngredient[] taken = reservation.taken;
+        used.clear();
+        try {
+            for (int i = 0; i < actions.length; i++) {
+                switch (actions[i]) {
+                    case ADD -> {
+                        used.add(taken[i]);
+                        taken[i] = null;
+                    }
+                    case HEAT -> {
+                        synchronized (oven) {
+                            AlchemicIngredient ingredient = used.getLast();
+                            checkEmptyBatch(oven, "Oven");
+                            oven.addIngredient(ingredient);
+                            used.removeLast();
+                            try {
+                                oven.setTemperature(ingredient.getTemperature());
+                                oven.heatOwnTemperature();
+                                oven.react();
+                            } finally {
+                                used.add(oven.takeIngredient());
+                            }
+                        }
+                    }
+                    case COOL -> {
+                        synchronized (coolingBox) {
+                            AlchemicIngredient ingredient = used.getLast();
+                            checkEmptyBatch(coolingBox, "CoolingBox");
+                            coolingBox.addIngredient(ingredient);
+                            used.removeLast();
+                            try {
+                                coolingBox.setTemperature(ingredient.getTemperature());
+                                coolingBox.lowerOwnTemp();
+                                coolingBox.react();
+                            } finally {
+                                used.add(coolingBox.takeIngredient());
+                            }
+                        }
+                    }
+                    case MIX -> {
+                        if (!used.isEmpty()) {
+                            synchronized (kettle) {
+                                for (AlchemicIngredient ingredient : used) {
+                                    kettle.addIngredient(ingredient);
+                                }
+                                try {
+                                    kettle.react();
+                                } catch (Device.NotInLaboratoryException | RuntimeException e) {
+                                    // the ingredients are still in used, the kettle is emptied without mixing them
+                                    kettle.takeIngredient();
+                                    throw e;
+                                }
+                                used.clear();
+                                used.add(kettle.takeIngredient());
+                            }
+                        }
+                    }
+                }
+            }
+        } catch (Device.DeviceFullException | Device.NotInLaboratoryException | RuntimeException e) {
+            for (AlchemicIngredient ingredient : taken) {
+                if (ingredient != null) {
+                    used.add(ingredient);
+                }
+            }
+            putBack(used);
+            used.clear();
+            if (e instanceof Device.DeviceFullException full) {
+                throw full;
+            }
+            if (e instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new Laboratory.LaboratoryMissingDeviceException("A device of the recipe was removed from the laboratory during the recipe");
+        }
+        if (used.isEmpty()) {
+            laboratory.releaseSpace(resultTicks);
+            return null;
+        }
+        AlchemicIngredient result = used.getLast();
+        used.clear();
+        putBack(List.of(result));
+        return result;
+    }
+
+    /**
+     * Puts ingredients in the laboratory in the space that was reserved for the result, every ingredient poured in as many containers as it needs.
+     * The ingredients together are never more than the space reserved for the result.
+     * If they can't be stored all the same, the reserved space is given back before the exception is thrown.
+     */
+    private void putBack(Collection<AlchemicIngredient> ingredients) {
+        try {
+            List<IngredientContainer> containers = new ArrayList<>(ingredients.size());
+            for (AlchemicIngredient ingredient : ingredients) {
+                containers.addAll(IngredientContainer.pour(ingredient));
+            }
+            laboratory.addReservedContainers(containers, resultTicks);
+        } catch (RuntimeException e) {
+            laboratory.releaseSpace(resultTicks);
+            throw e;
+        }
+    }
+
+    /**
+     * Puts ingredients that were taken out for the plan back in the laboratory, while no space is reserved for the result.
+     */
+    private void putBack(AlchemicIngredient[] taken) {
+        for (AlchemicIngredient ingredient : taken) {
+            if (ingredient != null) {
+                laboratory.addContainers(IngredientContainer.pour(ingredient));
+            }
+        }
+    }
+
+    /**
+     * Checks if every device of the plan is still in the laboratory.
+     */
+    private boolean devicesPresent() {
+        return (kettle == null || kettle.getLaboratory() == laboratory)
+                && (oven == null || oven.getLaboratory() == laboratory)
+                && (coolingBox == null || coolingBox.getLaboratory() == laboratory);
+    }
+
+    /**
+     * Checks if the result of the plan can fit in the laboratory, if taking out the ingredients frees their whole amount.
+     */
+    private boolean spacePossible() {
+        return laboratory.getFreeTicks() + totalTicks >= resultTicks;
+    }
+
+    /**
+     * Checks if the laboratory holds enough of every ingredient of the plan.
+     */
+    private boolean ingredientsPresent() {
+        for (int i = 0; i < neededNames.length; i++) {
+            if (laboratory.getTicks(neededNames[i]) < neededTicks[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**********************************************************
+     * Classes
+     **********************************************************/
+
+    /**
+     * The ingredients and the space one execution of a plan needs, taken out of the laboratory ahead of the execution.
+     * A reservation is used up by executing it or by cancelling it, whichever comes first.
+     */
+    public final class Reservation {
+
+        /**
+         * For every add of the plan, the ingredient that was taken out of the laboratory. null for the other actions.
+         */
+        private final AlchemicIngredient[] taken;
+
+        /**
+         * Whether the reservation can still be executed or cancelled.
+         */
+        private boolean open = true;
+
+        /**
+         * Creates an open reservation of the given ingredients and the space for the result of the plan.
+         */
+        @Raw
+        private Reservation(AlchemicIngredient[] taken) {
+            this.taken = taken;
+        }
+
+        /**
+         * Returns the plan the reservation was made for.
+         */
+        @Basic
+        public RecipePlan getPlan() {
+            return RecipePlan.this;
+        }
+
+        /**
+         * Checks if the reservation can still be executed or cancelled.
+         */
+        @Basic
+        public boolean isOpen() {
+            return open;
+        }
+
+        /**
+         * Puts the reserved ingredients back in the laboratory in the reserved space, and frees the rest of the reserved space.
+         * Nothing happens if the reservation was already used.
+         */
+        public void cancel() {
+            if (open) {
+                open = false;
+                List<AlchemicIngredient> ingredients = new ArrayList<>();
+                for (AlchemicIngredient ingredient : taken) {
+                    if (ingredient != null) {
+                        ingredients.add(ingredient);
+                    }
+                }
+                putBack(ingredients);
+            }
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.alchemy.quantity;
+
+import java.util.Arrays;
+
+/**
+ * A dense table of conversion factors between every fluid and powder unit.
+ * Units are indexed by ordinal, fluid units first and powder units after them,
+ * so a conversion is a single array lookup and a multiplication.
+ * Conversions between a fluid and a powder unit go through the spoon, which holds
+ * the same amount for both states.
+ *
+ * @invar Every unit is a whole number of base units of its own state.
+ *
+ * @author MiroVanHoef
+ * @author BenDeMets
+ * @author SimonVandeputte
+ * @version 1.0
+ */
+final class ConversionTable {
+
+    /**********************************************************
+     * Constants
+     **********************************************************/
+
+    /**
+     * The number of fluid units, which is also the index of the first powder unit.
+     */
+    private static final int FLUID_UNITS = FluidUnit.values().length;
+
+    /**
+     * All units, in index order.
+     */
+    private static final Unit[] UNITS = new Unit[FLUID_UNITS + PowderUnit.values().length];
+
+    /**
+     * The size of every unit expressed in the base unit of its own state. (e.g. 8 for FluidUnit.SPOON)
+     */
+    private static final long[] BASE_SIZES = new long[UNITS.length];
+
+    /**
+     * FACTORS[from][to] is the amount of 'to' units in one 'from' unit.
+     */
+    private static final double[][] FACTORS = new double[UNITS.length][UNITS.length];
+
+    /**
+     * The amount of ticks in every unit.
+     */
+    private static final long[] TICKS = new long[UNITS.length];
+
+    /**
+     * The amount of ticks in a spoon.
+     * A tick is a thousandth of the largest amount that fits a whole number of times in both a drop and a pinch,
+     * so every fluid and powder unit is a whole number of ticks.
+     */
+    static final long TICKS_PER_SPOON;
+
+    /**
+     * The units that can be used as a container for fluids, from small to large. (every unit but the smallest and largest)
+     */
+    private static final Unit[] FLUID_CONTAINERS = Arrays.copyOfRange(FluidUnit.values(), 1, FluidUnit.values().length - 1);
+
+    /**
+     * The units that can be used as a container for powders, from small to large. (every unit but the smallest and largest)
+     */
+    private static final Unit[] POWDER_CONTAINERS = Arrays.copyOfRange(PowderUnit.values(), 1, PowderUnit.values().length - 1);
+
+    /**
+     * The capacity in ticks of every fluid container unit, in the same order as FLUID_CONTAINERS.
+     */
+    private static final long[] FLUID_CONTAINER_TICKS = new long[FLUID_CONTAINERS.length];
+
+    /**
+     * The capacity in ticks of every powder container unit, in the same order as POWDER_CONTAINERS.
+     */
+    private static final long[] POWDER_CONTAINER_TICKS = new long[POWDER_CONTAINERS.length];
+
+    static {
+        for (FluidUnit unit : FluidUnit.values()) {
+            UNITS[unit.ordinal()] = unit;
+        }
+        for (PowderUnit unit : PowderUnit.values()) {
+            UNITS[FLUID_UNITS + unit.ordinal()] = unit;
+        }
+        // the conversion maps are built with floats, but every unit is a whole number of base units
+        for (int i = 0; i < UNITS.length; i++) {
+            BASE_SIZES[i] = Math.round(UNITS[i].getConversionMap().get(UNITS[i].getBaseUnit()));
+        }
+        for (int from = 0; from < UNITS.length; from++) {
+            for (int to = 0; to < UNITS.length; to++) {
+                FACTORS[from][to] = spoons(from) / spoons(to);
+            }
+        }
+        long dropsInSpoon = BASE_SIZES[indexOf(FluidUnit.SPOON)];
+        long pinchesInSpoon = BASE_SIZES[indexOf(PowderUnit.SPOON)];
+        TICKS_PER_SPOON = 1000 * dropsInSpoon * pinchesInSpoon / gcd(dropsInSpoon, pinchesInSpoon);
+        for (int i = 0; i < UNITS.length; i++) {
+            long baseUnitsInSpoon = UNITS[i] instanceof PowderUnit ? pinchesInSpoon : dropsInSpoon;
+            TICKS[i] = BASE_SIZES[i] * (TICKS_PER_SPOON / baseUnitsInSpoon);
+        }
+        for (int i = 0; i < FLUID_CONTAINERS.length; i++) {
+            FLUID_CONTAINER_TICKS[i] = ticks(FLUID_CONTAINERS[i]);
+        }
+        for (int i = 0; i < POWDER_CONTAINERS.length; i++) {
+            POWDER_CONTAINER_TICKS[i] = ticks(POWDER_CONTAINERS[i]);
+        }
+    }
+
+
+    /**********************************************************
+     * Constructors
+     **********************************************************/
+
+    /**
+     * This class only holds static lookups.
+     */
+    private ConversionTable() {}
+
+
+    /**********************************************************
+     * Methods
+     **********************************************************/
+
+    /**
+     * Returns the index of the given unit in the table.
+     *
+     * @param unit the unit to look up
+     *             | unit != null
+     * @return the ordinal of a fluid unit, or the number of fluid units plus the ordinal of a powder unit
+     */
+    static int indexOf(Unit unit) {
+        if (unit instanceof PowderUnit powderUnit) {
+            return FLUID_UNITS + powderUnit.ordinal();
+        }
+        return ((FluidUnit) unit).ordinal();
+    }
+
+    /**
+     * Returns the amount of 'to' units in one 'from' unit.
+     *
+     * @param from the unit to convert from
+     * @param to the unit to convert to
+     * @return the conversion factor between both units
+     */
+    static double factor(Unit from, Unit to) {
+        return FACTORS[indexOf(from)][indexOf(to)];
+    }
+
+    /**
+     * Returns the amount of ticks in one of the given unit.
+     *
+     * @param unit the unit to look up
+     * @return the amount of ticks in one unit
+     */
+    static long ticks(Unit unit) {
+        return TICKS[indexOf(unit)];
+    }
+
+    /**
+     * Returns the smallest container unit that holds the given amount of ticks.
+     * The capacities are ascending, so the index of the container is the amount of capacities that are too small.
+     *
+     * @param ticks the amount of ticks to contain
+     * @param solid whether the container has to hold a powder
+     * @return the smallest container unit that fits the amount, or the largest container unit if none fits
+     */
+    static Unit smallestContainer(long ticks, boolean solid) {
+        long[] capacities = solid ? POWDER_CONTAINER_TICKS : FLUID_CONTAINER_TICKS;
+        int index = 0;
+        for (long capacity : capacities) {
+            index += ticks > capacity ? 1 : 0;
+        }
+        Unit[] containers = solid ? POWDER_CONTAINERS : FLUID_CONTAINERS;
+        return containers[Math.min(index, containers.length - 1)];
+    }
+
+    /**
+     * Returns the greatest common divisor of two positive numbers.
+     */
+    private static long gcd(long a, long b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+
+    /**
+     * Returns the size of the unit at the given index in spoons.
+     *
+     * @param index the index of the unit
+     * @return the amount of spoons in one unit
+     */
+    private static double spoons(int index) {
+        Unit spoon = UNITS[index] instanceof PowderUnit ? PowderUnit.SPOON : FluidUnit.SPOON;
+        return (double) BASE_SIZES[index] / BASE_SIZES[indexOf(spoon)];
+    }
+}
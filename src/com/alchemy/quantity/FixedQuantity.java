@@ -0,0 +1,256 @@
+package com.alchemy.quantity;
+
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * An immutable quantity stored as an exact whole number of ticks, tagged with the unit it is expressed in.
+ * Every fluid and powder unit is a whole number of ticks (a drop is 3000 ticks and a pinch 4000),
+ * so converting between units, even between a fluid and a powder unit, never loses precision.
+ * Changing the unit only changes the tag; the amount of ticks stays the same.
+ * Nominally programmed.
+ *
+ * @invar The unit of the quantity is always non-null.
+ *
+ * @author MiroVanHoef
+ * @author BenDeMets
+ * @author SimonVandeputte
+ * @version 1.0
+ */
+public final class FixedQuantity implements Comparable<FixedQuantity> {
+
+    /**********************************************************
+     * Variables
+     **********************************************************/
+
+    /**
+     * The amount of the quantity in ticks.
+     */
+    private final long ticks;
+    /**
+     * The unit the quantity is expressed in.
+     */
+    private final Unit unit;
+
+
+    /**********************************************************
+     * Constructors
+     **********************************************************/
+
+    /**
+     * Constructs a new FixedQuantity with the specified amount of ticks and unit.
+     *
+     * @param ticks the amount of the quantity in ticks
+     * @param unit the unit the quantity is expressed in
+     *             | unit != null
+     * @post The ticks and unit of the quantity are set to the specified values.
+     *      | this.ticks = ticks
+     *      | this.unit = unit
+     */
+    @Raw
+    public FixedQuantity(long ticks, Unit unit) {
+        this.ticks = ticks;
+        this.unit = unit;
+    }
+
+    /**
+     * Returns a new FixedQuantity with the specified amount of the specified unit.
+     * The amount is rounded to the nearest tick.
+     *
+     * @param amount the amount of the quantity
+     * @param unit the unit of the quantity
+     *             | unit != null
+     * @return a quantity of the specified amount of the specified unit
+     *      | result.getTicks() == toTicks(amount, unit)
+     */
+    public static FixedQuantity of(double amount, Unit unit) {
+        return new FixedQuantity(toTicks(amount, unit), unit);
+    }
+
+
+    /**********************************************************
+     * Getters
+     **********************************************************/
+
+    /**
+     * Returns the amount of this quantity in ticks.
+     *
+     * @return the amount of ticks
+     */
+    @Basic
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Returns the unit this quantity is expressed in.
+     *
+     * @return the unit of this quantity
+     */
+    @Basic
+    public Unit getUnit() {
+        return unit;
+    }
+
+    /**
+     * Returns the amount of this quantity in its own unit.
+     *
+     * @return the amount of this quantity
+     */
+    public double getAmount() {
+        return toAmount(ticks, unit);
+    }
+
+    /**
+     * Returns the amount of this quantity in the specified unit.
+     *
+     * @param unit the unit to express the amount in
+     *             | unit != null
+     * @return the amount of this quantity in the specified unit
+     */
+    public double getAmount(Unit unit) {
+        return toAmount(ticks, unit);
+    }
+
+
+    /**********************************************************
+     * Methods
+     **********************************************************/
+
+    /**
+     * Returns this quantity expressed in the specified unit.
+     *
+     * @param unit the unit to express the quantity in
+     *             | unit != null
+     * @return a quantity with the same amount of ticks and the specified unit
+     */
+    public FixedQuantity in(Unit unit) {
+        return unit == this.unit ? this : new FixedQuantity(ticks, unit);
+    }
+
+    /**
+     * Returns this quantity expressed in the base unit of its own type.
+     *
+     * @return a quantity with the same amount of ticks, expressed in the base unit
+     */
+    public FixedQuantity inBaseUnit() {
+        return in(unit.getBaseUnit());
+    }
+
+    /**
+     * Returns the sum of this quantity and the specified quantity, expressed in the unit of this quantity.
+     *
+     * @param quantity the quantity to add
+     *                 | quantity != null
+     * @return the sum of both quantities
+     * @throws ArithmeticException if the sum does not fit in a long
+     */
+    public FixedQuantity plus(FixedQuantity quantity) {
+        return new FixedQuantity(Math.addExact(ticks, quantity.ticks), unit);
+    }
+
+    /**
+     * Returns the difference of this quantity and the specified quantity, expressed in the unit of this quantity.
+     *
+     * @param quantity the quantity to subtract
+     *                 | quantity != null
+     * @return the difference of both quantities
+     * @throws ArithmeticException if the difference does not fit in a long
+     */
+    public FixedQuantity minus(FixedQuantity quantity) {
+        return new FixedQuantity(Math.subtractExact(ticks, quantity.ticks), unit);
+    }
+
+    /**
+     * Returns this quantity multiplied by the specified factor.
+     *
+     * @param factor the factor to multiply with
+     * @return the scaled quantity
+     * @throws ArithmeticException if the product does not fit in a long
+     */
+    public FixedQuantity times(long factor) {
+        return new FixedQuantity(Math.multiplyExact(ticks, factor), unit);
+    }
+
+    /**
+     * Compares this quantity with the specified quantity.
+     *
+     * @param quantity the quantity to compare with
+     *                 | quantity != null
+     * @return a negative number, zero or a positive number if this quantity is smaller than, equal to or greater than the specified quantity
+     */
+    @Override
+    public int compareTo(FixedQuantity quantity) {
+        return Long.compare(ticks, quantity.ticks);
+    }
+
+    /**
+     * Checks whether this quantity holds the same amount as the specified object, regardless of the unit.
+     *
+     * @param other the object to compare with
+     * @return true if the object is a FixedQuantity with the same amount of ticks
+     */
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof FixedQuantity quantity && quantity.ticks == ticks;
+    }
+
+    /**
+     * Returns the hash code of this quantity.
+     *
+     * @return a hash code based on the amount of ticks
+     */
+    @Override
+    public int hashCode() {
+        return Long.hashCode(ticks);
+    }
+
+    /**
+     * Returns a string representation of this quantity.
+     *
+     * @return the amount followed by the name of the unit
+     */
+    @Override
+    public String toString() {
+        return (float) getAmount() + " " + unit.getName();
+    }
+
+
+    /**********************************************************
+     * Static helpers
+     **********************************************************/
+
+    /**
+     * Returns the amount of ticks in one of the specified unit.
+     *
+     * @param unit the unit to look up
+     *             | unit != null
+     * @return the amount of ticks in one unit
+     */
+    public static long ticksPer(Unit unit) {
+        return ConversionTable.ticks(unit);
+    }
+
+    /**
+     * Converts an amount of the specified unit to ticks, rounded to the nearest tick.
+     *
+     * @param amount the amount to convert
+     * @param unit the unit of the amount
+     *             | unit != null
+     * @return the amount of ticks
+     */
+    public static long toTicks(double amount, Unit unit) {
+        return Math.round(amount * ConversionTable.ticks(unit));
+    }
+
+    /**
+     * Converts an amount of ticks to the specified unit.
+     *
+     * @param ticks the amount of ticks
+     * @param unit the unit to convert to
+     *             | unit != null
+     * @return the amount in the specified unit
+     */
+    public static double toAmount(long ticks, Unit unit) {
+        return (double) ticks / ConversionTable.ticks(unit);
+    }
+}
@@ -90,7 +90,7 @@ public enum FluidUnit implements Unit {
      */
     @Override @Basic
     public FluidUnit getBaseUnit() {
-        return values()[0];
+        return DROP;
     }
 
     /**
@@ -91,7 +91,7 @@ public enum PowderUnit implements Unit {
      */
     @Override @Basic
     public PowderUnit getBaseUnit() {
-        return values()[0];
+        return PINCH;
     }
 
     /**
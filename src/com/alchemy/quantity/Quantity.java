@@ -1,9 +1,9 @@
 package com.alchemy.quantity;
 import be.kuleuven.cs.som.annotate.*;
-import java.util.Objects;
 
 /**
  * Represents a quantity with a specific amount and unit.
+ * The amount is kept as an exact FixedQuantity, so converting and comparing quantities never drifts.
  * Nominally programmed.
  *
  * @invar The amount of the quantity is always non-negative.
@@ -21,13 +21,9 @@ public class Quantity {
      **********************************************************/
 
     /**
-     * The amount of the quantity. (in the unit specified by the unit variable)
+     * The exact amount and unit of the quantity.
      */
-    private Float amount;
-    /**
-     * The unit of the quantity.
-     */
-    private Unit unit;
+    private FixedQuantity value;
 
 
     /**********************************************************
@@ -62,8 +58,20 @@ public class Quantity {
      */
     @Raw
     public Quantity(Float amount, Unit unit) {
-        this.amount = amount;
-        this.unit = unit;
+        this(FixedQuantity.of(amount, unit));
+    }
+
+    /**
+     * Constructs a new Quantity with the specified exact value.
+     *
+     * @param value the amount and unit of the quantity
+     *           | value != null
+     * @post The value of the quantity is set to the specified value.
+     *          | this.value = value
+     */
+    @Raw
+    public Quantity(FixedQuantity value) {
+        this.value = value;
     }
 
 
@@ -86,9 +94,11 @@ public class Quantity {
      */
     @Raw
     public Float convertTo(Unit unit) {
-        this.amount = this.unit.convertTo(unit, this.amount);
-        this.unit = unit;
-        return amount;
+        if (this.value.getUnit().getBaseUnit() != unit.getBaseUnit()) {
+            throw new IllegalArgumentException("Cannot convert " + this.value.getUnit().getName() + " to " + unit.getName() + " of another type");
+        }
+        this.value = this.value.in(unit);
+        return getAmount();
     }
 
     /**
@@ -102,9 +112,7 @@ public class Quantity {
      */
     @Raw
     public Float convertToBase() {
-        this.amount = this.unit.convertToBase(this.amount);
-        this.unit = this.unit.getBaseUnit();
-        return amount;
+        return convertTo(this.value.getUnit().getBaseUnit());
     }
 
     /**
@@ -122,11 +130,9 @@ public class Quantity {
      */
     @Raw
     public Float convertToFluidUnit(FluidUnit unit) {
-        // storerooms and spoons are the same for both fluid and powder units
-        this.convertTo(PowderUnit.SPOON);
-        this.unit = FluidUnit.SPOON;
-        this.convertTo(unit);
-        return amount;
+        // storerooms and spoons are the same for both fluid and powder units, so only the unit changes
+        this.value = this.value.in(unit);
+        return getAmount();
     }
 
     /**
@@ -144,11 +150,41 @@ public class Quantity {
      */
     @Raw
     public Float convertToPowderUnit(PowderUnit unit) {
-        // storerooms and spoons are the same for both fluid and powder units
-        this.convertTo(FluidUnit.SPOON);
-        this.unit = PowderUnit.SPOON;
-        this.convertTo(unit);
-        return(amount);
+        // storerooms and spoons are the same for both fluid and powder units, so only the unit changes
+        this.value = this.value.in(unit);
+        return getAmount();
+    }
+
+    /**
+     * Returns the amount of this quantity expressed in the specified unit, without converting this quantity.
+     * Fluid and powder units are converted through the spoon.
+     *
+     * @param unit the unit to express the amount in
+     *      | unit != null
+     * @return the amount of this quantity in the specified unit
+     *      | result == this.amount * this.unit.getConversionFactor(unit)
+     */
+    public float getAmount(Unit unit) {
+        return (float) value.getAmount(unit);
+    }
+
+    /**
+     * Returns the amount of this quantity in its current unit.
+     *
+     * @return the amount of this quantity
+     */
+    public float getAmount() {
+        return (float) value.getAmount();
+    }
+
+    /**
+     * Returns the exact amount and unit of this quantity.
+     *
+     * @return the immutable value of this quantity
+     */
+    @Basic
+    public FixedQuantity getValue() {
+        return value;
     }
 
     /**
@@ -158,7 +194,7 @@ public class Quantity {
      */
     @Basic
     public boolean isFluidUnit() {
-        return unit instanceof FluidUnit;
+        return value.getUnit() instanceof FluidUnit;
     }
 
     /**
@@ -168,7 +204,7 @@ public class Quantity {
      */
     @Basic
     public boolean isPowderUnit() {
-        return unit instanceof PowderUnit;
+        return value.getUnit() instanceof PowderUnit;
     }
 
     /**
@@ -191,25 +227,7 @@ public class Quantity {
      * @pre The unit of this quantity is a fluid unit.
      */
     public Unit getSmallestFluidContainer() {
-        Unit smallestContainerUnit = null;
-        Float smallestContainerAmount = Float.MAX_VALUE;
-
-        for (Unit other : FluidUnit.values()) {
-            if (Objects.equals(other, FluidUnit.DROP) || Objects.equals(other, FluidUnit.STOREROOM)) {
-                continue; // skip smallest and largest unit
-            }
-            Float converted = unit.convertTo(other, amount);
-            if (smallestContainerAmount > 1 && converted < smallestContainerAmount) {
-                smallestContainerAmount = converted;
-                smallestContainerUnit = other;
-            } else if (smallestContainerAmount <= 1 && converted > smallestContainerAmount && converted <= 1) {
-                smallestContainerAmount = converted;
-                smallestContainerUnit = other;
-
-            }
-        }
-
-        return smallestContainerUnit;
+        return getSmallestContainer(value.getTicks(), false);
     }
 
     /**
@@ -219,24 +237,36 @@ public class Quantity {
      * @pre The unit of this quantity is a powder unit.
      */
     public Unit getSmallestPowderContainer() {
-        Unit smallestContainerUnit = null;
-        Float smallestContainerAmount = Float.MAX_VALUE;
-
-            for (Unit other : PowderUnit.values()) {
-                if (Objects.equals(other, PowderUnit.PINCH) || Objects.equals(other, PowderUnit.STOREROOM)) {
-                    continue; // skip smallest and largest unit
-                }
-                Float converted = unit.convertTo(other, amount);
-                if (smallestContainerAmount > 1 && converted < smallestContainerAmount) {
-                    smallestContainerAmount = converted;
-                    smallestContainerUnit = other;
-                } else if (smallestContainerAmount <= 1 && converted > smallestContainerAmount && converted <= 1) {
-                    smallestContainerAmount = converted;
-                    smallestContainerUnit = other;
-
-                }
-            }
-        return smallestContainerUnit;
+        return getSmallestContainer(value.getTicks(), true);
+    }
+
+    /**
+     * Returns the smallest container unit that fits the specified amount of ticks.
+     * If the amount does not fit in any container, the largest container unit is returned.
+     *
+     * @param ticks the amount to contain, in ticks
+     * @param solid whether the amount is a powder
+     * @return the smallest powder container unit if solid, the smallest fluid container unit otherwise
+     */
+    public static Unit getSmallestContainer(long ticks, boolean solid) {
+        return ConversionTable.smallestContainer(ticks, solid);
+    }
+
+    /**
+     * Assigns the smallest container unit to every amount of the specified array, in one pass.
+     *
+     * @param ticks the amounts to contain, in ticks
+     *              | ticks != null
+     * @param solid whether the amounts are powders
+     * @param containers the array the container units are written to
+     *                   | containers.length >= ticks.length
+     * @effect Every element of containers is set to the smallest container of the amount at the same index.
+     *      | for (int i = 0; i < ticks.length; i++) { containers[i] = getSmallestContainer(ticks[i], solid) }
+     */
+    public static void getSmallestContainers(long[] ticks, boolean solid, Unit[] containers) {
+        for (int i = 0; i < ticks.length; i++) {
+            containers[i] = ConversionTable.smallestContainer(ticks[i], solid);
+        }
     }
 
     /**
@@ -246,7 +276,7 @@ public class Quantity {
      */
     @Basic
     public Unit getUnit(){
-        return this.unit;
+        return this.value.getUnit();
     }
 
     /**
@@ -258,7 +288,7 @@ public class Quantity {
      * @pre The unit of this quantity is of the same type as the unit of the specified quantity.
      */
     public boolean isGreaterThan(Quantity quantity) {
-        return this.unit.convertToBase(this.amount) > quantity.unit.convertToBase(quantity.amount);
+        return this.value.getTicks() > quantity.value.getTicks();
     }
 
     /**
@@ -271,7 +301,7 @@ public class Quantity {
      * @pre The unit of this quantity is of the same type as the specified unit.
      */
     public boolean isGreaterThan(Unit unit, float amount) {
-        return this.isGreaterThan(new Quantity(amount, unit));
+        return this.value.getTicks() > FixedQuantity.toTicks(amount, unit);
     }
 
     /**
@@ -283,7 +313,7 @@ public class Quantity {
      * @pre The unit of this quantity is of the same type as the unit of the specified quantity.
      */
     public boolean isSmallerThan(Quantity quantity) {
-        return this.unit.convertToBase(this.amount) < quantity.unit.convertToBase(quantity.amount);
+        return this.value.getTicks() < quantity.value.getTicks();
     }
 
     /**
@@ -295,7 +325,7 @@ public class Quantity {
      * @pre The unit of this quantity is of the same type as the specified unit.
      */
     public boolean isSmallerThan(Unit unit, float amount) {
-        return this.isSmallerThan(new Quantity(amount, unit));
+        return this.value.getTicks() < FixedQuantity.toTicks(amount, unit);
     }
 
     /**
@@ -307,8 +337,7 @@ public class Quantity {
      * @pre The unit of this quantity is of the same type as the unit of the specified quantity.
      */
     public boolean isEqualTo(Quantity quantity) {
-        float EPSILON = 0.001f;
-        return Math.abs(this.unit.convertToBase(this.amount) - quantity.unit.convertToBase(quantity.amount)) < EPSILON;
+        return this.value.getTicks() == quantity.value.getTicks();
     }
 
     /**
@@ -321,7 +350,7 @@ public class Quantity {
      * @pre The unit of this quantity is of the same type as the specified unit.
      */
     public boolean isEqualTo(Unit unit, float amount) {
-        return this.isEqualTo(new Quantity(amount, unit));
+        return this.value.getTicks() == FixedQuantity.toTicks(amount, unit);
     }
 
     /**
@@ -333,7 +362,7 @@ public class Quantity {
      * @pre The unit of this quantity is of the same type as the unit of the specified quantity.
      */
     public boolean isGreaterThanOrEqualTo(Quantity quantity) {
-        return this.unit.convertToBase(this.amount) > quantity.unit.convertToBase(quantity.amount) || this.isEqualTo(quantity);
+        return this.value.getTicks() >= quantity.value.getTicks();
     }
 
     /**
@@ -346,7 +375,7 @@ public class Quantity {
      * @pre The unit of this quantity is of the same type as the specified unit.
      */
     public boolean isGreaterThanOrEqualTo(Unit unit, float amount) {
-        return this.isGreaterThanOrEqualTo(new Quantity(amount, unit));
+        return this.value.getTicks() >= FixedQuantity.toTicks(amount, unit);
     }
 
     /**
@@ -358,7 +387,7 @@ public class Quantity {
      * @pre The unit of this quantity is of the same type as the unit of the specified quantity.
      */
     public boolean isSmallerThanOrEqualTo(Quantity quantity) {
-        return this.unit.convertToBase(this.amount) < quantity.unit.convertToBase(quantity.amount) || this.isEqualTo(quantity);
+        return this.value.getTicks() <= quantity.value.getTicks();
     }
 
     /**
@@ -370,7 +399,7 @@ public class Quantity {
      * @pre The unit of this quantity is of the same type as the specified unit.
      */
     public boolean isSmallerThanOrEqualTo(Unit unit, float amount) {
-        return this.isSmallerThanOrEqualTo(new Quantity(amount, unit));
+        return this.value.getTicks() <= FixedQuantity.toTicks(amount, unit);
     }
 
     /**
@@ -380,6 +409,6 @@ public class Quantity {
      */
     @Basic
     public String toString() {
-        return amount + " " + unit.getName();
+        return value.toString();
     }
 }
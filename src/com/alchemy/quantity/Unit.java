@@ -29,9 +29,24 @@ public interface Unit {
      * @param unit The unit to convert to
      * @param amount The amount to convert
      * @return The converted amount
+     * @throws IllegalArgumentException if the specified unit is not of the same type as this unit
      */
     default Float convertTo(Unit unit, Float amount) {
-        return amount * getConversionMap().get(unit);
+        if (getBaseUnit() != unit.getBaseUnit()) {
+            throw new IllegalArgumentException("Cannot convert " + getName() + " to " + unit.getName() + " of another type");
+        }
+        return (float) (amount * getConversionFactor(unit));
+    }
+
+    /**
+     * Returns the amount of the specified unit in one of this unit.
+     * Fluid and powder units are converted through the spoon, which holds the same amount for both types.
+     *
+     * @param unit The unit to convert to
+     * @return The conversion factor from this unit to the specified unit
+     */
+    default double getConversionFactor(Unit unit) {
+        return ConversionTable.factor(this, unit);
     }
 
     /**
@@ -0,0 +1,239 @@
+package com.alchemy.recipes;
+
+import be.kuleuven.cs.som.annotate.*;
+import com.alchemy.AlchemicIngredient;
+import com.alchemy.Laboratory;
+import com.alchemy.RecipePlan;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Executes the recipes of a recipe book in parallel on a pool of laboratories.
+ * Every recipe is a task of a work-stealing pool with one worker per laboratory.
+ * A task borrows a free laboratory, so the laboratory and its devices are only used by one task at a time,
+ * and gives it back when the recipe is done.
+ * Every recipe gets its own result, holding what it made or why it failed.
+ * Defensively programmed.
+ *
+ * @invar Every laboratory of the pool is a different laboratory.
+ *
+ * @author MiroVanHoef
+ * @author BenDeMets
+ * @author SimonVandeputte
+ * @version 1.0
+ */
+public class RecipeExecutor implements AutoCloseable {
+
+    /**********************************************************
+     * Variables
+     **********************************************************/
+
+    /**
+     * The laboratories that are not executing a recipe right now.
+     */
+    private final BlockingQueue<Laboratory> freeLaboratories;
+
+    /**
+     * The compiled plans of every laboratory, by recipe.
+     * A laboratory is only used by one task at a time, so its plans are too.
+     */
+    private final Map<Laboratory, Map<Recipe, RecipePlan>> plans = new IdentityHashMap<>();
+
+    /**
+     * The pool executing the recipes.
+     */
+    private final ForkJoinPool pool;
+
+
+    /**********************************************************
+     * Constructors
+     **********************************************************/
+
+    /**
+     * Constructs a new RecipeExecutor with the specified laboratories.
+     *
+     * @param laboratories the laboratories to execute recipes in
+     *                     | !laboratories.isEmpty()
+     * @throws IllegalArgumentException if there are no laboratories, or if a laboratory is null or given twice
+     */
+    @Raw
+    public RecipeExecutor(List<Laboratory> laboratories) {
+        if (laboratories.isEmpty()) {
+            throw new IllegalArgumentException("The executor needs at least one laboratory.");
+        }
+        freeLaboratories = new ArrayBlockingQueue<>(laboratories.size());
+        for (Laboratory laboratory : laboratories) {
+            if (laboratory == null || plans.containsKey(laboratory)) {
+                throw new IllegalArgumentException("The laboratories must be different and cannot be null.");
+            }
+            plans.put(laboratory, new HashMap<>());
+            freeLaboratories.add(laboratory);
+        }
+        pool = new ForkJoinPool(laboratories.size());
+    }
+
+
+    /**********************************************************
+     * Methods
+     **********************************************************/
+
+    /**
+     * Executes all recipes of a recipe book, spread over the laboratories.
+     * The recipes are independent of each other, so they can be executed in any order.
+     *
+     * @param recipeBook the recipes to execute
+     * @return the result of every recipe, in the order of the recipe book
+     */
+    public List<Result> execute(RecipeBook recipeBook) {
+        return execute(recipeBook.getRecipes());
+    }
+
+    /**
+     * Executes the given recipes, spread over the laboratories.
+     *
+     * @param recipes the recipes to execute
+     * @return the result of every recipe, in the order of the recipes
+     */
+    public List<Result> execute(List<Recipe> recipes) {
+        List<ForkJoinTask<Result>> tasks = new ArrayList<>(recipes.size());
+        for (Recipe recipe : recipes) {
+            tasks.add(pool.submit(() -> executeOnFreeLaboratory(recipe)));
+        }
+        List<Result> results = new ArrayList<>(tasks.size());
+        for (ForkJoinTask<Result> task : tasks) {
+            results.add(task.join());
+        }
+        return results;
+    }
+
+    /**
+     * Borrows a free laboratory, executes a recipe in it and gives it back.
+     */
+    private Result executeOnFreeLaboratory(Recipe recipe) throws InterruptedException {
+        Laboratory[] borrowed = new Laboratory[1];
+        ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+            @Override
+            public boolean block() throws InterruptedException {
+                borrowed[0] = freeLaboratories.take();
+                return true;
+            }
+
+            @Override
+            public boolean isReleasable() {
+                return borrowed[0] != null || (borrowed[0] = freeLaboratories.poll()) != null;
+            }
+        });
+        Laboratory laboratory = borrowed[0];
+        try {
+            RecipePlan plan = plans.get(laboratory).get(recipe);
+            if (plan == null) {
+                plan = laboratory.compileRecipe(recipe);
+                plans.get(laboratory).put(recipe, plan);
+            }
+            return new Result(recipe, laboratory, plan.execute(), null);
+        } catch (Exception e) {
+            return new Result(recipe, laboratory, null, e);
+        } finally {
+            freeLaboratories.add(laboratory);
+        }
+    }
+
+    /**
+     * Stops the workers of the executor once the recipes that were handed to it are done.
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+
+    /**********************************************************
+     * Results
+     **********************************************************/
+
+    /**
+     * The outcome of executing one recipe.
+     */
+    public static final class Result {
+
+        /**
+         * The recipe that was executed.
+         */
+        private final Recipe recipe;
+
+        /**
+         * The laboratory the recipe was executed in.
+         */
+        private final Laboratory laboratory;
+
+        /**
+         * The ingredient the recipe made, null if it failed or made nothing.
+         */
+        private final AlchemicIngredient product;
+
+        /**
+         * Why the recipe failed, null if it succeeded.
+         */
+        private final Exception failure;
+
+        private Result(Recipe recipe, Laboratory laboratory, AlchemicIngredient product, Exception failure) {
+            this.recipe = recipe;
+            this.laboratory = laboratory;
+            this.product = product;
+            this.failure = failure;
+        }
+
+        /**
+         * Returns the recipe that was executed.
+         */
+        @Basic
+        public Recipe getRecipe() {
+            return recipe;
+        }
+
+        /**
+         * Returns the laboratory the recipe was executed in.
+         */
+        @Basic
+        public Laboratory getLaboratory() {
+            return laboratory;
+        }
+
+        /**
+         * Returns the ingredient the recipe made, which is stored in the laboratory of the result.
+         *
+         * @return the product of the recipe, null if the recipe failed or made nothing
+         */
+        @Basic
+        public AlchemicIngredient getProduct() {
+            return product;
+        }
+
+        /**
+         * Returns why the recipe failed.
+         *
+         * @return the exception the recipe failed with, null if it succeeded
+         */
+        @Basic
+        public Exception getFailure() {
+            return failure;
+        }
+
+        /**
+         * Checks if the recipe was executed without failing.
+         *
+         * @return true if the recipe did not fail
+         */
+        public boolean isSuccess() {
+            return failure == null;
+        }
+    }
+}
@@ -1,8 +1,10 @@
 import com.alchemy.AlchemicIngredient;
 import com.alchemy.IngredientConditions.Device;
 import com.alchemy.IngredientConditions.Kettle;
+import com.alchemy.IngredientConditions.Oven;
 import com.alchemy.IngredientContainer;
 import com.alchemy.IngredientName;
+import com.alchemy.IngredientType;
 import com.alchemy.IngredientConditions.Temperature;
 import com.alchemy.IngredientConditions.IngredientState;
 import com.alchemy.Laboratory;
@@ -81,6 +83,24 @@ public class AlchemicIngredientTest {
         }
     }
 
+    @Test
+    public void testNameValidation() throws Exception {
+        assertThrows(IngredientName.IllegalNameException.class, () -> new AlchemicIngredient("Two  Spaces", temp,state,10));
+        assertThrows(IngredientName.IllegalNameException.class, () -> new AlchemicIngredient(" Leading Space", temp,state,10));
+        assertThrows(IngredientName.IllegalNameException.class, () -> new AlchemicIngredient("Heated Water", temp,state,10));
+        assertThrows(IngredientName.IllegalSpecialNameException.class, () -> new IngredientName("Name One", "Special"));
+        // a valid name stays valid when it is checked again, and a mixture name stays invalid as a single part
+        for (int i = 0; i < 2; i++) {
+            assertEquals("Trailing Space ", new IngredientName("Trailing Space ").getBasicName());
+            IngredientName mixture = new IngredientName("Name One");
+            mixture.setName("Name One mixed with Name Two");
+            assertEquals(2, mixture.getPartNames().size());
+            mixture.setSpecialName("Special");
+            assertThrows(IngredientName.IllegalNameException.class, () -> new IngredientName(ingredient2.getBasicName()));
+            assertThrows(IngredientName.IllegalNameException.class, () -> new AlchemicIngredient("Valid Name mixed with ", temp,state,10));
+        }
+    }
+
     @Test
     public void testGetBasicName() {
         try {
@@ -130,4 +150,52 @@ public class AlchemicIngredientTest {
             fail("Valid name should not throw an exception: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGetFullNameWithTemperature() throws Exception {
+        AlchemicIngredient other = new AlchemicIngredient(ingredient2.getStandardType(), 5);
+        Laboratory lab = new Laboratory(1);
+        Oven oven = new Oven(0F, 100F);
+        lab.addDevice(oven);
+        oven.addIngredient(new IngredientContainer(ingredient2, ingredient2.getQuantity().getSmallestPowderContainer()));
+        oven.react();
+        AlchemicIngredient heated = oven.getContents().getContent();
+        assertEquals("Heated Another Ingredient mixed with Test Ingredient", heated.getFullName());
+        assertSame(heated.getFullName(), heated.getFullName());
+        heated.setSpecialName("Special Name");
+        assertEquals("Special Name (Heated Another Ingredient mixed with Test Ingredient)", heated.getFullName());
+        // ingredients of the same type don't share their name
+        assertEquals("Another Ingredient mixed with Test Ingredient", other.getFullName());
+        assertNull(other.getSpecialName());
+    }
+
+    @Test
+    public void testInternedType() throws Exception {
+        AlchemicIngredient same = new AlchemicIngredient("Test Ingredient",new Temperature(0,20),IngredientState.State.Powder,5);
+        assertSame(ingredient.getStandardType(), same.getStandardType());
+        assertSame(ingredient.getStandardType(), IngredientType.of("Test Ingredient",temp,state));
+        assertNotSame(ingredient.getStandardType(), new AlchemicIngredient("Test Ingredient",new Temperature(0,30),state,5).getStandardType());
+        assertNotSame(ingredient.getStandardType(), new AlchemicIngredient("Test Ingredient",temp,new IngredientState(false),5).getStandardType());
+        // the type keeps its own standard temperature
+        assertNotSame(temp, ingredient.getStandardType().getStandardTemperature());
+        assertNotSame(ingredient.getTemperature(), ingredient.getStandardType().getStandardTemperature());
+        // a mixture made by a kettle can't be made from its name
+        assertThrows(IngredientName.IllegalNameException.class, () -> new AlchemicIngredient(ingredient2.getBasicName(),temp,state,10));
+        assertSame(ingredient2.getStandardType(), IngredientType.ofMixture(ingredient2.getBasicName(),temp,state));
+        // the special name belongs to the ingredient, not to the type
+        AlchemicIngredient other = new AlchemicIngredient(ingredient2.getStandardType(), 5);
+        ingredient2.setSpecialName("Special");
+        assertNull(other.getSpecialName());
+        // the shared name of a type can't be changed, a name given to a type stays the caller's own
+        IngredientName typeName = ingredient.getStandardType().getName();
+        assertTrue(typeName.isFrozen());
+        assertThrows(IllegalStateException.class, () -> typeName.setName("Other Ingredient"));
+        assertThrows(IllegalStateException.class, () -> typeName.addPrefix("Heated"));
+        assertEquals("Test Ingredient", IngredientType.of("Test Ingredient",temp,state).getName().getBasicName());
+        IngredientName own = new IngredientName("Own Ingredient");
+        new IngredientType(own, temp, state);
+        assertFalse(own.isFrozen());
+        own.setName("Own Other");
+        assertEquals("Own Other", own.getBasicName());
+    }
+}
@@ -6,6 +6,9 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
 
 import static com.alchemy.quantity.PowderUnit.*;
 import static org.junit.Assert.*;
@@ -184,6 +187,24 @@ public class DeviceTest {
         assertTrue(newIngredient.getQuantity().isEqualTo(new Quantity(326,FluidUnit.SPOON)));
     }
     @Test
+    public void KettleTestManyIngredients() throws Exception{
+        Kettle kettle = new Kettle();
+        lab.addDevice(kettle);
+        String[] names = {"Name Two", "Name One", "Name Three"};
+        for (int i = 0; i < 300; i++) {
+            kettle.addIngredient(new AlchemicIngredient(names[i % names.length], new Temperature(0, 20), new IngredientState(false), 2));
+        }
+        kettle.react();
+        AlchemicIngredient mixture = kettle.takeIngredient();
+        assertEquals("Name One mixed with Name Three mixed with Name Two", mixture.getFullName());
+        assertTrue(mixture.getQuantity().isEqualTo(new Quantity(600, FluidUnit.DROP)));
+        assertEquals(20F, mixture.getTemperature().getHotness(), 1E-3);
+        // taking the contents empties the mixture as well
+        kettle.addIngredient(ingredient);
+        kettle.react();
+        assertSame(ingredient, kettle.takeIngredient());
+    }
+    @Test
     public void KettleTestTemperature() throws Exception{
         Kettle kettle = new Kettle();
         lab.addDevice(kettle);
@@ -196,4 +217,111 @@ public class DeviceTest {
         float expectedValue =((float) (5 * (-50)) /8)+((float) (3 * (30)) /8);
         assertTrue(mixedContainer.getContent().getTemperature().getHotness() == expectedValue | mixedContainer.getContent().getTemperature().getColdness() == expectedValue |mixedContainer.getContent().getTemperature().getHotness() == -expectedValue | mixedContainer.getContent().getTemperature().getColdness() == -expectedValue );
     }
+    @Test
+    public void testPackedTemperature() {
+        float packed = PackedTemperature.of(30F, 0F);
+        assertEquals(30F, PackedTemperature.coldness(packed), 0);
+        assertEquals(0F, PackedTemperature.hotness(packed), 0);
+        // a negative change goes the other way instead of recursing
+        assertEquals(PackedTemperature.cool(packed, 10F), PackedTemperature.heat(packed, -10F), 0);
+        assertEquals(20F, PackedTemperature.hotness(PackedTemperature.heat(packed, 50F)), 0);
+        assertEquals(10000F, PackedTemperature.hotness(PackedTemperature.heat(packed, 1E6F)), 0);
+        assertEquals(10000F, PackedTemperature.coldness(PackedTemperature.cool(packed, 1E6F)), 0);
+        assertEquals(50F, PackedTemperature.difference(packed, PackedTemperature.of(0F, 20F)), 0);
+        assertTrue(PackedTemperature.isColderThan(packed, 0F));
+        assertTrue(PackedTemperature.compare(0F, packed) > 0);
+        Temperature temperature = new Temperature(0F, 20000F);
+        assertEquals(10000F, temperature.getHotness(), 0);
+        assertEquals(new Temperature(5, 0), new Temperature(5F, 0F));
+        assertEquals(new Temperature(0, 0).hashCode(), new Temperature(0F, -0F).hashCode());
+    }
+    @Test
+    public void BatchOvenTest() throws Exception {
+        BatchOven oven = new BatchOven(1, 0F, 100F);
+        lab.addDevice(oven);
+        assertSame(oven, lab.getOven());
+        List<IngredientContainer> containers = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            containers.add(new IngredientContainer(new AlchemicIngredient(5F), FluidUnit.VIAL));
+        }
+        oven.addIngredients(containers);
+        assertNull(containers.getFirst().getContent());
+        // a storeroom holds 50400 drops
+        assertEquals(1 - 500 / 50400F, oven.getFreeSpace(), 1E-6);
+        assertThrows(Device.DeviceFullException.class, () -> oven.addIngredient(new AlchemicIngredient(new Quantity(1, FluidUnit.STOREROOM))));
+        oven.react();
+        List<IngredientContainer> heated = oven.getBatchContents();
+        assertEquals(100, heated.size());
+        for (IngredientContainer container : heated) {
+            assertEquals(100F, container.getContent().getTemperature().getHotness(), 5);
+        }
+        assertNull(oven.getContents());
+        assertEquals(1, oven.getFreeSpace(), 0);
+    }
+
+    @Test
+    public void BatchCoolingBoxTest() throws Exception {
+        BatchCoolingBox fridge = new BatchCoolingBox(2, 30F, 0F);
+        assertThrows(IllegalArgumentException.class, () -> new BatchCoolingBox(0));
+        assertThrows(Device.NotInLaboratoryException.class, fridge::react);
+        lab.addDevice(fridge);
+        assertSame(fridge, lab.getCoolingBox());
+        fridge.addIngredient(new AlchemicIngredient(new Quantity(1, FluidUnit.STOREROOM)));
+        fridge.addIngredient(ingredient);
+        fridge.react();
+        List<AlchemicIngredient> cooled = fridge.takeIngredients();
+        assertEquals(2, cooled.size());
+        assertSame(ingredient, cooled.get(1));
+        for (AlchemicIngredient cooledIngredient : cooled) {
+            assertEquals(30F, cooledIngredient.getTemperature().getColdness(), 0);
+        }
+    }
+
+    @Test
+    public void BatchDeviceAddedToLaboratoryTest() throws Exception {
+        BatchCoolingBox fridge = new BatchCoolingBox(1, 30F, 0F);
+        for (int i = 0; i < 3; i++) {
+            fridge.addIngredient(new AlchemicIngredient(5F));
+        }
+        // an ingredient larger than a barrel is spread over barrels
+        fridge.addIngredient(new AlchemicIngredient(new Quantity(2, FluidUnit.BARREL)));
+        // every ingredient of the batch is moved to the storeroom, not only the oldest one
+        lab.addDevice(fridge);
+        assertTrue(fridge.isEmpty());
+        assertEquals(2 * 10080 + 15, lab.getAmount(ingredient.getBasicName(), FluidUnit.DROP), 0);
+        assertEquals(5, lab.getContainers().size());
+        for (IngredientContainer container : lab.getContainers()) {
+            assertNotNull(container.getContent());
+        }
+        assertFalse(lab.getContents(ingredient).isEmpty());
+        IngredientContainer removed = lab.removeIngredient(ingredient.getBasicName(), FluidUnit.BARREL, 1);
+        assertEquals(1, removed.getContent().getQuantity().getAmount(FluidUnit.BARREL), 0);
+        assertEquals(10080 + 15, lab.getAmount(ingredient.getBasicName(), FluidUnit.DROP), 0);
+    }
+
+    @Test
+    public void OvenDeviationTest() throws Exception {
+        BatchOven oven = new BatchOven(1, 0F, 100F);
+        lab.addDevice(oven);
+        oven.setDeviationSource(DeviationSource.replay(-5, 0, 5));
+        for (int i = 0; i < 4; i++) {
+            oven.addIngredient(new AlchemicIngredient(1F));
+        }
+        oven.react();
+        List<AlchemicIngredient> heated = oven.takeIngredients();
+        assertEquals(95F, heated.get(0).getTemperature().getHotness(), 0);
+        assertEquals(100F, heated.get(1).getTemperature().getHotness(), 0);
+        assertEquals(105F, heated.get(2).getTemperature().getHotness(), 0);
+        assertEquals(95F, heated.get(3).getTemperature().getHotness(), 0);
+        // two sources with the same seed draw the same deviations, one at a time or in a batch
+        DeviationSource source = DeviationSource.seeded(42);
+        int[] deviations = new int[100];
+        DeviationSource.seeded(42).nextDeviations(deviations, deviations.length);
+        for (int deviation : deviations) {
+            assertEquals(deviation, source.nextDeviation());
+            assertTrue(Math.abs(deviation) <= DeviationSource.MAX_DEVIATION);
+        }
+        assertThrows(IllegalArgumentException.class, () -> DeviationSource.replay(6));
+        assertThrows(IllegalArgumentException.class, () -> oven.setDeviationSource(null));
+    }
 }
@@ -1,8 +1,29 @@
 import com.alchemy.*;
 import com.alchemy.IngredientConditions.*;
+import com.alchemy.quantity.FixedQuantity;
+import com.alchemy.quantity.FluidUnit;
+import com.alchemy.quantity.PowderUnit;
 import com.alchemy.quantity.Quantity;
+import com.alchemy.recipes.Recipe;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import static org.junit.Assert.*;
 import static com.alchemy.quantity.FluidUnit.*;
 import static com.alchemy.quantity.PowderUnit.*;
@@ -20,6 +41,9 @@ public class LaboratoryTest {
     IngredientState stateSolid = new IngredientState(true);
     IngredientState stateLiquid = new IngredientState(false);
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @Before
     public void setUpFixture(){
         testLab = new Laboratory(1);
@@ -50,6 +74,20 @@ public class LaboratoryTest {
         assertEquals(testLab.getContainers().get(1), containerSolid);
     }
 
+    @Test
+    public void testAddContainers() throws IngredientName.IllegalNameException {
+        ArrayList<IngredientContainer> tooMuch = new ArrayList<>(List.of(containerLiquid));
+        for (int i = 0; i < 5; i++) {       // five full chests fill the storeroom on their own
+            tooMuch.add(new IngredientContainer(new AlchemicIngredient("Exceeding", temp, stateSolid, 7560), CHEST));
+        }
+        assertThrows(IllegalArgumentException.class, () -> testLab.addContainers(tooMuch));
+        assertThrows(IllegalArgumentException.class, () -> testLab.addContainers(List.of(containerLiquid, emptyContainer)));
+        assertTrue(testLab.isEmpty());       // a batch that doesn't fit adds nothing
+        testLab.addContainers(List.of(containerLiquid, containerSolid, exceedingAmount));
+        assertEquals(List.of(containerLiquid, containerSolid, exceedingAmount), testLab.getContainers());
+        assertTrue(testLab.getDevices().isEmpty());       // intake doesn't add devices to the lab
+    }
+
     @Test
     public void testRemoveContainer() throws IngredientName.IllegalNameException {
         testLab.addContainer(containerLiquid);
@@ -65,6 +103,37 @@ public class LaboratoryTest {
         assertThrows(IllegalArgumentException.class, () -> testLab.removeIngredient("Test Liquid", BOTTLE, -50));
     }
 
+    @Test
+    public void testIngredientIndex() throws IngredientName.IllegalNameException {
+        testLab.addContainer(containerLiquid);
+        testLab.addContainer(new IngredientContainer(new AlchemicIngredient("Test Liquid", temp, stateLiquid, 30), BOTTLE));
+        assertTrue(testLab.hasIngredient("Test Liquid", DROP, 80));
+        assertTrue(testLab.hasIngredient("Test Liquid", FluidUnit.SPOON, 10));
+        assertFalse(testLab.hasIngredient("Test Liquid", DROP, 81));
+        assertFalse(testLab.hasIngredient("Test Solid", PINCH, 1));
+        assertEquals(80, testLab.getAmount("Test Liquid", DROP), 0);
+        // takes the whole first container and part of the second one
+        IngredientContainer removed = testLab.removeIngredient("Test Liquid", DROP, 60);
+        assertTrue(removed.getContent().getQuantity().isEqualTo(new Quantity(60, DROP)));
+        assertEquals(20, testLab.getAmount("Test Liquid", DROP), 0);
+        assertEquals(1, testLab.getContainers().size());
+        assertThrows(IllegalArgumentException.class, () -> testLab.removeIngredient("Test Liquid", DROP, 21));
+        assertEquals(20, testLab.getAmount("Test Liquid", DROP), 0);     // nothing is removed when there is not enough
+    }
+
+    @Test
+    public void testFilledSpace() throws IngredientName.IllegalNameException {
+        assertEquals(0, testLab.getFilledSpace(), 0);
+        testLab.addContainer(exceedingAmount);
+        testLab.addContainer(containerLiquid);
+        assertEquals(0.2, testLab.getFilledSpace(true), 1e-6);      // a chest is a fifth of a storeroom
+        assertEquals(1.0 / 420, testLab.getFilledSpace(false), 1e-6);     // a bottle is 1/420th of a storeroom
+        assertEquals(1 - 0.2 - 1.0 / 420, testLab.getFreeSpace(), 1e-6);
+        testLab.removeIngredient("Exceeding", PINCH, 7560);
+        assertEquals(0, testLab.getFilledSpace(true), 0);
+        assertEquals(testLab.getFilledSpace(false), testLab.getFilledSpace(), 0);
+    }
+
     @Test
     public void testAddStoreroom() {
         testLab.addStorerooms(0);
@@ -110,6 +179,21 @@ public class LaboratoryTest {
         assertEquals(2, testLab.getStoreroom());
     }
 
+    @Test
+    public void testWithdrawKeepsOrder() throws IngredientName.IllegalNameException {
+        for (Laboratory lab : new Laboratory[]{testLab, new Laboratory(1, 1, true)}) {
+            lab.addContainer(new IngredientContainer(new AlchemicIngredient("Test Liquid", temp, stateLiquid, 30), BOTTLE));
+            lab.addContainer(new IngredientContainer(new AlchemicIngredient("Test Liquid", temp, stateLiquid, 50), BOTTLE));
+            lab.removeIngredient("Test Liquid", FluidUnit.SPOON, 1);
+            // the rest of the oldest container is still the oldest container
+            List<IngredientContainer> containers = lab.getLabContainers();
+            assertEquals(22, containers.get(0).getContent().getQuantity().getValue().getAmount(), 0);
+            assertEquals(50, containers.get(1).getContent().getQuantity().getValue().getAmount(), 0);
+            lab.removeIngredient("Test Liquid", DROP, 30);
+            assertEquals(42, lab.getLabContainers().getFirst().getContent().getQuantity().getValue().getAmount(), 0);
+        }
+    }
+
     @Test
     public void testGetContents() {
         assertEquals("The lab is empty", testLab.getContents());        //empty lab gives special string
@@ -117,6 +201,45 @@ public class LaboratoryTest {
         testLab.addContainer(containerSolid);
         assertEquals("The lab contains: 50.0 drop of Test Liquid, 50.0 pinch of Test Solid", testLab.getContents());    //different String might be better
         assertEquals("The lab contains: 50.0 drop of Test Liquid", testLab.getContents(ingredientLiquid));
+        assertEquals("The lab contains: 50.0 pinch of Test Solid", testLab.getContents(ingredientSolid));
+        assertEquals("", testLab.getContents(exceedingIngredient));
+        // reporting in base units leaves the stored quantities untouched
+        ingredientSolid.getQuantity().convertTo(PowderUnit.SPOON);
+        testLab.getContents();
+        assertEquals(PowderUnit.SPOON, ingredientSolid.getQuantity().getUnit());
+    }
+
+    @Test
+    public void testGetContentsOfKind() throws Exception {
+        Path directory = folder.newFolder().toPath();
+        for (Laboratory lab : List.of(testLab, Laboratory.aggregated(1, 1), new Laboratory(1, 1, directory))) {
+            lab.addContainer(new IngredientContainer(new AlchemicIngredient("Test Liquid", temp, stateLiquid, 50), BOTTLE));
+            // another ingredient of the same kind is found, whatever its quantity
+            assertEquals("The lab contains: 50.0 drop of Test Liquid", lab.getContents(new AlchemicIngredient("Test Liquid", temp, stateLiquid, 10)));
+            assertEquals("", lab.getContents(new AlchemicIngredient("Test Liquid", new Temperature(0, 30), stateLiquid, 50)));
+            assertEquals("", lab.getContents(new AlchemicIngredient("Test Liquid", temp, stateSolid, 50)));
+            assertEquals("", lab.getContents(ingredientSolid));
+        }
+    }
+
+    @Test
+    public void testInventoryReporter() throws Exception {
+        assertEquals(0, InventoryReporter.lines(testLab).count());
+        testLab.addContainer(containerSolid);
+        testLab.addContainer(containerLiquid);
+        testLab.addContainer(new IngredientContainer(new AlchemicIngredient("Test Liquid", temp, stateLiquid, 30), BOTTLE));
+        // one line per ingredient with the total of its containers, ordered by name
+        assertEquals(List.of("80.0 drop of Test Liquid", "50.0 pinch of Test Solid"), InventoryReporter.lines(testLab).toList());
+        assertEquals("The lab contains: 80.0 drop of Test Liquid, 50.0 pinch of Test Solid", testLab.getContents());
+        StringBuilder report = new StringBuilder();
+        InventoryReporter.write(testLab, report);
+        assertEquals("80.0 drop of Test Liquid\n50.0 pinch of Test Solid\n", report.toString());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        InventoryReporter.write(testLab, Channels.newChannel(bytes));
+        assertEquals(report.toString(), bytes.toString(StandardCharsets.UTF_8));
+        // the containers themselves are left as they were stored
+        assertEquals(3, testLab.getContainers().size());
+        assertEquals(30, testLab.getContainers().getLast().getContent().getQuantity().getValue().getAmount(), 0);
     }
 
     @Test
@@ -129,5 +252,516 @@ public class LaboratoryTest {
         assertThrows(Device.NotInLaboratoryException.class, fridge2::react);
 
     }
-}
 
+    @Test
+    public void testDevicesPerKind() throws Laboratory.LaboratoryFullException {
+        Laboratory bigLab = new Laboratory(1, 2);
+        Oven oven = new Oven();
+        Oven oven2 = new Oven();
+        Kettle kettle = new Kettle();
+        bigLab.addDevice(oven);
+        assertThrows(Laboratory.LaboratoryFullException.class, () -> bigLab.addDevice(oven));     // the same device can't be added twice
+        bigLab.addDevice(oven2);
+        bigLab.addDevice(kettle);
+        assertThrows(Laboratory.LaboratoryFullException.class, () -> bigLab.addDevice(new Oven()));
+        assertSame(oven, bigLab.getOven());
+        assertSame(kettle, bigLab.getKettle());
+        assertNull(bigLab.getCoolingBox());
+        assertEquals(List.of(oven, oven2), bigLab.getDevices(Oven.class));
+        bigLab.removeDevice(oven);
+        assertSame(oven2, bigLab.getOven());
+        assertEquals(2, bigLab.getDevices().size());
+        assertThrows(IllegalArgumentException.class, () -> new Laboratory(1, 0));
+    }
+
+    @Test
+    public void testCompileRecipe() throws Exception {
+        testLab.addContainer(containerLiquid);
+        testLab.addContainer(containerSolid);
+        AlchemicIngredient liquidPart = new AlchemicIngredient("Test Liquid", temp, stateLiquid, 20);
+        AlchemicIngredient solidPart = new AlchemicIngredient("Test Solid", temp, stateSolid, 20);
+        Recipe recipe = new Recipe(new Recipe.ActionType[]{Recipe.ActionType.ADD, Recipe.ActionType.HEAT, Recipe.ActionType.ADD},
+                new AlchemicIngredient[]{liquidPart, solidPart});
+        assertThrows(Laboratory.LaboratoryMissingDeviceException.class, () -> testLab.compileRecipe(recipe));
+        testLab.addDevice(new Oven());
+        testLab.addDevice(new Kettle());
+        RecipePlan plan = testLab.compileRecipe(recipe);
+        assertTrue(plan.canExecute());
+        AlchemicIngredient mixture = plan.execute();
+        assertEquals(30, testLab.getAmount("Test Liquid", DROP), 0);
+        assertEquals(30, testLab.getAmount("Test Solid", PINCH), 0);
+        assertTrue(testLab.getContainers().stream().anyMatch(container -> container.getContent() == mixture));
+        plan.execute();
+        assertFalse(plan.canExecute());       // only 10 drops and 10 pinches are left
+        assertThrows(IllegalArgumentException.class, plan::execute);
+        assertEquals(10, testLab.getAmount("Test Liquid", DROP), 0);
+        assertThrows(IllegalArgumentException.class, () -> testLab.compileRecipe(
+                new Recipe(new Recipe.ActionType[]{Recipe.ActionType.COOL}, new AlchemicIngredient[0])));
+    }
+
+    @Test
+    public void testReserveRecipe() throws Exception {
+        testLab.addContainer(containerLiquid);
+        testLab.addContainer(containerSolid);
+        testLab.addDevice(new Kettle());
+        RecipePlan plan = testLab.compileRecipe(new Recipe(new Recipe.ActionType[]{Recipe.ActionType.ADD, Recipe.ActionType.ADD, Recipe.ActionType.MIX},
+                new AlchemicIngredient[]{new AlchemicIngredient("Test Liquid", temp, stateLiquid, 20), new AlchemicIngredient("Test Solid", temp, stateSolid, 20)}));
+        // a reservation takes the ingredients out and claims the space of the result until it is used
+        RecipePlan.Reservation reservation = plan.reserve();
+        assertEquals(30, testLab.getAmount("Test Liquid", DROP), 0);
+        reservation.cancel();
+        assertFalse(reservation.isOpen());
+        assertEquals(50, testLab.getAmount("Test Liquid", DROP), 0);
+        assertEquals(50, testLab.getAmount("Test Solid", PINCH), 0);
+        assertThrows(IllegalArgumentException.class, () -> plan.execute(reservation));
+
+        RecipePlan.Reservation next = plan.reserve();
+        AlchemicIngredient mixture = plan.execute(next);
+        assertEquals(30, testLab.getAmount("Test Liquid", DROP), 0);
+        assertTrue(testLab.getContainers().stream().anyMatch(container -> container.getContent() == mixture));
+        assertThrows(IllegalArgumentException.class, () -> plan.execute(next));
+
+        // a device that is gone is found before anything is taken out
+        testLab.removeDevice(testLab.getKettle());
+        assertThrows(Laboratory.LaboratoryMissingDeviceException.class, plan::reserve);
+        assertEquals(30, testLab.getAmount("Test Liquid", DROP), 0);
+    }
+
+    @Test
+    public void testRecipeWithLargeResult() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            testLab.addContainer(new IngredientContainer(new AlchemicIngredient("Big Liquid", temp, stateLiquid, 10080), BARREL));
+        }
+        testLab.addDevice(new Kettle());
+        RecipePlan plan = testLab.compileRecipe(new Recipe(new Recipe.ActionType[]{Recipe.ActionType.ADD},
+                new AlchemicIngredient[]{new AlchemicIngredient("Big Liquid", temp, stateLiquid, 2 * 10080)}));
+        // the result is larger than a barrel and is stored in two barrels, nothing stays reserved
+        AlchemicIngredient result = plan.execute();
+        assertEquals(2, result.getQuantity().getAmount(BARREL), 0);
+        assertEquals(3 * 10080, testLab.getAmount("Big Liquid", DROP), 0);
+        assertEquals(3, testLab.getContainers().size());
+        for (IngredientContainer container : testLab.getContainers()) {
+            assertEquals(BARREL, container.getContainerUnit());
+        }
+        assertEquals(0.4, testLab.getFreeSpace(), 1e-6);
+    }
+
+    @Test
+    public void testReserveRecipeWithFullDevice() throws Exception {
+        testLab.addContainer(containerLiquid);
+        Oven oven = new Oven();
+        testLab.addDevice(oven);
+        testLab.addDevice(new Kettle());
+        RecipePlan plan = testLab.compileRecipe(new Recipe(new Recipe.ActionType[]{Recipe.ActionType.ADD, Recipe.ActionType.HEAT},
+                new AlchemicIngredient[]{new AlchemicIngredient("Test Liquid", temp, stateLiquid, 20)}));
+        RecipePlan.Reservation reservation = plan.reserve();
+        // the oven is taken by an ingredient that was not put in by the recipe, the reserved ingredient goes back to the laboratory
+        oven.addIngredient(ingredientSolid);
+        assertThrows(Device.DeviceFullException.class, () -> plan.execute(reservation));
+        assertFalse(reservation.isOpen());
+        assertEquals(50, testLab.getAmount("Test Liquid", DROP), 0);
+        // nothing stays reserved: only the rest of the bottle and the ingredient that was put back take space, each in a vial
+        assertEquals(2, testLab.getContainers().size());
+        assertEquals(1 - 2 * FixedQuantity.toAmount(FixedQuantity.ticksPer(VIAL), FluidUnit.STOREROOM), testLab.getFreeSpace(), 1e-6);
+        assertSame(ingredientSolid, oven.takeIngredient());
+        // the heated liquid is stored again as Test Liquid
+        assertNotNull(plan.execute());
+        assertEquals(50, testLab.getAmount("Test Liquid", DROP), 0);
+        assertNull(oven.takeIngredient());
+    }
+
+    @Test
+    public void testRecipeWithBatchOven() throws Exception {
+        testLab.addContainer(containerLiquid);
+        BatchOven oven = new BatchOven(1, 0F, 150F);
+        testLab.addDevice(oven);
+        testLab.addDevice(new Kettle());
+        RecipePlan plan = testLab.compileRecipe(new Recipe(new Recipe.ActionType[]{Recipe.ActionType.ADD, Recipe.ActionType.HEAT},
+                new AlchemicIngredient[]{new AlchemicIngredient("Test Liquid", temp, stateLiquid, 20)}));
+        // an empty batch oven heats only the ingredient of the recipe and gives exactly that one back
+        assertNotNull(plan.execute());
+        assertTrue(oven.isEmpty());
+        assertEquals(50, testLab.getAmount("Test Liquid", DROP), 0);
+        // a batch oven that holds other ingredients is not used, they are not heated and the reserved ingredient goes back
+        AlchemicIngredient other = new AlchemicIngredient("Other Liquid", new Temperature(0, 30), stateLiquid, 10);
+        oven.addIngredient(other);
+        assertThrows(Device.DeviceFullException.class, plan::execute);
+        assertEquals(50, testLab.getAmount("Test Liquid", DROP), 0);
+        List<AlchemicIngredient> batch = oven.takeIngredients();
+        assertEquals(1, batch.size());
+        assertSame(other, batch.getFirst());
+        assertEquals(30F, other.getTemperature().getHotness(), 0);
+    }
+
+    @Test
+    public void testReserveRecipeConcurrently() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            Laboratory sharedLab = new Laboratory(1, 1, true);
+            sharedLab.addDevice(new Kettle());
+            sharedLab.addContainer(new IngredientContainer(new AlchemicIngredient("Test Liquid", temp, stateLiquid, 50), BOTTLE));
+            sharedLab.addContainer(new IngredientContainer(new AlchemicIngredient("Test Solid", temp, stateSolid, 50), BOX));
+            RecipePlan plan = sharedLab.compileRecipe(new Recipe(new Recipe.ActionType[]{Recipe.ActionType.ADD, Recipe.ActionType.ADD, Recipe.ActionType.MIX},
+                    new AlchemicIngredient[]{new AlchemicIngredient("Test Liquid", temp, stateLiquid, 20), new AlchemicIngredient("Test Solid", temp, stateSolid, 20)}));
+            RecipePlan.Reservation reservation = plan.reserve();
+            // another thread fills the laboratory between the reservation and its execution, and keeps trying while the recipe runs
+            AtomicBoolean stop = new AtomicBoolean();
+            CountDownLatch full = new CountDownLatch(1);
+            Thread filler = new Thread(() -> {
+                while (!stop.get()) {
+                    try {
+                        sharedLab.addContainer(new IngredientContainer(new AlchemicIngredient("Filler", temp, stateLiquid, 1), VIAL));
+                    } catch (IllegalArgumentException e) {
+                        full.countDown();
+                    } catch (IngredientName.IllegalNameException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            });
+            filler.start();
+            full.await();
+            AlchemicIngredient mixture;
+            try {
+                // the reserved space is handed to the result, the filler can't take it in between
+                mixture = plan.execute(reservation);
+            } finally {
+                stop.set(true);
+                filler.join();
+            }
+            assertTrue(sharedLab.getContainers().stream().anyMatch(container -> container.getContent() == mixture));
+            assertEquals(30, sharedLab.getAmount("Test Liquid", DROP), 0);
+        }
+    }
+
+    @Test
+    public void testReserveRecipeWithoutSpace() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            testLab.addContainer(new IngredientContainer(new AlchemicIngredient("Exceeding", temp, stateSolid, 7560), CHEST));
+        }
+        assertEquals(0, testLab.getFreeSpace(), 0);
+        testLab.addDevice(new Kettle());
+        AlchemicIngredient part = new AlchemicIngredient("Exceeding", temp, stateSolid, 10);
+        // a mix can round up, so its result needs more space than its ingredients free
+        RecipePlan mix = testLab.compileRecipe(new Recipe(new Recipe.ActionType[]{Recipe.ActionType.ADD, Recipe.ActionType.ADD, Recipe.ActionType.MIX},
+                new AlchemicIngredient[]{part, part}));
+        assertFalse(mix.canExecute());
+        assertThrows(IllegalArgumentException.class, mix::execute);
+        assertEquals(37800, testLab.getAmount("Exceeding", PINCH), 0);
+        assertEquals(5, testLab.getContainers().size());
+    }
+
+    @Test
+    public void testConcurrentLaboratory() throws Exception {
+        Laboratory sharedLab = new Laboratory(10, 1, true);
+        assertTrue(sharedLab.isConcurrent());
+        assertFalse(testLab.isConcurrent());
+        String[] names = {"Water", "Wine", "Milk", "Oil"};
+        Thread[] workers = new Thread[8];
+        for (int i = 0; i < workers.length; i++) {
+            String name = names[i % names.length];
+            workers[i] = new Thread(() -> {
+                try {
+                    for (int j = 0; j < 200; j++) {
+                        sharedLab.addContainer(new IngredientContainer(new AlchemicIngredient(name, temp, stateLiquid, 10), VIAL));
+                        if (j % 2 == 0) {
+                            sharedLab.removeIngredient(name, DROP, 10);
+                        }
+                    }
+                } catch (IngredientName.IllegalNameException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            workers[i].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        for (String name : names) {
+            assertEquals(2 * 100 * 10, sharedLab.getAmount(name, DROP), 0);     // 2 workers per name keep 100 vials of 10 drops each
+        }
+        assertEquals(800, sharedLab.getContainers().size());
+        assertEquals(800 * 5 / 6300F, sharedLab.getFilledSpace(false), 1e-6);       // a vial holds 5 spoons, a storeroom 6300
+        assertEquals(sharedLab.getFilledSpace(false), sharedLab.getFilledSpace(), 0);
+    }
+
+    @Test
+    public void testConcurrentLaboratoryOrder() throws Exception {
+        Laboratory sharedLab = new Laboratory(1, 1, true);
+        Laboratory heapLab = new Laboratory(1);
+        String[] names = {"Water", "Wine", "Milk", "Oil", "Water", "Oil", "Wine"};
+        for (Laboratory lab : new Laboratory[]{sharedLab, heapLab}) {
+            for (String name : names) {
+                lab.addContainer(new IngredientContainer(new AlchemicIngredient(name, temp, stateLiquid, 10), VIAL));
+            }
+            lab.removeIngredient("Water", DROP, 5);         // the rest of the first water vial keeps its place
+            lab.removeIngredient("Wine", DROP, 10);
+        }
+        List<IngredientContainer> shared = sharedLab.getContainers();
+        List<IngredientContainer> heap = heapLab.getContainers();
+        assertEquals(heap.size(), shared.size());
+        for (int i = 0; i < heap.size(); i++) {
+            assertEquals(heap.get(i).getContent().getBasicName(), shared.get(i).getContent().getBasicName());
+            assertEquals(heap.get(i).getContent().getQuantity().getValue().getTicks(),
+                    shared.get(i).getContent().getQuantity().getValue().getTicks());
+        }
+        assertEquals("Water", shared.get(0).getContent().getBasicName());
+        assertThrows(UnsupportedOperationException.class, () -> shared.remove(0));
+    }
+
+    @Test
+    public void testSnapshot() throws Exception {
+        Laboratory lab = new Laboratory(2);
+        Kettle kettle = new Kettle();
+        lab.addDevice(kettle);
+        lab.addDevice(new BatchOven(3, 0F, 150F));
+        lab.addContainer(containerLiquid);
+        lab.addContainer(containerSolid);
+        kettle.addIngredient(new AlchemicIngredient("Test Liquid", temp, stateLiquid, 10));
+        kettle.addIngredient(new AlchemicIngredient("Other Liquid", new Temperature(0, 30), stateLiquid, 10));
+        kettle.react();
+        AlchemicIngredient mixture = kettle.takeIngredient();
+        mixture.setSpecialName("Lukewarm Mix");
+        lab.addContainer(new IngredientContainer(mixture, BOTTLE));
+
+        Path file = folder.newFile().toPath();
+        LaboratorySnapshot.save(lab, file);
+        Laboratory loaded = LaboratorySnapshot.load(file);
+        assertEquals(2, loaded.getStoreroom());
+        assertEquals(lab.getContents(), loaded.getContents());
+        assertEquals(lab.getFilledSpace(), loaded.getFilledSpace(), 0);
+        List<IngredientContainer> containers = loaded.getContainers();
+        assertEquals(3, containers.size());
+        for (int i = 0; i < containers.size(); i++) {
+            AlchemicIngredient saved = lab.getContainers().get(i).getContent();
+            AlchemicIngredient restored = containers.get(i).getContent();
+            assertEquals(saved.getFullName(), restored.getFullName());
+            assertSame(saved.getStandardType(), restored.getStandardType());
+            assertEquals(saved.getTemperature(), restored.getTemperature());
+            assertEquals(saved.getQuantity().getValue(), restored.getQuantity().getValue());
+            assertEquals(lab.getContainers().get(i).getContainerUnit(), containers.get(i).getContainerUnit());
+        }
+        assertEquals(Kettle.class, loaded.getKettle().getClass());
+        BatchOven oven = (BatchOven) loaded.getOven();
+        assertEquals(3, oven.getCapacity());
+        assertEquals(150F, oven.getTemperature().getHotness(), 0);
+
+        Files.write(file, new byte[]{1, 2, 3});
+        assertThrows(IOException.class, () -> LaboratorySnapshot.load(file));
+    }
+
+    @Test
+    public void testSnapshotKeepsInventory() throws Exception {
+        Path file = folder.newFile().toPath();
+        Laboratory concurrent = new Laboratory(1, 1, true);
+        LaboratorySnapshot.save(concurrent, file);
+        assertTrue(LaboratorySnapshot.load(file).isConcurrent());
+
+        // a loaded aggregated laboratory still merges the content of one kind
+        Laboratory aggregated = Laboratory.aggregated(1, 1);
+        aggregated.addContainer(new IngredientContainer(new AlchemicIngredient("Test Liquid", temp, stateLiquid, 10), VIAL));
+        LaboratorySnapshot.save(aggregated, file);
+        Laboratory loaded = LaboratorySnapshot.load(file);
+        loaded.addContainer(new IngredientContainer(new AlchemicIngredient("Test Liquid", temp, stateLiquid, 10), VIAL));
+        assertEquals(1, loaded.getContainers().size());
+        assertEquals(20, loaded.getAmount("Test Liquid", DROP), 0);
+
+        // a loaded laboratory with mapped columns keeps its containers in the columns of the same directory
+        Path storage = folder.newFolder().toPath();
+        Laboratory mapped = new Laboratory(1, 1, storage);
+        mapped.addContainer(containerLiquid);
+        LaboratorySnapshot.save(mapped, file);
+        try (var columns = Files.list(storage)) {
+            for (Path column : columns.toList()) {
+                Files.delete(column);
+            }
+        }
+        Laboratory loadedMapped = LaboratorySnapshot.load(file);
+        assertTrue(Files.size(storage.resolve("ticks.column")) > 0);
+        assertFalse(loadedMapped.isConcurrent());
+        assertEquals(mapped.getContents(), loadedMapped.getContents());
+    }
+
+    @Test
+    public void testJournal() throws Exception {
+        Path directory = folder.newFolder().toPath();
+        LaboratoryJournal journal = LaboratoryJournal.create(testLab, directory, 4, 60_000);
+        assertThrows(IllegalArgumentException.class, () -> LaboratoryJournal.create(testLab, directory, 4, 60_000));
+        testLab.addContainer(containerLiquid);
+        testLab.addContainer(containerSolid);
+        testLab.addDevice(new Oven(0F, 60F));
+        testLab.addDevice(new Kettle());
+        testLab.addStorerooms(2);
+        testLab.executeRecipe(new Recipe(new Recipe.ActionType[]{Recipe.ActionType.ADD, Recipe.ActionType.HEAT, Recipe.ActionType.ADD, Recipe.ActionType.MIX},
+                new AlchemicIngredient[]{new AlchemicIngredient("Test Liquid", temp, stateLiquid, 20), new AlchemicIngredient("Test Solid", temp, stateSolid, 20)}));
+        testLab.removeIngredient("Test Liquid", DROP, 5);
+        testLab.removeDevice(testLab.getKettle());
+        // the records are committed in groups of 4, the last group is only committed by sync
+        assertTrue(journal.getCommittedRecords() > 0);
+        journal.sync();
+        assertEquals(journal.getAppendedRecords(), journal.getCommittedRecords());
+
+        // a record that was only partly written is dropped
+        Files.write(directory.resolve("laboratory.journal"), new byte[]{0, 0, 0, 40, 1, 2}, StandardOpenOption.APPEND);
+        LaboratoryJournal recovered = LaboratoryJournal.recover(directory, 4, 60_000);
+        Laboratory lab = recovered.getLaboratory();
+        assertEquals(3, lab.getStoreroom());
+        assertEquals(testLab.getContents(), lab.getContents());
+        assertEquals(testLab.getDevices().size(), lab.getDevices().size());
+        assertNull(lab.getKettle());
+        assertEquals(60F, lab.getOven().getTemperature().getHotness(), 0);
+        for (int i = 0; i < lab.getContainers().size(); i++) {
+            assertEquals(testLab.getContainers().get(i).getContent().getFullName(), lab.getContainers().get(i).getContent().getFullName());
+            assertEquals(testLab.getContainers().get(i).getContent().getTemperature(), lab.getContainers().get(i).getContent().getTemperature());
+        }
+        journal.close();
+
+        // after a checkpoint only the changes since the checkpoint are replayed
+        recovered.checkpoint();
+        assertEquals(16, Files.size(directory.resolve("laboratory.journal")));
+        lab.removeIngredient("Test Solid", PINCH, 10);
+        recovered.close();
+        Laboratory again = LaboratoryJournal.recover(directory, 1, 0).getLaboratory();
+        assertEquals(lab.getContents(), again.getContents());
+    }
+
+    @Test
+    public void testJournalCommitFailure() throws Exception {
+        Path directory = folder.newFolder().toPath();
+        LaboratoryJournal journal = LaboratoryJournal.create(testLab, directory, 100, 60_000);
+        testLab.addContainer(containerLiquid);
+        journal.sync();
+        long committed = journal.getCommittedRecords();
+        testLab.addContainer(containerSolid);
+        long appended = journal.getAppendedRecords();
+        assertTrue(appended > committed);
+
+        // the journal file can no longer be written: the group is kept and the journal fails
+        Field field = LaboratoryJournal.class.getDeclaredField("channel");
+        field.setAccessible(true);
+        FileChannel channel = (FileChannel) field.get(journal);
+        FileChannel broken = FileChannel.open(directory.resolve("broken"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        broken.close();
+        field.set(journal, broken);
+        assertThrows(IOException.class, journal::sync);
+        assertEquals(committed, journal.getCommittedRecords());
+        assertEquals(appended, journal.getAppendedRecords());
+
+        // no change is made that can't be recorded, also once the file can be written again
+        field.set(journal, channel);
+        assertThrows(IllegalStateException.class, () -> testLab.addContainer(new IngredientContainer(new AlchemicIngredient("Test Liquid", temp, stateLiquid, 10), VIAL)));
+        assertThrows(IllegalStateException.class, () -> testLab.removeIngredient("Test Liquid", DROP, 10));
+        assertEquals(50, testLab.getAmount("Test Liquid", DROP), 0);
+        assertThrows(IOException.class, journal::sync);
+        assertThrows(IOException.class, journal::checkpoint);
+        assertEquals(committed, journal.getCommittedRecords());
+
+        // closing stops journaling, so the laboratory can change again, and only the records that were committed are recovered
+        assertThrows(IOException.class, journal::close);
+        testLab.removeIngredient("Test Liquid", DROP, 10);
+        Laboratory recovered = LaboratoryJournal.recover(directory, 1, 0).getLaboratory();
+        assertEquals(50, recovered.getAmount("Test Liquid", DROP), 0);
+        assertEquals(0, recovered.getAmount("Test Solid", PINCH), 0);
+    }
+
+    @Test
+    public void testJournalInterval() throws Exception {
+        Path directory = folder.newFolder().toPath();
+        LaboratoryJournal journal = LaboratoryJournal.create(testLab, directory, 100, 20);
+        testLab.addContainer(containerLiquid);
+        // the group is far from complete, the record is committed once it waited the interval without another record being appended
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (journal.getCommittedRecords() < journal.getAppendedRecords() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(journal.getAppendedRecords(), journal.getCommittedRecords());
+        journal.close();
+        assertEquals(testLab.getContents(), LaboratoryJournal.recover(directory, 1, 0).getLaboratory().getContents());
+    }
+
+    @Test
+    public void testAggregatedLaboratory() throws Exception {
+        Laboratory aggregated = Laboratory.aggregated(1, 1);
+        for (int i = 0; i < 100; i++) {
+            aggregated.addContainer(new IngredientContainer(new AlchemicIngredient("Test Liquid", temp, stateLiquid, 50), BOTTLE));
+            testLab.addContainer(new IngredientContainer(new AlchemicIngredient("Test Liquid", temp, stateLiquid, 50), BOTTLE));
+        }
+        aggregated.addContainer(containerSolid);
+        testLab.addContainer(containerSolid);
+        // the 100 bottles are kept as one balance of 5000 drops, that is only poured in containers when asked for
+        assertEquals(testLab.getContents(), aggregated.getContents());
+        assertEquals(5000, aggregated.getAmount("Test Liquid", DROP), 0);
+        assertTrue(aggregated.getContainers().size() < 10);
+        long ticks = 0;
+        for (IngredientContainer container : aggregated.getContainers()) {
+            if (container.getContent().getBasicName().equals("Test Liquid")) {
+                ticks += container.getContent().getQuantity().getValue().getTicks();
+            }
+        }
+        assertEquals(FixedQuantity.toTicks(5000, DROP), ticks);
+        // the balance takes the space of the barrel it would be poured in
+        assertEquals(FixedQuantity.toAmount(FixedQuantity.ticksPer(BARREL), FluidUnit.STOREROOM), aggregated.getFilledSpace(false), 1e-6);
+        IngredientContainer removed = aggregated.removeIngredient("Test Liquid", DROP, 60);
+        assertEquals(BOTTLE, removed.getContainerUnit());
+        assertTrue(removed.getContent().getQuantity().isEqualTo(new Quantity(60, DROP)));
+        assertEquals(4940, aggregated.getAmount("Test Liquid", DROP), 0);
+        assertThrows(IllegalArgumentException.class, () -> aggregated.removeIngredient("Test Solid", PINCH, 51));
+        aggregated.removeIngredient("Test Solid", PINCH, 50);
+        assertEquals(0, aggregated.getFilledSpace(true), 0);
+        assertEquals(List.of("4940.0 drop of Test Liquid"), InventoryReporter.lines(aggregated).toList());
+        for (int i = 0; i < 3; i++) {
+            aggregated.addContainer(new IngredientContainer(new AlchemicIngredient("Other Liquid", temp, stateLiquid, new Quantity(1, BARREL)), BARREL));
+        }
+        // a drop more still fits in the barrel of its balance
+        aggregated.addContainer(new IngredientContainer(new AlchemicIngredient("Test Liquid", temp, stateLiquid, 1), VIAL));
+        assertEquals(0.8, aggregated.getFilledSpace(false), 1e-6);
+        // two new balances that would each be poured in a barrel don't fit in the last free barrel, nothing is added
+        assertThrows(IllegalArgumentException.class, () -> aggregated.addContainers(List.of(
+                new IngredientContainer(new AlchemicIngredient("New Liquid", temp, stateLiquid, 5000), BARREL),
+                new IngredientContainer(new AlchemicIngredient("Newer Liquid", temp, stateLiquid, 5000), BARREL))));
+        assertEquals(0.8, aggregated.getFilledSpace(false), 1e-6);
+        assertEquals(0, aggregated.getAmount("New Liquid", DROP), 0);
+        assertEquals(4941, aggregated.getAmount("Test Liquid", DROP), 0);
+    }
+
+    @Test
+    public void testMappedLaboratory() throws Exception {
+        Path directory = folder.newFolder().toPath();
+        Laboratory mapped = new Laboratory(5, 1, directory);
+        Laboratory heap = new Laboratory(5);
+        assertTrue(mapped.isEmpty());
+        List<IngredientContainer> stock = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            stock.add(new IngredientContainer(new AlchemicIngredient(i % 3 == 0 ? "Test Solid" : "Test Liquid", temp, i % 3 == 0 ? stateSolid : stateLiquid, 40),
+                    i % 3 == 0 ? SACHET : VIAL));
+        }
+        mapped.addContainers(stock);
+        heap.addContainers(stock);
+        assertEquals(heap.getContents(), mapped.getContents());
+        assertEquals(heap.getFilledSpace(true), mapped.getFilledSpace(true), 0);
+        // taking out most of the liquid leaves more removed rows than stored ones, which are then dropped
+        for (int i = 0; i < 90; i++) {
+            mapped.removeIngredient("Test Liquid", DROP, 830);
+            heap.removeIngredient("Test Liquid", DROP, 830);
+        }
+        mapped.removeIngredient("Test Solid", PINCH, 30);
+        heap.removeIngredient("Test Solid", PINCH, 30);
+        assertEquals(heap.getContents(), mapped.getContents());
+        assertEquals(heap.getAmount("Test Liquid", DROP), mapped.getAmount("Test Liquid", DROP), 0);
+        assertEquals(heap.getFilledSpace(), mapped.getFilledSpace(), 0);
+        assertEquals(heap.getContainers().size(), mapped.getContainers().size());
+        assertEquals(heap.getContainers().getLast().getContainerUnit(), mapped.getContainers().getLast().getContainerUnit());
+        // the rest of a partly withdrawn container keeps its place
+        for (int i = 0; i < heap.getContainers().size(); i++) {
+            assertEquals(heap.getContainers().get(i).getContent().getQuantity().getValue().getTicks(),
+                    mapped.getContainers().get(i).getContent().getQuantity().getValue().getTicks());
+            assertEquals(heap.getContainers().get(i).getContainerUnit(), mapped.getContainers().get(i).getContainerUnit());
+        }
+        while (mapped.getAmount("Test Liquid", DROP) > 0) {
+            mapped.removeIngredient("Test Liquid", DROP, (int) Math.min(800, mapped.getAmount("Test Liquid", DROP)));
+        }
+        while (mapped.getAmount("Test Solid", PINCH) > 0) {
+            mapped.removeIngredient("Test Solid", PINCH, (int) Math.min(800, mapped.getAmount("Test Solid", PINCH)));
+        }
+        assertTrue(mapped.isEmpty());
+        assertEquals("The lab is empty", mapped.getContents());
+    }
+}
@@ -0,0 +1,66 @@
+import com.alchemy.*;
+import com.alchemy.IngredientConditions.*;
+import com.alchemy.recipes.Recipe;
+import com.alchemy.recipes.RecipeBook;
+import com.alchemy.recipes.RecipeExecutor;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static com.alchemy.quantity.FluidUnit.*;
+
+public class RecipeExecutorTest {
+    List<Laboratory> labs;
+    Recipe mixWater;
+
+    @Before
+    public void setUpFixture() throws Exception {
+        labs = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Laboratory lab = new Laboratory(1);
+            lab.addDevice(new Kettle());
+            lab.addContainer(new IngredientContainer(new AlchemicIngredient("Water", new Temperature(0, 20), new IngredientState(false), 500), JUG));
+            lab.addContainer(new IngredientContainer(new AlchemicIngredient("Wine", new Temperature(0, 20), new IngredientState(false), 500), JUG));
+            labs.add(lab);
+        }
+        mixWater = new Recipe(new Recipe.ActionType[]{Recipe.ActionType.ADD, Recipe.ActionType.ADD},
+                new AlchemicIngredient[]{new AlchemicIngredient("Water", new Temperature(0, 20), new IngredientState(false), 10),
+                        new AlchemicIngredient("Wine", new Temperature(0, 20), new IngredientState(false), 10)});
+    }
+
+    @Test
+    public void testExecute() {
+        Recipe[] recipes = new Recipe[50];
+        Arrays.fill(recipes, mixWater);
+        try (RecipeExecutor executor = new RecipeExecutor(labs)) {
+            List<RecipeExecutor.Result> results = executor.execute(new RecipeBook(recipes));
+            assertEquals(50, results.size());
+            // every lab holds enough water and wine for all recipes, so every recipe succeeds, in whichever lab it ran
+            long successes = results.stream().filter(RecipeExecutor.Result::isSuccess).count();
+            assertEquals(50, successes);
+            for (Laboratory lab : labs) {
+                long executed = results.stream().filter(result -> result.getLaboratory() == lab).count();
+                // every recipe took 10 drops of water and of wine and stored their mix
+                assertEquals(500 - 10 * executed, lab.getAmount("Water", DROP), 0);
+                assertEquals(500 - 10 * executed, lab.getAmount("Wine", DROP), 0);
+                assertEquals(20 * executed, lab.getAmount("Water mixed with Wine", DROP), 0);
+            }
+            for (RecipeExecutor.Result result : results) {
+                assertSame(mixWater, result.getRecipe());
+                assertNotNull(result.getProduct());
+                assertNull(result.getFailure());
+                assertTrue(labs.contains(result.getLaboratory()));
+            }
+        }
+    }
+
+    @Test
+    public void testLaboratories() {
+        assertThrows(IllegalArgumentException.class, () -> new RecipeExecutor(List.of()));
+        assertThrows(IllegalArgumentException.class, () -> new RecipeExecutor(List.of(labs.get(0), labs.get(0))));
+    }
+}
@@ -67,4 +67,46 @@ public class UnitTest {
         assertThrows(Exception.class, () -> mediumTestFluid.convertTo(PowderUnit.CHEST));
         assertThrows(Exception.class, () -> mediumTestPowder.convertTo(FluidUnit.DROP));
     }
+
+    @Test
+    public void testConversionFactor(){
+        assertEquals(8, FluidUnit.SPOON.getConversionFactor(DROP), 0);
+        assertEquals(1.0 / 840, DROP.getConversionFactor(JUG), 1e-12);
+        assertEquals(756, SACK.getConversionFactor(PINCH), 0);
+        // spoons and storerooms hold the same amount for both types
+        assertEquals(1, FluidUnit.SPOON.getConversionFactor(PowderUnit.SPOON), 0);
+        assertEquals(1, PowderUnit.STOREROOM.getConversionFactor(FluidUnit.STOREROOM), 0);
+        assertEquals(0.75, DROP.getConversionFactor(PINCH), 1e-12);
+        assertEquals(1008, mediumTestPowder.getAmount(DROP), 0.001);
+        assertEquals(SACK, mediumTestPowder.getUnit());
+    }
+
+    @Test
+    public void testFixedQuantity(){
+        FixedQuantity drops = FixedQuantity.of(840, DROP);
+        assertEquals(FixedQuantity.of(1, JUG), drops);
+        assertEquals(1, drops.in(JUG).getAmount(), 0);
+        // a drop is three quarters of a pinch, the round trip through powder units is exact
+        assertEquals(drops, drops.in(PINCH).in(SACHET).in(DROP));
+        assertEquals(630, drops.getAmount(PINCH), 0);
+        assertEquals(FixedQuantity.of(2, JUG), drops.plus(drops));
+        assertEquals(0, drops.minus(drops).getTicks());
+        assertEquals(FixedQuantity.of(3, JUG), drops.times(3));
+        assertTrue(drops.compareTo(FixedQuantity.of(1, BARREL)) < 0);
+        assertEquals("840.0 drop", drops.toString());
+        assertEquals("1.0 sack", drops.in(JUG).toString());
+    }
+
+    @Test
+    public void testSmallestContainer(){
+        assertEquals(FluidUnit.SPOON, new Quantity(0, DROP).getSmallestFluidContainer());
+        assertEquals(FluidUnit.SPOON, new Quantity(8, DROP).getSmallestFluidContainer());
+        assertEquals(VIAL, new Quantity(9, DROP).getSmallestFluidContainer());
+        assertEquals(JUG, smallTestFluid.getSmallestFluidContainer());
+        assertEquals(SACK, smallTestPowder.getSmallestPowderContainer());
+        assertEquals(CHEST, new Quantity(2, PowderUnit.STOREROOM).getSmallestPowderContainer());     // too large for any container
+        Unit[] containers = new Unit[3];
+        Quantity.getSmallestContainers(new long[]{0, FixedQuantity.ticksPer(BOX), FixedQuantity.ticksPer(BOX) + 1}, true, containers);
+        assertArrayEquals(new Unit[]{PowderUnit.SPOON, BOX, SACK}, containers);
+    }
 }